@@ -0,0 +1,99 @@
+package com.example.wififinder;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists fitted {@link PathLossModel}s per BSSID. Each band's default is
+ * the mean of the fits of every AP calibrated on it, so one calibration does
+ * not replace the others. Lookups fall back from the AP to its band to the
+ * built-in default.
+ */
+public class CalibrationStore {
+
+    private static final String PREFS_NAME = "calibration";
+    private static final String BSSID_PREFIX = "bssid:";
+    private static final String BSSID_BAND_PREFIX = "bssid-band:";
+    private static final String BAND_PREFIX = "band:";
+    private static final String BAND_COUNT_PREFIX = "band-count:";
+
+    private final SharedPreferences prefs;
+
+    public CalibrationStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public PathLossModel modelFor(long bssidKey, int frequencyMhz) {
+        PathLossModel model = PathLossModel.decode(prefs.getString(BSSID_PREFIX + bssidKey, null));
+        if (model == null) {
+            model = PathLossModel.decode(prefs.getString(BAND_PREFIX + AccessPoint.bandOf(frequencyMhz), null));
+        }
+        return model != null ? model : PathLossModel.DEFAULT;
+    }
+
+    public boolean isCalibrated(long bssidKey) {
+        return prefs.contains(BSSID_PREFIX + bssidKey);
+    }
+
+    /** Number of calibrated APs the band's default is averaged over. */
+    public int bandCalibrationCount(int frequencyMhz) {
+        return prefs.getInt(BAND_COUNT_PREFIX + AccessPoint.bandOf(frequencyMhz), 0);
+    }
+
+    /** Saves the model for the AP and folds it into its band's default. */
+    public void save(long bssidKey, int frequencyMhz, PathLossModel model) {
+        int band = AccessPoint.bandOf(frequencyMhz);
+        SharedPreferences.Editor editor = prefs.edit()
+                .putString(BSSID_PREFIX + bssidKey, model.encode())
+                .putInt(BSSID_BAND_PREFIX + bssidKey, band);
+        if (band != 0) {
+            putBandDefault(editor, band, bssidKey, model);
+        }
+        editor.apply();
+    }
+
+    public void clear(long bssidKey) {
+        int band = prefs.getInt(BSSID_BAND_PREFIX + bssidKey, 0);
+        SharedPreferences.Editor editor = prefs.edit()
+                .remove(BSSID_PREFIX + bssidKey)
+                .remove(BSSID_BAND_PREFIX + bssidKey);
+        if (band != 0) {
+            putBandDefault(editor, band, bssidKey, null);
+        }
+        editor.apply();
+    }
+
+    // Mean of the band's stored fits, with the changed AP's taken from the edit
+    private void putBandDefault(SharedPreferences.Editor editor, int band,
+                                long changedKey, PathLossModel changed) {
+        List<PathLossModel> models = new ArrayList<>();
+        if (changed != null) {
+            models.add(changed);
+        }
+        String changedBandKey = BSSID_BAND_PREFIX + changedKey;
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(BSSID_BAND_PREFIX) || key.equals(changedBandKey)
+                    || !Integer.valueOf(band).equals(entry.getValue())) {
+                continue;
+            }
+            PathLossModel model = PathLossModel.decode(prefs.getString(
+                    BSSID_PREFIX + key.substring(BSSID_BAND_PREFIX.length()), null));
+            if (model != null) {
+                models.add(model);
+            }
+        }
+
+        PathLossModel mean = PathLossModel.mean(models);
+        if (mean == null) {
+            editor.remove(BAND_PREFIX + band).remove(BAND_COUNT_PREFIX + band);
+        } else {
+            editor.putString(BAND_PREFIX + band, mean.encode())
+                    .putInt(BAND_COUNT_PREFIX + band, models.size());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.wififinder;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.IBinder;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.Locale;
+
+/**
+ * Channel occupancy mode: how loaded each non-overlapping channel of every
+ * band is, and which one to move an access point to. Refreshed on every
+ * new scan from the {@link ScanService}.
+ */
+public class ChannelActivity extends AppCompatActivity {
+
+    private static final String TAG = "ChannelActivity";
+    // Load at which a channel's bar is full, about this many loud access points
+    private static final float BAR_MAX_LOAD = 5f;
+
+    private static final class ChannelViews {
+        final TextView channel;
+        final ProgressBar load;
+        final TextView loadText;
+
+        ChannelViews(View root) {
+            channel = root.findViewById(R.id.txtChannel);
+            load = root.findViewById(R.id.barLoad);
+            loadText = root.findViewById(R.id.txtLoad);
+        }
+    }
+
+    private TextView txtChannelStatus;
+    private final TextView[] recommendations = new TextView[ChannelAnalyzer.BANDS.length];
+    private final ChannelViews[][] rows = new ChannelViews[ChannelAnalyzer.BANDS.length][];
+
+    private final ChannelAnalyzer analyzer = new ChannelAnalyzer();
+    private ScanService scanService;
+    private boolean serviceBound = false;
+
+    private final ScanService.Observer scanObserver = snapshot -> {
+        try {
+            if (analyzer.update(snapshot)) {
+                bindChannels(snapshot.getResults().size());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "onScan: Error: " + e.getMessage(), e);
+        }
+    };
+
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            scanService = ((ScanService.LocalBinder) binder).getService();
+            scanService.addObserver(scanObserver);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            scanService = null;
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_channels);
+
+        txtChannelStatus = findViewById(R.id.txtChannelStatus);
+
+        // Sections and rows are inflated once; scans only rebind them
+        LinearLayout container = findViewById(R.id.containerChannels);
+        LayoutInflater inflater = LayoutInflater.from(this);
+        for (int b = 0; b < ChannelAnalyzer.BANDS.length; b++) {
+            int band = ChannelAnalyzer.BANDS[b];
+            View header = inflater.inflate(R.layout.channel_band_item, container, false);
+            container.addView(header);
+            ((TextView) header.findViewById(R.id.txtBand)).setText(band == 2 ? "2.4 GHz" : band + " GHz");
+            recommendations[b] = header.findViewById(R.id.txtRecommendation);
+
+            rows[b] = new ChannelViews[ChannelAnalyzer.getCandidateCount(band)];
+            for (int i = 0; i < rows[b].length; i++) {
+                View root = inflater.inflate(R.layout.channel_row_item, container, false);
+                container.addView(root);
+                rows[b][i] = new ChannelViews(root);
+                rows[b][i].channel.setText(String.valueOf(ChannelAnalyzer.getCandidate(band, i)));
+            }
+        }
+
+        Button btnBack = findViewById(R.id.btnBack);
+        btnBack.setOnClickListener(v -> finish());
+
+        serviceBound = bindService(new Intent(this, ScanService.class),
+                serviceConnection, Context.BIND_AUTO_CREATE);
+        bindChannels(0);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (scanService != null) {
+            scanService.removeObserver(scanObserver);
+            scanService = null;
+        }
+        if (serviceBound) {
+            unbindService(serviceConnection);
+            serviceBound = false;
+        }
+        Log.d(TAG, "onDestroy: " + analyzer.getScanCount() + " scans analyzed");
+    }
+
+    private void bindChannels(int networkCount) {
+        for (int b = 0; b < ChannelAnalyzer.BANDS.length; b++) {
+            int band = ChannelAnalyzer.BANDS[b];
+            int best = analyzer.recommend(band);
+            recommendations[b].setText(best == 0 ? "Not heard" : "Best: channel " + best);
+
+            for (int i = 0; i < rows[b].length; i++) {
+                int channel = ChannelAnalyzer.getCandidate(band, i);
+                float load = analyzer.getLoad(band, channel);
+                ChannelViews row = rows[b][i];
+                row.load.setProgress(Math.round(Math.min(1f, load / BAR_MAX_LOAD) * 100));
+                row.loadText.setText(String.format(Locale.US, "%.1f · %d APs",
+                        load, analyzer.getAccessPointCount(band, channel)));
+                row.channel.setTextColor(channel == best ? 0xFF4CAF50 : 0xFF212121);
+            }
+        }
+        txtChannelStatus.setText(analyzer.getScanCount() == 0 ? "Waiting for a scan"
+                : networkCount + " networks, " + analyzer.getScanCount() + " scans averaged");
+    }
+}
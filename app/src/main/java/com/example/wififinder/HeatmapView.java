@@ -0,0 +1,212 @@
+package com.example.wififinder;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Draws a {@link SurveyGrid.Layer} over an optional floor plan, with the
+ * walker's position on top. The heatmap is a bitmap with one pixel per grid
+ * cell, scaled up with filtering: a new sample only repaints the pixels of
+ * the cells it changed, so updates stay far inside a frame however big the
+ * survey gets. Taps report a position in meters, e.g. to re-anchor dead
+ * reckoning.
+ */
+public class HeatmapView extends View implements SurveyGrid.DirtyListener {
+
+    private static final String TAG = "HeatmapView";
+    /** Width of the surveyed area, in meters, mapped onto the view or the floor plan. */
+    public static final float WORLD_WIDTH_METERS = 30f;
+    private static final long FRAME_BUDGET_NS = 16_000_000L;
+    // Color scale, blue (weak) to red (strong), one entry per dBm
+    private static final int MIN_LEVEL = -100;
+    private static final int MAX_LEVEL = -30;
+    private static final int[] COLORS = new int[MAX_LEVEL - MIN_LEVEL + 1];
+
+    static {
+        float[] hsv = {0f, 1f, 1f};
+        for (int i = 0; i < COLORS.length; i++) {
+            hsv[0] = 240f * (1f - (float) i / (COLORS.length - 1));
+            COLORS[i] = Color.HSVToColor(170, hsv);
+        }
+    }
+
+    /** Called with a tapped position, in meters. */
+    public interface PositionListener {
+        void onPositionTapped(float x, float y);
+    }
+
+    private final Paint heatPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint planPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint positionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF worldRect = new RectF();
+
+    private Bitmap floorPlan;
+    private Bitmap heat;
+    private SurveyGrid.Layer layer;
+    private PositionListener positionListener;
+    private float worldHeightMeters;
+    private float positionX = Float.NaN;
+    private float positionY = Float.NaN;
+    private long maxDrawNanos = 0;
+
+    public HeatmapView(Context context) {
+        this(context, null);
+    }
+
+    public HeatmapView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        positionPaint.setColor(0xFF212121);
+        positionPaint.setStyle(Paint.Style.STROKE);
+        positionPaint.setStrokeWidth(6f);
+    }
+
+    public void setPositionListener(PositionListener listener) {
+        positionListener = listener;
+    }
+
+    /** Sets the plan the survey is drawn on; null to survey on a blank area. */
+    public void setFloorPlan(Bitmap plan) {
+        floorPlan = plan;
+        resizeWorld();
+    }
+
+    /** Shows the layer, repainting every cell once. */
+    public void setLayer(SurveyGrid.Layer layer) {
+        this.layer = layer;
+        repaintAll();
+    }
+
+    public void setPosition(float x, float y) {
+        positionX = x;
+        positionY = y;
+        invalidate();
+    }
+
+    /** Slowest frame so far; should stay under 16 ms. */
+    public long getMaxDrawNanos() {
+        return maxDrawNanos;
+    }
+
+    public float getWorldHeightMeters() {
+        return worldHeightMeters;
+    }
+
+    @Override
+    public void onCellChanged(int cx, int cy, float estimate) {
+        if (heat == null || cx < 0 || cy < 0 || cx >= heat.getWidth() || cy >= heat.getHeight()) {
+            return;
+        }
+        heat.setPixel(cx, cy, colorOf(estimate));
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        resizeWorld();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long start = System.nanoTime();
+        super.onDraw(canvas);
+        canvas.drawColor(0xFFFFFFFF);
+        if (floorPlan != null) {
+            canvas.drawBitmap(floorPlan, null, worldRect, planPaint);
+        }
+        if (heat != null) {
+            canvas.drawBitmap(heat, null, worldRect, heatPaint);
+        }
+        if (!Float.isNaN(positionX)) {
+            float scale = worldRect.width() / WORLD_WIDTH_METERS;
+            canvas.drawCircle(worldRect.left + positionX * scale,
+                    worldRect.top + positionY * scale, 18f, positionPaint);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        maxDrawNanos = Math.max(maxDrawNanos, elapsed);
+        if (elapsed > FRAME_BUDGET_NS) {
+            Log.w(TAG, "onDraw: Frame took " + elapsed / 1000 + " us");
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            return true;
+        }
+        if (event.getAction() == MotionEvent.ACTION_UP && worldRect.width() > 0) {
+            float scale = WORLD_WIDTH_METERS / worldRect.width();
+            float x = (event.getX() - worldRect.left) * scale;
+            float y = (event.getY() - worldRect.top) * scale;
+            if (x >= 0 && y >= 0 && x <= WORLD_WIDTH_METERS && y <= worldHeightMeters) {
+                setPosition(x, y);
+                if (positionListener != null) {
+                    positionListener.onPositionTapped(x, y);
+                }
+                performClick();
+            }
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    // The world is fitted to the view's width; its height follows the plan, or the view
+    private void resizeWorld() {
+        int w = getWidth();
+        int h = getHeight();
+        if (w == 0 || h == 0) {
+            return;
+        }
+        float aspect = floorPlan != null
+                ? (float) floorPlan.getHeight() / floorPlan.getWidth() : (float) h / w;
+        worldHeightMeters = WORLD_WIDTH_METERS * aspect;
+        float drawnHeight = Math.min(h, w * aspect);
+        float drawnWidth = drawnHeight / aspect;
+        worldRect.set((w - drawnWidth) / 2, (h - drawnHeight) / 2,
+                (w + drawnWidth) / 2, (h + drawnHeight) / 2);
+
+        int cols = (int) Math.ceil(WORLD_WIDTH_METERS / SurveyGrid.CELL_METERS);
+        int rows = (int) Math.ceil(worldHeightMeters / SurveyGrid.CELL_METERS);
+        if (heat == null || heat.getWidth() != cols || heat.getHeight() != rows) {
+            heat = Bitmap.createBitmap(cols, rows, Bitmap.Config.ARGB_8888);
+        }
+        repaintAll();
+    }
+
+    private void repaintAll() {
+        if (heat == null) {
+            return;
+        }
+        heat.eraseColor(Color.TRANSPARENT);
+        if (layer != null) {
+            for (int cy = 0; cy < heat.getHeight(); cy++) {
+                for (int cx = 0; cx < heat.getWidth(); cx++) {
+                    float estimate = layer.estimate(cx, cy);
+                    if (!Float.isNaN(estimate)) {
+                        heat.setPixel(cx, cy, colorOf(estimate));
+                    }
+                }
+            }
+        }
+        invalidate();
+    }
+
+    private static int colorOf(float level) {
+        int i = Math.round(level) - MIN_LEVEL;
+        return COLORS[Math.max(0, Math.min(COLORS.length - 1, i))];
+    }
+}
@@ -1,25 +1,22 @@
 package com.example.wififinder;
 
 import android.Manifest;
-import android.content.BroadcastReceiver;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
+import android.content.ServiceConnection;
 import android.content.pm.PackageManager;
 import android.location.LocationManager;
 import android.net.Uri;
-import android.net.wifi.ScanResult;
 import android.net.wifi.WifiManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.Looper;
+import android.os.IBinder;
 import android.provider.Settings;
 import android.util.Log;
 import android.view.View;
-import android.widget.AdapterView;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -28,10 +25,15 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.SimpleItemAnimator;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
@@ -39,53 +41,38 @@ public class MainActivity extends AppCompatActivity {
     private static final String TAG = "WiFiVibrationRadar";
     private static final int REQ_PERMISSIONS = 1001;
     private static final int REQ_BACKGROUND_LOCATION = 1002;
-    private static final long AUTO_REFRESH_INTERVAL_MS = 1000;
 
     private WifiManager wifiManager;
 
     private Button btnScan;
+    private Button btnTrackSuspicious;
     private TextView txtNetworkCount;
     private TextView txtStatus;
-    private ListView listViewWifi;
+    private TextView txtTrace;
+    private RecyclerView listViewWifi;
     private TextView txtEmptyState;
 
     private WifiAdapter adapter;
-    private List<ScanResult> lastScanResults = new ArrayList<>();
-    private List<ScanResult> suspiciousNetworks = new ArrayList<>();
 
-    private Handler autoRefreshHandler = new Handler(Looper.getMainLooper());
+    private ScanPipeline scanPipeline;
+    private ScanService scanService;
+    private boolean serviceBound = false;
 
-    private long lastScanTime = 0;
-    private int scanCount = 0;
-    private static final long SCAN_WINDOW_MS = 120000;
+    // Every new scan from the service is run through the pipeline
+    private final ScanService.Observer scanObserver = snapshot -> showScanResults();
 
-    private final BroadcastReceiver wifiScanReceiver = new BroadcastReceiver() {
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
         @Override
-        public void onReceive(Context context, Intent intent) {
-            Log.d(TAG, "BroadcastReceiver: Received SCAN_RESULTS_AVAILABLE_ACTION");
-
-            boolean success = intent.getBooleanExtra(
-                    WifiManager.EXTRA_RESULTS_UPDATED, false);
-
-            if (success) {
-                Log.i(TAG, "Scan completed successfully");
-                showScanResults();
-            } else {
-                Log.e(TAG, "Scan failed or throttled by system");
-                Log.i(TAG, "Using cached scan results instead");
-                showScanResults();
-            }
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            Log.d(TAG, "onServiceConnected: Observing scans");
+            scanService = ((ScanService.LocalBinder) binder).getService();
+            scanService.addObserver(scanObserver);
         }
-    };
 
-    private final Runnable autoRefreshRunnable = new Runnable() {
         @Override
-        public void run() {
-            if (wifiManager != null) {
-                Log.d(TAG, "Auto-refresh: Reading cached scan results");
-                showScanResults();
-            }
-            autoRefreshHandler.postDelayed(this, AUTO_REFRESH_INTERVAL_MS);
+        public void onServiceDisconnected(ComponentName name) {
+            Log.w(TAG, "onServiceDisconnected: Scan service gone");
+            scanService = null;
         }
     };
 
@@ -108,77 +95,124 @@ public class MainActivity extends AppCompatActivity {
         }
 
         btnScan = findViewById(R.id.btnScan);
+        btnTrackSuspicious = findViewById(R.id.btnTrackSuspicious);
         txtNetworkCount = findViewById(R.id.txtNetworkCount);
         txtStatus = findViewById(R.id.txtStatus);
+        txtTrace = findViewById(R.id.txtTrace);
         listViewWifi = findViewById(R.id.listViewWifi);
         txtEmptyState = findViewById(R.id.txtEmptyState);
         Log.d(TAG, "onCreate: UI components initialized");
 
-        adapter = new WifiAdapter(this, lastScanResults, suspiciousNetworks);
+        adapter = new WifiAdapter(this::openTracker);
+        listViewWifi.setLayoutManager(new LinearLayoutManager(this));
+        listViewWifi.addItemDecoration(
+                new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        // Rows change in place every refresh; skip the cross-fade on each one
+        ((SimpleItemAnimator) listViewWifi.getItemAnimator()).setSupportsChangeAnimations(false);
         listViewWifi.setAdapter(adapter);
-        Log.d(TAG, "onCreate: ListView adapter set");
+        Log.d(TAG, "onCreate: RecyclerView adapter set");
 
-        btnScan.setOnClickListener(new View.OnClickListener() {
+        scanPipeline = new ScanPipeline(new ScanPipeline.Environment() {
             @Override
-            public void onClick(View view) {
-                Log.d(TAG, "Scan button clicked");
-                startWifiScan();
+            public boolean isWifiEnabled() {
+                return wifiManager != null && wifiManager.isWifiEnabled();
             }
-        });
 
-        listViewWifi.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                Log.d(TAG, "ListView item clicked at position: " + position);
+            public boolean hasLocationPermission() {
+                return MainActivity.this.hasLocationPermission();
+            }
 
-                if (position >= 0 && position < lastScanResults.size()) {
-                    ScanResult sr = lastScanResults.get(position);
-                    String ssid = (sr.SSID == null || sr.SSID.isEmpty())
-                            ? "<Hidden Network>" : sr.SSID;
+            @Override
+            public boolean isLocationEnabled() {
+                return MainActivity.this.isLocationEnabled();
+            }
 
-                    Log.i(TAG, "Opening tracker for: " + ssid + " (" + sr.BSSID + ")");
+            @Override
+            public ScanStore.Snapshot fetchScan() {
+                // Kept current by ScanService
+                return ScanStore.getInstance().readCached();
+            }
 
-                    Intent intent = new Intent(MainActivity.this, TrackerActivity.class);
-                    intent.putExtra("BSSID", sr.BSSID);
-                    intent.putExtra("SSID", ssid);
-                    startActivity(intent);
-                }
+            @Override
+            public String vendorOf(long bssidKey) {
+                return OuiAsset.getDatabase(MainActivity.this).vendorOf(bssidKey);
+            }
+        }, ContextCompat.getMainExecutor(this), new ScanPipeline.Listener() {
+            @Override
+            public void onSnapshot(ScanSnapshot snapshot) {
+                applySnapshot(snapshot);
+            }
+        }, SuspicionMonitor.getInstance(getFilesDir()));
+        Log.d(TAG, "onCreate: Scan pipeline started");
+
+        btnScan.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                Log.d(TAG, "Scan button clicked");
+                startWifiScan();
             }
         });
 
-        // Register scan receiver
-        try {
-            IntentFilter filter = new IntentFilter();
-            filter.addAction(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION);
-            registerReceiver(wifiScanReceiver, filter);
-            Log.d(TAG, "onCreate: BroadcastReceiver registered");
-        } catch (Exception e) {
-            String errorMsg = "Failed to register BroadcastReceiver: " + e.getMessage();
-            Log.e(TAG, errorMsg, e);
-            Toast.makeText(this, errorMsg, Toast.LENGTH_LONG).show();
-        }
+        // Field reports: long-press records a scan trace, the red line under the status stops it
+        btnScan.setOnLongClickListener(v -> {
+            toggleTrace();
+            return true;
+        });
+        txtTrace.setOnClickListener(v -> toggleTrace());
+
+        btnTrackSuspicious.setOnClickListener(v -> openMultiTracker());
+
+        Button btnChannels = findViewById(R.id.btnChannels);
+        btnChannels.setOnClickListener(v ->
+                startActivity(new Intent(MainActivity.this, ChannelActivity.class)));
 
         checkAndRequestPermissions();
 
         Log.d(TAG, "onCreate: Completed");
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+
+        // Scanning outlives this screen only in the foreground, which needs location access
+        if (hasLocationPermission()) {
+            ScanService.start(this);
+        }
+        serviceBound = bindService(new Intent(this, ScanService.class),
+                serviceConnection, Context.BIND_AUTO_CREATE);
+        Log.d(TAG, "onStart: Bound to scan service: " + serviceBound);
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
         Log.d(TAG, "onResume: Activity resumed");
 
         checkLocationEnabled();
-
-        Log.d(TAG, "onResume: Starting auto-refresh loop");
-        autoRefreshHandler.post(autoRefreshRunnable);
+        showScanResults();
+        updateTraceIndicator();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         Log.d(TAG, "onPause: Activity paused");
-        autoRefreshHandler.removeCallbacks(autoRefreshRunnable);
+        logRefreshStats();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (scanService != null) {
+            scanService.removeObserver(scanObserver);
+            scanService = null;
+        }
+        if (serviceBound) {
+            unbindService(serviceConnection);
+            serviceBound = false;
+        }
     }
 
     @Override
@@ -186,14 +220,13 @@ public class MainActivity extends AppCompatActivity {
         super.onDestroy();
         Log.d(TAG, "onDestroy: Cleaning up");
 
-        try {
-            unregisterReceiver(wifiScanReceiver);
-            Log.d(TAG, "onDestroy: BroadcastReceiver unregistered");
-        } catch (Exception e) {
-            Log.e(TAG, "onDestroy: Error unregistering receiver: " + e.getMessage(), e);
+        if (isFinishing()) {
+            // Leaving the app, not rotating: stop scanning in the background too
+            ScanService.stop(this);
+        }
+        if (scanPipeline != null) {
+            scanPipeline.shutdown();
         }
-
-        autoRefreshHandler.removeCallbacks(autoRefreshRunnable);
         Log.d(TAG, "onDestroy: Completed");
     }
 
@@ -285,12 +318,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void checkLocationEnabled() {
-        LocationManager locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
-        boolean isLocationEnabled = locationManager != null &&
-                (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER) ||
-                        locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER));
-
-        if (!isLocationEnabled) {
+        if (!isLocationEnabled()) {
             Log.w(TAG, "checkLocationEnabled: Location services are disabled");
             showLocationDisabledDialog();
         } else {
@@ -341,12 +369,7 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        LocationManager locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
-        boolean isLocationEnabled = locationManager != null &&
-                (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER) ||
-                        locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER));
-
-        if (!isLocationEnabled) {
+        if (!isLocationEnabled()) {
             Log.e(TAG, "startWifiScan: Location services are disabled");
             showLocationDisabledDialog();
             return;
@@ -379,15 +402,16 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void performScan() {
-        long now = System.currentTimeMillis();
+        ScanScheduler scheduler = ScanScheduler.getInstance();
 
-        if (now - lastScanTime > SCAN_WINDOW_MS) {
-            scanCount = 0;
-            Log.d(TAG, "performScan: Scan window expired, reset counter");
+        if (scanService == null) {
+            Log.w(TAG, "performScan: Scan service not bound yet");
+            txtStatus.setText("Starting scanner...");
+            return;
         }
 
-        if (scanCount >= 4) {
-            long waitTime = (SCAN_WINDOW_MS - (now - lastScanTime)) / 1000;
+        if (!scheduler.canScan(ScanScheduler.Priority.USER)) {
+            long waitTime = secondsUntilNextScan(scheduler);
             String msg = "Scan throttled. Wait " + waitTime + "s. Auto-refresh continues.";
             Log.w(TAG, "performScan: " + msg);
             txtStatus.setText(msg);
@@ -396,29 +420,20 @@ public class MainActivity extends AppCompatActivity {
         }
 
         try {
-            boolean started = wifiManager.startScan();
-            Log.i(TAG, "performScan: startScan() returned: " + started);
+            boolean started = scanService.requestScan(ScanScheduler.Priority.USER);
+            Log.i(TAG, "performScan: requestScan() returned: " + started);
 
             if (started) {
-                if (scanCount == 0) {
-                    lastScanTime = now;
-                }
-                scanCount++;
-                String message = "Scanning... (" + scanCount + "/4)";
+                String message = "Scanning... (" + scheduler.getUsedSlots() + "/"
+                        + ScanScheduler.MAX_SCANS + ")";
                 Log.i(TAG, "performScan: " + message);
                 txtStatus.setText(message);
             } else {
                 Log.w(TAG, "performScan: startScan() blocked. Using cached results.");
                 txtStatus.setText("Using cached results");
+                scanService.refresh();
             }
-
-            new Handler().postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    Log.i(TAG, "Reading scan results");
-                    showScanResults();
-                }
-            }, 500);
+            // The service's broadcast receiver delivers the results
 
         } catch (Exception e) {
             String errorMsg = "Scan error: " + e.getMessage();
@@ -428,118 +443,182 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void showScanResults() {
-        Log.d(TAG, "showScanResults: Retrieving scan results");
+    private static long secondsUntilNextScan(ScanScheduler scheduler) {
+        return (scheduler.millisUntilNextSlot(ScanScheduler.Priority.USER) + 999) / 1000;
+    }
 
-        try {
-            if (!wifiManager.isWifiEnabled()) {
-                String errorMsg = "Wi-Fi is OFF";
-                Log.e(TAG, "showScanResults: " + errorMsg);
-                txtStatus.setText(errorMsg);
-                txtEmptyState.setVisibility(View.VISIBLE);
-                listViewWifi.setVisibility(View.GONE);
+    private void logRefreshStats() {
+        if (scanPipeline == null) {
+            return;
+        }
+        Log.i(TAG, "Refresh stats: unchanged scans skipped=" + scanPipeline.getUnchangedCount()
+                + "/" + scanPipeline.getRefreshCount());
+        scanPipeline.getSuspicionEngine().logStats();
+    }
 
-                return;
-            }
+    private void openTracker(NetworkRow row) {
+        Log.i(TAG, "Opening tracker for: " + row.getSsid() + " (" + row.getBssid() + ")");
 
-            boolean hasLocationPermission = false;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                hasLocationPermission = ContextCompat.checkSelfPermission(this,
-                        Manifest.permission.NEARBY_WIFI_DEVICES) == PackageManager.PERMISSION_GRANTED;
-            } else {
-                hasLocationPermission = ContextCompat.checkSelfPermission(this,
-                        Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            }
+        Intent intent = new Intent(MainActivity.this, TrackerActivity.class);
+        intent.putExtra("BSSID", row.getBssid());
+        intent.putExtra("BSSID_KEY", row.getBssidKey());
+        intent.putExtra("SSID", row.getSsid());
+        startActivity(intent);
+    }
 
-            if (!hasLocationPermission) {
-                String errorMsg = "Location permission denied";
-                Log.e(TAG, "showScanResults: " + errorMsg);
-                txtStatus.setText(errorMsg);
-                txtEmptyState.setVisibility(View.VISIBLE);
-                listViewWifi.setVisibility(View.GONE);
-                showPermissionSettingsDialog();
-                return;
+    private void toggleTrace() {
+        TraceRecorder recorder = TraceRecorder.getInstance();
+        if (!recorder.isRecording()) {
+            try {
+                File file = recorder.start(this);
+                Toast.makeText(this, "Recording scan trace to " + file, Toast.LENGTH_LONG).show();
+            } catch (IOException e) {
+                Log.e(TAG, "toggleTrace: " + e.getMessage(), e);
+                Toast.makeText(this, "Cannot record trace: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
-
-            LocationManager locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
-            boolean isLocationEnabled = locationManager != null &&
-                    (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER) ||
-                            locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER));
-
-            if (!isLocationEnabled) {
-                String errorMsg = "Location services OFF";
-                Log.e(TAG, "showScanResults: " + errorMsg);
-                txtStatus.setText(errorMsg);
-                txtEmptyState.setVisibility(View.VISIBLE);
-                listViewWifi.setVisibility(View.GONE);
-                showLocationDisabledDialog();
-                return;
+            updateTraceIndicator();
+            return;
+        }
+        final ScanTraceWriter writer = recorder.stop();
+        final File file = recorder.getFile();
+        updateTraceIndicator();
+        // Closing waits for the last writes
+        new Thread(() -> {
+            try {
+                writer.close();
+                String message = "Trace saved: " + writer.getEventCount() + " events, "
+                        + writer.getByteCount() / 1024 + " KB in " + file;
+                Log.i(TAG, "toggleTrace: " + message);
+                runOnUiThread(() -> Toast.makeText(this, message, Toast.LENGTH_LONG).show());
+            } catch (IOException e) {
+                Log.e(TAG, "toggleTrace: " + e.getMessage(), e);
+                runOnUiThread(() -> Toast.makeText(this, "Trace failed: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show());
             }
+        }, "TraceClose").start();
+    }
 
-            lastScanResults.clear();
-            suspiciousNetworks.clear();
-
-            List<ScanResult> results = wifiManager.getScanResults();
+    private void updateTraceIndicator() {
+        txtTrace.setVisibility(TraceRecorder.getInstance().isRecording() ? View.VISIBLE : View.GONE);
+    }
 
-            if (results == null || results.isEmpty()) {
-                Log.w(TAG, "showScanResults: No networks found");
-                txtStatus.setText("No networks detected");
-                txtNetworkCount.setText("0 networks");
-                txtEmptyState.setVisibility(View.VISIBLE);
-                listViewWifi.setVisibility(View.GONE);
-                adapter.notifyDataSetChanged();
-                return;
+    private void openMultiTracker() {
+        // Rows are sorted strongest first, so the closest suspects are kept
+        List<NetworkRow> rows = adapter.getCurrentList();
+        long[] keys = new long[MultiTargetTracker.MAX_TARGETS];
+        String[] ssids = new String[MultiTargetTracker.MAX_TARGETS];
+        int count = 0;
+        for (NetworkRow row : rows) {
+            if (row.isSuspicious() && count < keys.length) {
+                keys[count] = row.getBssidKey();
+                ssids[count] = row.getSsid();
+                count++;
             }
+        }
+        if (count == 0) {
+            Toast.makeText(this, "No suspicious networks to track", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-            lastScanResults.addAll(results);
-            Log.i(TAG, "showScanResults: Found " + lastScanResults.size() + " networks");
-
-            // Identify suspicious networks
-            for (ScanResult sr : lastScanResults) {
-                boolean isSuspicious = false;
-                String ssid = (sr.SSID == null || sr.SSID.isEmpty()) ? "<hidden>" : sr.SSID;
+        Log.i(TAG, "Opening multi-target tracker for " + count + " networks");
+        Intent intent = new Intent(MainActivity.this, MultiTrackerActivity.class);
+        intent.putExtra(MultiTrackerActivity.EXTRA_BSSID_KEYS, Arrays.copyOf(keys, count));
+        intent.putExtra(MultiTrackerActivity.EXTRA_SSIDS, Arrays.copyOf(ssids, count));
+        startActivity(intent);
+    }
 
-                if (sr.level > -50) {
-                    isSuspicious = true;
-                    Log.w(TAG, "SUSPICIOUS (very close): " + ssid + " | " + sr.BSSID + " | " + sr.level + " dBm");
-                }
+    private void showScanResults() {
+        if (scanPipeline != null) {
+            scanPipeline.requestRefresh();
+        }
+    }
 
-                if (isSuspicious) {
-                    suspiciousNetworks.add(sr);
-                }
-            }
+    private void applySnapshot(ScanSnapshot snapshot) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
 
-            // Sort by signal strength
-            Collections.sort(lastScanResults, new Comparator<ScanResult>() {
-                @Override
-                public int compare(ScanResult a, ScanResult b) {
-                    return Integer.compare(b.level, a.level);
-                }
-            });
+        String message = snapshot.getMessage();
 
-            // Update UI
-            txtNetworkCount.setText(lastScanResults.size() + " networks" +
-                    (suspiciousNetworks.size() > 0 ? " (" + suspiciousNetworks.size() + " suspicious)" : ""));
-            txtStatus.setText("Tap a network to track it");
-            txtEmptyState.setVisibility(View.GONE);
-            listViewWifi.setVisibility(View.VISIBLE);
+        switch (snapshot.getStatus()) {
+            case WIFI_DISABLED:
+                Log.e(TAG, "applySnapshot: " + message);
+                showEmptyState(message);
+                return;
+            case PERMISSION_DENIED:
+                Log.e(TAG, "applySnapshot: " + message);
+                showEmptyState(message);
+                showPermissionSettingsDialog();
+                return;
+            case LOCATION_DISABLED:
+                Log.e(TAG, "applySnapshot: " + message);
+                showEmptyState(message);
+                showLocationDisabledDialog();
+                return;
+            case NO_NETWORKS:
+                Log.w(TAG, "applySnapshot: No networks found");
+                txtNetworkCount.setText("0 networks");
+                showEmptyState(message);
+                adapter.submitList(snapshot.getNetworks());
+                return;
+            case SECURITY_ERROR:
+                txtStatus.setText(message);
+                showPermissionSettingsDialog();
+                return;
+            case ERROR:
+                txtStatus.setText(message);
+                return;
+            default:
+                break;
+        }
 
-            adapter.notifyDataSetChanged();
+        int networkCount = snapshot.getNetworks().size();
+        int suspiciousCount = snapshot.getSuspiciousCount();
+
+        // Update UI
+        txtNetworkCount.setText(networkCount + " networks" +
+                (suspiciousCount > 0 ? " (" + suspiciousCount + " suspicious)" : ""));
+        ScanScheduler scheduler = ScanScheduler.getInstance();
+        txtStatus.setText(scheduler.canScan(ScanScheduler.Priority.USER)
+                ? "Tap a network to track it"
+                : "Tap a network to track it (next scan in " + secondsUntilNextScan(scheduler) + "s)");
+        txtEmptyState.setVisibility(View.GONE);
+        listViewWifi.setVisibility(View.VISIBLE);
+
+        // Diffed by BSSID off the main thread; only changed rows are rebound
+        adapter.submitList(snapshot.getNetworks());
+
+        if (suspiciousCount > 0) {
+            Log.w(TAG, "Found " + suspiciousCount + " suspicious networks");
+            btnTrackSuspicious.setText("TRACK " + Math.min(suspiciousCount, MultiTargetTracker.MAX_TARGETS)
+                    + " SUSPICIOUS NETWORKS");
+            btnTrackSuspicious.setVisibility(View.VISIBLE);
+        } else {
+            btnTrackSuspicious.setVisibility(View.GONE);
+        }
+    }
 
-            if (!suspiciousNetworks.isEmpty()) {
-                Log.w(TAG, "Found " + suspiciousNetworks.size() + " suspicious networks");
-            }
+    private void showEmptyState(String status) {
+        txtStatus.setText(status);
+        txtEmptyState.setVisibility(View.VISIBLE);
+        listViewWifi.setVisibility(View.GONE);
+        btnTrackSuspicious.setVisibility(View.GONE);
+    }
 
-        } catch (SecurityException e) {
-            String errorMsg = "Security error: Permission denied";
-            Log.e(TAG, errorMsg, e);
-            txtStatus.setText(errorMsg);
-            showPermissionSettingsDialog();
-        } catch (Exception e) {
-            String errorMsg = "Error: " + e.getMessage();
-            Log.e(TAG, errorMsg, e);
-            txtStatus.setText(errorMsg);
+    private boolean hasLocationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            return ContextCompat.checkSelfPermission(this,
+                    Manifest.permission.NEARBY_WIFI_DEVICES) == PackageManager.PERMISSION_GRANTED;
         }
+        return ContextCompat.checkSelfPermission(this,
+                Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private boolean isLocationEnabled() {
+        LocationManager locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        return locationManager != null &&
+                (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER) ||
+                        locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER));
     }
 
     @Override
@@ -576,6 +655,7 @@ public class MainActivity extends AppCompatActivity {
             } else {
                 Log.i(TAG, "onRequestPermissionsResult: All permissions granted");
                 Toast.makeText(this, "Permissions granted!", Toast.LENGTH_SHORT).show();
+                ScanService.start(this);
                 requestBackgroundLocationIfNeeded();
             }
         } else if (requestCode == REQ_BACKGROUND_LOCATION) {
@@ -0,0 +1,237 @@
+package com.example.wififinder;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+/**
+ * Tracks several networks at once, e.g. every suspicious one from the list.
+ * One strip per target, ranked by smoothed signal, closest on top; tapping a
+ * strip opens the single-target tracker for it.
+ */
+public class MultiTrackerActivity extends AppCompatActivity {
+
+    private static final String TAG = "MultiTrackerActivity";
+    private static final long UPDATE_INTERVAL = 500;
+    private static final String PREFS_NAME = "tracker";
+    private static final String PREF_FILTER_TYPE = "rssi_filter";
+    // Levels mapped onto the proximity bar
+    private static final int BAR_MIN_RSSI = -90;
+    private static final int BAR_MAX_RSSI = -30;
+
+    static final String EXTRA_BSSID_KEYS = "BSSID_KEYS";
+    static final String EXTRA_SSIDS = "SSIDS";
+
+    private static final class StripViews {
+        final View root;
+        final TextView rank;
+        final TextView ssid;
+        final TextView bssid;
+        final ProgressBar proximity;
+        final TextView level;
+        final TextView distance;
+
+        StripViews(View root) {
+            this.root = root;
+            rank = root.findViewById(R.id.txtRank);
+            ssid = root.findViewById(R.id.txtSsid);
+            bssid = root.findViewById(R.id.txtBssid);
+            proximity = root.findViewById(R.id.barProximity);
+            level = root.findViewById(R.id.txtLevel);
+            distance = root.findViewById(R.id.txtDistance);
+        }
+    }
+
+    private TextView txtMultiStatus;
+    private TextView txtFilterType;
+    private StripViews[] strips;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final SignalStyleTable styleTable = SignalStyleTable.getDefault();
+    private MultiTargetTracker tracker;
+    private RssiFilterBank filterBank;
+    private ScanScheduler scanScheduler;
+    private ScanService scanService;
+    private boolean serviceBound = false;
+    private boolean isTracking = true;
+
+    private final Runnable updateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (isTracking) {
+                updateTargets();
+                handler.postDelayed(this, UPDATE_INTERVAL);
+            }
+        }
+    };
+
+    private final ScanService.Observer scanObserver = snapshot -> {
+        if (isTracking) {
+            updateTargets();
+        }
+    };
+
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            scanService = ((ScanService.LocalBinder) binder).getService();
+            scanService.addObserver(scanObserver);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            scanService = null;
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_multi_tracker);
+
+        long[] keys = getIntent().getLongArrayExtra(EXTRA_BSSID_KEYS);
+        String[] ssids = getIntent().getStringArrayExtra(EXTRA_SSIDS);
+        if (keys == null || keys.length == 0) {
+            Log.e(TAG, "onCreate: No targets provided");
+            finish();
+            return;
+        }
+
+        final SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        filterBank = new RssiFilterBank(loadFilterType(prefs));
+        tracker = new MultiTargetTracker(keys, ssids, filterBank);
+        Log.d(TAG, "onCreate: Tracking " + tracker.size() + " networks");
+
+        TextView txtMultiTitle = findViewById(R.id.txtMultiTitle);
+        txtMultiStatus = findViewById(R.id.txtMultiStatus);
+        txtFilterType = findViewById(R.id.txtFilterType);
+        txtMultiTitle.setText("Tracking " + tracker.size() + " networks");
+
+        // One strip per target, inflated once; ranking only rebinds them
+        LinearLayout container = findViewById(R.id.containerTargets);
+        LayoutInflater inflater = LayoutInflater.from(this);
+        strips = new StripViews[tracker.size()];
+        for (int i = 0; i < strips.length; i++) {
+            View root = inflater.inflate(R.layout.target_strip_item, container, false);
+            container.addView(root);
+            strips[i] = new StripViews(root);
+            strips[i].rank.setText(String.valueOf(i + 1));
+            final int rank = i;
+            root.setOnClickListener(v -> openTracker(tracker.getRanked(rank)));
+        }
+
+        txtFilterType.setText(filterBank.getType().getLabel());
+        txtFilterType.setOnClickListener(v -> {
+            RssiFilterBank.Type type = filterBank.getType().next();
+            filterBank.setType(type);
+            prefs.edit().putString(PREF_FILTER_TYPE, type.name()).apply();
+            txtFilterType.setText(type.getLabel());
+            Log.d(TAG, "Smoothing set to " + type.getLabel());
+        });
+
+        Button btnBack = findViewById(R.id.btnBack);
+        btnBack.setOnClickListener(v -> finish());
+
+        scanScheduler = ScanScheduler.getInstance();
+        scanScheduler.onTrackerStarted();
+        serviceBound = bindService(new Intent(this, ScanService.class),
+                serviceConnection, Context.BIND_AUTO_CREATE);
+
+        bindStrips();
+        handler.post(updateRunnable);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        isTracking = false;
+        handler.removeCallbacks(updateRunnable);
+        if (scanService != null) {
+            scanService.removeObserver(scanObserver);
+            scanService = null;
+        }
+        if (serviceBound) {
+            unbindService(serviceConnection);
+            serviceBound = false;
+        }
+        if (scanScheduler != null) {
+            scanScheduler.onTrackerStopped();
+        }
+        Log.d(TAG, "onDestroy: MultiTrackerActivity destroyed");
+    }
+
+    private static RssiFilterBank.Type loadFilterType(SharedPreferences prefs) {
+        String name = prefs.getString(PREF_FILTER_TYPE, RssiFilterBank.Type.KALMAN.name());
+        try {
+            return RssiFilterBank.Type.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return RssiFilterBank.Type.KALMAN;
+        }
+    }
+
+    private void updateTargets() {
+        try {
+            // Kept current by ScanService
+            if (!tracker.update(ScanStore.getInstance().current())) {
+                return;
+            }
+            bindStrips();
+        } catch (Exception e) {
+            Log.e(TAG, "updateTargets: Error: " + e.getMessage(), e);
+        }
+    }
+
+    private void bindStrips() {
+        int inRange = 0;
+        for (int rank = 0; rank < strips.length; rank++) {
+            MultiTargetTracker.Target target = tracker.getRanked(rank);
+            StripViews strip = strips[rank];
+
+            strip.ssid.setText(target.getSsid());
+            strip.bssid.setText(Bssid.format(target.getBssidKey()));
+
+            if (!target.isInRange()) {
+                strip.level.setText("--");
+                strip.level.setTextColor(0xFF9E9E9E);
+                strip.distance.setText("Out of range");
+                strip.proximity.setProgress(0);
+                continue;
+            }
+
+            inRange++;
+            int level = Math.round(target.getSmoothedLevel());
+            SignalStyle style = styleTable.get(level);
+            strip.level.setText(style.getLevelText());
+            strip.level.setTextColor(style.getListColor());
+            strip.distance.setText(style.getDistanceText());
+
+            int clamped = Math.max(BAR_MIN_RSSI, Math.min(BAR_MAX_RSSI, level));
+            strip.proximity.setProgress(
+                    (clamped - BAR_MIN_RSSI) * 100 / (BAR_MAX_RSSI - BAR_MIN_RSSI));
+        }
+        txtMultiStatus.setText(inRange + " of " + strips.length + " in range, closest first");
+    }
+
+    private void openTracker(MultiTargetTracker.Target target) {
+        Intent intent = new Intent(this, TrackerActivity.class);
+        intent.putExtra("BSSID", Bssid.format(target.getBssidKey()));
+        intent.putExtra("BSSID_KEY", target.getBssidKey());
+        intent.putExtra("SSID", target.getSsid());
+        startActivity(intent);
+    }
+}
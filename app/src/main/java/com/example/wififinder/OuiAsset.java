@@ -0,0 +1,55 @@
+package com.example.wififinder;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * The {@link OuiDatabase} bundled as the asset {@value #ASSET_NAME}. The
+ * asset is stored uncompressed (see noCompress in build.gradle), so it is
+ * memory-mapped straight out of the APK.
+ */
+public final class OuiAsset {
+
+    private static final String TAG = "OuiAsset";
+    static final String ASSET_NAME = "oui.bin";
+
+    private static OuiDatabase database;
+
+    private OuiAsset() {
+    }
+
+    /**
+     * The bundled database, mapped on first use. Cheap enough for any thread,
+     * but meant for the pipeline thread.
+     */
+    public static synchronized OuiDatabase getDatabase(Context context) {
+        if (database == null) {
+            long start = System.nanoTime();
+            try {
+                database = open(context);
+                Log.d(TAG, "Mapped " + database.size() + " vendor prefixes in "
+                        + (System.nanoTime() - start) / 1000 + " us");
+                if (database.size() == 0) {
+                    Log.w(TAG, "No vendor prefixes bundled; run the updateOuiDatabase task");
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Vendor names unavailable: " + e.getMessage());
+                database = OuiDatabase.EMPTY;
+            }
+        }
+        return database;
+    }
+
+    private static OuiDatabase open(Context context) throws IOException {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream in = afd.createInputStream()) {
+            return new OuiDatabase(in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    afd.getStartOffset(), afd.getLength()));
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.wififinder;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ServiceInfo;
+import android.net.wifi.WifiManager;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns scanning for the whole app: the scan broadcast receiver, periodic
+ * scans through the {@link ScanScheduler}, and the fetch into the
+ * {@link ScanStore}. Activities bind and observe, so a rotation or a switch
+ * to the tracker keeps the scan state, and one fetch feeds every screen.
+ *
+ * <p>While location access is granted the service runs in the foreground
+ * and keeps scanning with the app minimized, until stopped from its
+ * notification or the list screen is closed.
+ */
+public class ScanService extends Service {
+
+    private static final String TAG = "ScanService";
+    private static final String CHANNEL_ID = "scanning";
+    private static final int NOTIFICATION_ID = 1;
+    private static final String ACTION_STOP = "com.example.wififinder.action.STOP_SCANNING";
+    private static final long MIN_POLL_INTERVAL_MS = 1000;
+    private static final long MAX_POLL_INTERVAL_MS = 16000;
+    /** A poll or a new observer skips the binder call if a fetch is this recent. */
+    private static final long STALE_AFTER_MS = MIN_POLL_INTERVAL_MS;
+    private static final long STATS_INTERVAL_MS = 60000;
+
+    /** Called on the main thread for every new scan generation. */
+    public interface Observer {
+        void onScan(ScanStore.Snapshot snapshot);
+    }
+
+    public class LocalBinder extends Binder {
+        public ScanService getService() {
+            return ScanService.this;
+        }
+    }
+
+    private final IBinder binder = new LocalBinder();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Only touched on the main thread
+    private final List<Observer> observers = new ArrayList<>();
+    private final RefreshBackoff pollBackoff =
+            new RefreshBackoff(MIN_POLL_INTERVAL_MS, MAX_POLL_INTERVAL_MS);
+    private final AtomicBoolean fetchPending = new AtomicBoolean(false);
+
+    private ScanSource scanSource;
+    private ScanScheduler scheduler;
+    private ExecutorService fetchExecutor;
+    private boolean receiverRegistered = false;
+    private long publishedGeneration = -1;
+    private int eventCount = 0;
+    private int pollCount = 0;
+    private long startedAt = 0;
+    private long statsReads = 0;
+    private long statsFetches = 0;
+    private volatile long ipcSavedPerMinute = 0;
+    private boolean foreground = false;
+
+    private final BroadcastReceiver scanReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            boolean updated = intent.getBooleanExtra(WifiManager.EXTRA_RESULTS_UPDATED, false);
+            Log.d(TAG, "onReceive: Scan results available, updated=" + updated);
+            TraceRecorder.getInstance().onScanAvailable(updated);
+
+            // A broadcast is the signal to refresh; push the fallback poll back
+            eventCount++;
+            pollBackoff.onChanged();
+            fetch();
+            handler.removeCallbacks(pollRunnable);
+            handler.postDelayed(pollRunnable, pollBackoff.getIntervalMs());
+        }
+    };
+
+    private final Runnable pollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pollCount++;
+            requestScan(ScanScheduler.Priority.PERIODIC);
+            fetchIfStale();
+            // Backs off while polls keep finding the same scan
+            handler.postDelayed(this, pollBackoff.getIntervalMs());
+        }
+    };
+
+    private final Runnable statsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ScanStore store = ScanStore.getInstance();
+            long reads = store.getCacheReads();
+            long fetches = store.getFetches();
+            // The list refresh and the tracker tick each used to call getScanResults()
+            ipcSavedPerMinute = Math.max(0, (reads - statsReads) - (fetches - statsFetches));
+            Log.i(TAG, "Scan cache: " + (fetches - statsFetches) + " fetches, "
+                    + (reads - statsReads) + " cached reads, "
+                    + ipcSavedPerMinute + " IPC calls saved in the last minute");
+            statsReads = reads;
+            statsFetches = fetches;
+            handler.postDelayed(this, STATS_INTERVAL_MS);
+        }
+    };
+
+    // Keeps the notification saying whether a trace is running
+    private final TraceRecorder.Listener traceListener = recording -> handler.post(() -> {
+        NotificationManager manager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        if (foreground && manager != null) {
+            manager.notify(NOTIFICATION_ID, buildNotification());
+        }
+    });
+
+    /** Starts the service in the foreground. Needs location access already granted. */
+    public static void start(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, ScanService.class));
+    }
+
+    public static void stop(Context context) {
+        context.stopService(new Intent(context, ScanService.class));
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Log.d(TAG, "onCreate: Service starting");
+
+        scanSource = new WifiScanSource(
+                (WifiManager) getApplicationContext().getSystemService(Context.WIFI_SERVICE));
+        scheduler = ScanScheduler.getInstance();
+        fetchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, TAG);
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            registerReceiver(scanReceiver, new IntentFilter(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION));
+            receiverRegistered = true;
+        } catch (Exception e) {
+            Log.e(TAG, "onCreate: Failed to register receiver: " + e.getMessage(), e);
+        }
+
+        startedAt = SystemClock.elapsedRealtime();
+        statsReads = ScanStore.getInstance().getCacheReads();
+        statsFetches = ScanStore.getInstance().getFetches();
+        handler.post(pollRunnable);
+        handler.postDelayed(statsRunnable, STATS_INTERVAL_MS);
+        TraceRecorder.getInstance().addListener(traceListener);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_STOP.equals(intent.getAction())) {
+            Log.i(TAG, "onStartCommand: Stopped from notification");
+            ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+            foreground = false;
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                startForeground(NOTIFICATION_ID, buildNotification(),
+                        ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION);
+            } else {
+                startForeground(NOTIFICATION_ID, buildNotification());
+            }
+            foreground = true;
+            Log.i(TAG, "onStartCommand: Scanning in the foreground");
+        } catch (Exception e) {
+            // Location access was revoked; bound screens keep the service alive
+            Log.e(TAG, "onStartCommand: Cannot run in the foreground: " + e.getMessage(), e);
+            stopSelf();
+        }
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return binder;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(pollRunnable);
+        handler.removeCallbacks(statsRunnable);
+        TraceRecorder.getInstance().removeListener(traceListener);
+        if (receiverRegistered) {
+            try {
+                unregisterReceiver(scanReceiver);
+            } catch (Exception e) {
+                Log.e(TAG, "onDestroy: Error unregistering receiver: " + e.getMessage(), e);
+            }
+        }
+        fetchExecutor.shutdownNow();
+        observers.clear();
+
+        long fixedRatePolls = (SystemClock.elapsedRealtime() - startedAt) / MIN_POLL_INTERVAL_MS;
+        Log.i(TAG, "onDestroy: events=" + eventCount + ", polls=" + pollCount
+                + " (fixed-rate polling would have run " + fixedRatePolls + ")");
+    }
+
+    /** Registers the observer and hands it the latest scan right away, if any. */
+    public void addObserver(Observer observer) {
+        if (observers.contains(observer)) {
+            return;
+        }
+        observers.add(observer);
+        ScanStore.Snapshot current = ScanStore.getInstance().current();
+        if (current.getGeneration() > 0) {
+            observer.onScan(current);
+        }
+        fetchIfStale();
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /** Re-reads the platform's cached results; observers hear of it only if they changed. */
+    public void refresh() {
+        fetch();
+    }
+
+    /** Binder calls avoided over the last full minute by reading the shared snapshot. */
+    public long getIpcSavedPerMinute() {
+        return ipcSavedPerMinute;
+    }
+
+    /**
+     * Starts a scan if the shared budget allows one at this priority.
+     *
+     * @return true if the platform accepted the scan
+     */
+    public boolean requestScan(ScanScheduler.Priority priority) {
+        if (scanSource == null || !scheduler.canScan(priority)) {
+            return false;
+        }
+        try {
+            if (scanSource.startScan()) {
+                scheduler.recordScan();
+                Log.d(TAG, "requestScan: " + priority + " scan started, "
+                        + scheduler.getUsedSlots() + "/" + ScanScheduler.MAX_SCANS + " slots used");
+                return true;
+            }
+            Log.w(TAG, "requestScan: Scan blocked by system, using cached data");
+        } catch (Exception e) {
+            Log.e(TAG, "requestScan: Error triggering scan: " + e.getMessage(), e);
+        }
+        return false;
+    }
+
+    private void fetchIfStale() {
+        if (ScanStore.getInstance().isStale(SystemClock.elapsedRealtime(), STALE_AFTER_MS)) {
+            fetch();
+        }
+    }
+
+    // Reads the results off the main thread; requests made meanwhile fold into one
+    private void fetch() {
+        if (scanSource == null || !fetchPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            fetchExecutor.execute(() -> {
+                fetchPending.set(false);
+                try {
+                    List<AccessPoint> results = scanSource.getScanResults();
+                    TraceRecorder.getInstance().onScanResults(results);
+                    ScanStore.Snapshot scan = ScanStore.getInstance()
+                            .update(results, SystemClock.elapsedRealtime());
+                    handler.post(() -> publish(scan));
+                } catch (SecurityException e) {
+                    Log.w(TAG, "fetch: No permission to read scan results");
+                } catch (Exception e) {
+                    Log.e(TAG, "fetch: Error: " + e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            fetchPending.set(false);
+            Log.w(TAG, "fetch: Service is shutting down");
+        }
+    }
+
+    private void publish(ScanStore.Snapshot scan) {
+        if (scan.getGeneration() == publishedGeneration) {
+            pollBackoff.onUnchanged();
+            return;
+        }
+        publishedGeneration = scan.getGeneration();
+        pollBackoff.onChanged();
+
+        // Copy, so observers may unregister from their callback
+        for (Observer observer : new ArrayList<>(observers)) {
+            observer.onScan(scan);
+        }
+    }
+
+    private Notification buildNotification() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                    "Wi-Fi scanning", NotificationManager.IMPORTANCE_LOW);
+            channel.setDescription("Shown while networks are scanned in the background");
+            NotificationManager manager = getSystemService(NotificationManager.class);
+            if (manager != null) {
+                manager.createNotificationChannel(channel);
+            }
+        }
+
+        PendingIntent open = PendingIntent.getActivity(this, 0,
+                new Intent(this, MainActivity.class), PendingIntent.FLAG_IMMUTABLE);
+        PendingIntent stop = PendingIntent.getService(this, 0,
+                new Intent(this, ScanService.class).setAction(ACTION_STOP),
+                PendingIntent.FLAG_IMMUTABLE);
+
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_launcher_foreground)
+                .setContentTitle("Scanning for Wi-Fi networks")
+                .setContentText(TraceRecorder.getInstance().isRecording()
+                        ? "Recording a scan trace" : "Scan history is being recorded")
+                .setContentIntent(open)
+                .addAction(0, "Stop", stop)
+                .setOngoing(true)
+                .build();
+    }
+}
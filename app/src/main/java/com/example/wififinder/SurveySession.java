@@ -0,0 +1,37 @@
+package com.example.wififinder;
+
+/**
+ * Survey state that outlives a {@link TrackerActivity} being recreated, as
+ * on rotation: the grid, the dead-reckoned position and whether a survey is
+ * running. It is dropped when the tracker closes for good. Main thread only.
+ */
+final class SurveySession {
+
+    private static SurveySession current;
+
+    final long targetBssidKey;
+    final SurveyGrid grid = new SurveyGrid();
+    // Starts in the middle of the area until a tap says otherwise
+    final DeadReckoning deadReckoning = new DeadReckoning(HeatmapView.WORLD_WIDTH_METERS / 2,
+            HeatmapView.WORLD_WIDTH_METERS / 2);
+    boolean surveying = false;
+    long lastGeneration = -1;
+
+    private SurveySession(long targetBssidKey) {
+        this.targetBssidKey = targetBssidKey;
+    }
+
+    /** The session of the tracker for this target, new unless one is still open. */
+    static SurveySession forTarget(long targetBssidKey) {
+        if (current == null || current.targetBssidKey != targetBssidKey) {
+            current = new SurveySession(targetBssidKey);
+        }
+        return current;
+    }
+
+    static void end(SurveySession session) {
+        if (current == session) {
+            current = null;
+        }
+    }
+}
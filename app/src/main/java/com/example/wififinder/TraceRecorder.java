@@ -0,0 +1,123 @@
+package com.example.wififinder;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the raw scan stream to a trace file while switched on: scan
+ * broadcasts, every result list read after them, and the tracker's
+ * connection RSSI polls. The hooks cost one volatile read while it is off.
+ * Traces replay on any JVM through {@link TraceReplayer}.
+ */
+public final class TraceRecorder {
+
+    /** Told on the thread that started or stopped the trace. */
+    public interface Listener {
+        void onRecordingChanged(boolean recording);
+    }
+
+    private static final String TAG = "TraceRecorder";
+    private static final String TRACE_DIR = "traces";
+    private static final TraceRecorder INSTANCE = new TraceRecorder();
+
+    // The clock WifiScanSource stamps results in, but monotonic, so replay pacing holds
+    private final long bootTimeMs = System.currentTimeMillis() - SystemClock.elapsedRealtime();
+    private volatile ScanTraceWriter writer;
+    private File file;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private TraceRecorder() {
+    }
+
+    public static TraceRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isRecording() {
+        return writer != null;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Starts a new trace in the app's external files, where adb can pull it. */
+    public synchronized File start(Context context) throws IOException {
+        if (writer != null) {
+            return file;
+        }
+        File base = context.getExternalFilesDir(null) != null
+                ? context.getExternalFilesDir(null) : context.getFilesDir();
+        File dir = new File(base, TRACE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        file = new File(dir, "trace-" + System.currentTimeMillis() + ".wft");
+        writer = new ScanTraceWriter(file, nowMs());
+        Log.i(TAG, "start: Recording scan trace to " + file);
+        notifyListeners(true);
+        return file;
+    }
+
+    /**
+     * Stops recording. Events already in flight are dropped.
+     *
+     * @return the trace, still to be closed, which waits for the file
+     *         writes; null if none was recording
+     */
+    public synchronized ScanTraceWriter stop() {
+        ScanTraceWriter stopped = writer;
+        writer = null;
+        if (stopped != null) {
+            Log.i(TAG, "stop: " + stopped.getEventCount() + " events in " + file);
+            notifyListeners(false);
+        }
+        return stopped;
+    }
+
+    /** The file of the current or last trace. */
+    public synchronized File getFile() {
+        return file;
+    }
+
+    public void onScanAvailable(boolean updated) {
+        ScanTraceWriter w = writer;
+        if (w != null) {
+            w.scanAvailable(nowMs(), updated);
+        }
+    }
+
+    public void onScanResults(List<AccessPoint> results) {
+        ScanTraceWriter w = writer;
+        if (w != null) {
+            w.scanResults(nowMs(), results);
+        }
+    }
+
+    public void onRssiPoll(long bssidKey, int rssi) {
+        ScanTraceWriter w = writer;
+        if (w != null) {
+            w.rssiPoll(nowMs(), bssidKey, rssi);
+        }
+    }
+
+    private void notifyListeners(boolean recording) {
+        for (Listener listener : listeners) {
+            listener.onRecordingChanged(recording);
+        }
+    }
+
+    private long nowMs() {
+        return bootTimeMs + SystemClock.elapsedRealtime();
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.wififinder;
 
 import android.Manifest;
+import android.content.ComponentName;
+import android.content.Context;
 import android.content.Intent;
+import android.content.ServiceConnection;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.graphics.Color;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.drawable.GradientDrawable;
-import android.net.wifi.ScanResult;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.net.Uri;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.IBinder;
 import android.os.Looper;
-import android.os.VibrationEffect;
+import android.os.SystemClock;
 import android.os.Vibrator;
 import android.util.Log;
 import android.view.View;
@@ -20,21 +30,38 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SwitchCompat;
 import androidx.core.app.ActivityCompat;
-
+import androidx.core.content.ContextCompat;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 public class TrackerActivity extends AppCompatActivity {
 
     private static final String TAG = "TrackerActivity";
     private static final long RSSI_UPDATE_INTERVAL = 500;
+    private static final String PREFS_NAME = "tracker";
+    private static final String PREF_FILTER_TYPE = "rssi_filter";
+    private static final String PREF_HAPTIC_MODE = "haptic_mode";
 
     private WifiManager wifiManager;
-    private Vibrator vibrator;
+    private HapticEngine haptics;
 
     private String targetBssid;
+    private long targetBssidKey = Bssid.INVALID;
     private String targetSsid;
 
     private TextView txtTrackerTitle;
@@ -42,6 +69,9 @@ public class TrackerActivity extends AppCompatActivity {
     private TextView txtRssiValue;
     private TextView txtDistance;
     private TextView txtSignalQuality;
+    private TextView txtFilterType;
+    private TextView txtHapticMode;
+    private TextView txtCalibration;
     private View circleInner;
     private SwitchCompat switchVibration;
     private Button btnBack;
@@ -49,7 +79,79 @@ public class TrackerActivity extends AppCompatActivity {
 
     private Handler handler = new Handler(Looper.getMainLooper());
     private boolean isTracking = true;
-    private boolean vibrationEnabled = true;
+    private long lastScanGeneration = -1;
+    private ScanScheduler scanScheduler;
+    private ScanService scanService;
+    private boolean serviceBound = false;
+    private RssiFilterBank filterBank;
+    private TrackerTick tick;
+    private CalibrationStore calibrationStore;
+    private PathLossModel pathLossModel;
+    private int targetFrequency = 0;
+    private CalibrationSession calibrationSession;
+    private AlertDialog calibrationDialog;
+
+    // Survey mode: positions from taps and steps, levels from every tick and scan
+    private static final int MAX_PLAN_PIXELS = 2048;
+    private HeatmapView heatmapView;
+    private TextView txtSurvey;
+    private View layoutSurveyActions;
+    private SensorManager sensorManager;
+    // Kept across rotation; see SurveySession
+    private SurveySession survey;
+    private final float[] rotationMatrix = new float[9];
+    private final float[] orientation = new float[3];
+    private ActivityResultLauncher<String> pickFloorPlan;
+    private ActivityResultLauncher<String> requestStepPermission;
+
+    private final SensorEventListener surveySensorListener = new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            if (event.sensor.getType() == Sensor.TYPE_ROTATION_VECTOR) {
+                SensorManager.getRotationMatrixFromVector(rotationMatrix, event.values);
+                SensorManager.getOrientation(rotationMatrix, orientation);
+                survey.deadReckoning.setHeading(orientation[0]);
+            } else if (event.sensor.getType() == Sensor.TYPE_STEP_DETECTOR) {
+                survey.deadReckoning.onStep();
+                heatmapView.setPosition(survey.deadReckoning.getX(), survey.deadReckoning.getY());
+                updateSurveyStatus();
+            }
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        }
+    };
+
+    // The tick only calls these for values that changed
+    private final TrackerTick.Display display = new TrackerTick.Display() {
+        @Override
+        public void showRssiValue(String text) {
+            txtRssiValue.setText(text);
+        }
+
+        @Override
+        public void showDistance(String text) {
+            txtDistance.setText(text);
+        }
+
+        @Override
+        public void showQuality(String text) {
+            txtSignalQuality.setText(text);
+        }
+
+        @Override
+        public void showQualityColor(int color) {
+            txtSignalQuality.setTextColor(color);
+        }
+
+        @Override
+        public void showCircle(int fillColor, int strokeColor) {
+            GradientDrawable drawable = (GradientDrawable) circleInner.getBackground();
+            drawable.setColor(fillColor);
+            drawable.setStroke(6, strokeColor);
+        }
+    };
 
     private Runnable updateRunnable = new Runnable() {
         @Override
@@ -61,6 +163,26 @@ public class TrackerActivity extends AppCompatActivity {
         }
     };
 
+    // A new scan is shown at once instead of on the next tick
+    private final ScanService.Observer scanObserver = snapshot -> {
+        if (isTracking) {
+            updateSignalInfo();
+        }
+    };
+
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            scanService = ((ScanService.LocalBinder) binder).getService();
+            scanService.addObserver(scanObserver);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            scanService = null;
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -72,16 +194,25 @@ public class TrackerActivity extends AppCompatActivity {
         Intent intent = getIntent();
         targetBssid = intent.getStringExtra("BSSID");
         targetSsid = intent.getStringExtra("SSID");
+        targetBssidKey = intent.getLongExtra("BSSID_KEY", Bssid.parse(targetBssid));
 
-        if (targetBssid == null) {
-            Log.e(TAG, "onCreate: No BSSID provided");
+        if (targetBssid == null || !Bssid.isValid(targetBssidKey)) {
+            Log.e(TAG, "onCreate: No valid BSSID provided");
             finish();
             return;
         }
 
+        survey = SurveySession.forTarget(targetBssidKey);
+
         // Initialize services
         wifiManager = (WifiManager) getApplicationContext().getSystemService(WIFI_SERVICE);
-        vibrator = (Vibrator) getSystemService(VIBRATOR_SERVICE);
+        final SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        VibratorOutput vibratorOutput = new VibratorOutput((Vibrator) getSystemService(VIBRATOR_SERVICE));
+        haptics = new HapticEngine(vibratorOutput, loadHapticMode(prefs));
+        scanScheduler = ScanScheduler.getInstance();
+        scanScheduler.onTrackerStarted();
+        serviceBound = bindService(new Intent(this, ScanService.class),
+                serviceConnection, Context.BIND_AUTO_CREATE);
 
         // Initialize views
         txtTrackerTitle = findViewById(R.id.txtTrackerTitle);
@@ -89,6 +220,9 @@ public class TrackerActivity extends AppCompatActivity {
         txtRssiValue = findViewById(R.id.txtRssiValue);
         txtDistance = findViewById(R.id.txtDistance);
         txtSignalQuality = findViewById(R.id.txtSignalQuality);
+        txtFilterType = findViewById(R.id.txtFilterType);
+        txtHapticMode = findViewById(R.id.txtHapticMode);
+        txtCalibration = findViewById(R.id.txtCalibration);
         circleInner = findViewById(R.id.circleInner);
         switchVibration = findViewById(R.id.switchVibration);
         btnBack = findViewById(R.id.btnBack);
@@ -99,10 +233,10 @@ public class TrackerActivity extends AppCompatActivity {
 
         // Vibration switch
         switchVibration.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            vibrationEnabled = isChecked;
+            tick.setVibrationEnabled(isChecked);
             Log.d(TAG, "Vibration " + (isChecked ? "enabled" : "disabled"));
-            if (!isChecked && vibrator != null) {
-                vibrator.cancel();
+            if (!isChecked) {
+                haptics.stop(SystemClock.elapsedRealtime());
             }
         });
 
@@ -117,13 +251,77 @@ public class TrackerActivity extends AppCompatActivity {
 
         // Vibration switch
         switchVibration.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            vibrationEnabled = isChecked;
+            tick.setVibrationEnabled(isChecked);
             Log.d(TAG, "Vibration " + (isChecked ? "enabled" : "disabled"));
-            if (!isChecked && vibrator != null) {
-                vibrator.cancel();
+            if (!isChecked) {
+                haptics.stop(SystemClock.elapsedRealtime());
             }
         });
 
+        // Vibration style, buzz strength or click rate
+        txtHapticMode.setText(haptics.getMode().getLabel());
+        txtHapticMode.setOnClickListener(v -> {
+            HapticEngine.Mode mode = haptics.getMode().next();
+            haptics.setMode(mode);
+            prefs.edit().putString(PREF_HAPTIC_MODE, mode.name()).apply();
+            txtHapticMode.setText(mode.getLabel());
+            Log.d(TAG, "Vibration style set to " + mode.getLabel());
+        });
+
+        // Smoothing selector, cycles through the filter types
+        filterBank = new RssiFilterBank(loadFilterType(prefs));
+        tick = new TrackerTick(targetBssidKey, filterBank, haptics, display);
+        txtFilterType.setText(filterBank.getType().getLabel());
+        txtFilterType.setOnClickListener(v -> {
+            RssiFilterBank.Type type = filterBank.getType().next();
+            filterBank.setType(type);
+            prefs.edit().putString(PREF_FILTER_TYPE, type.name()).apply();
+            txtFilterType.setText(type.getLabel());
+            Log.d(TAG, "Smoothing set to " + type.getLabel());
+        });
+
+        // Distance calibration
+        calibrationStore = new CalibrationStore(this);
+        applyPathLossModel(calibrationStore.modelFor(targetBssidKey, targetFrequency));
+        txtCalibration.setOnClickListener(v -> startCalibration());
+
+        // Survey mode
+        heatmapView = findViewById(R.id.heatmapView);
+        txtSurvey = findViewById(R.id.txtSurvey);
+        layoutSurveyActions = findViewById(R.id.layoutSurveyActions);
+        sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
+        pickFloorPlan = registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> {
+            if (uri != null) {
+                loadFloorPlan(uri);
+            }
+        });
+        requestStepPermission = registerForActivityResult(new ActivityResultContracts.RequestPermission(),
+                granted -> {
+                    if (granted && survey.surveying) {
+                        registerSurveySensors();
+                    } else if (!granted) {
+                        Toast.makeText(this, "No step counting: tap the map to set your position",
+                                Toast.LENGTH_LONG).show();
+                    }
+                });
+        heatmapView.setPositionListener((x, y) -> {
+            survey.deadReckoning.setPosition(x, y);
+            Log.d(TAG, "Survey position set to " + x + ", " + y);
+        });
+        txtSurvey.setOnClickListener(v -> {
+            if (survey.surveying) {
+                stopSurvey();
+            } else {
+                startSurvey();
+            }
+        });
+        findViewById(R.id.btnLoadPlan).setOnClickListener(v -> pickFloorPlan.launch("image/*"));
+        findViewById(R.id.btnExportSurvey).setOnClickListener(v -> exportSurvey());
+        if (survey.surveying) {
+            // Recreated mid-walk, e.g. by a rotation
+            showSurvey();
+        }
+
         // Refresh button
         btnRefresh.setOnClickListener(v -> {
             Log.d(TAG, "Refresh button clicked");
@@ -134,19 +332,14 @@ public class TrackerActivity extends AppCompatActivity {
             updateSignalInfo();
             handler.postDelayed(updateRunnable, RSSI_UPDATE_INTERVAL);
 
-            // Also trigger a new WiFi scan if possible
-            try {
-                if (wifiManager != null) {
-                    boolean scanStarted = wifiManager.startScan();
-                    if (scanStarted) {
-                        Log.i(TAG, "Manual scan triggered successfully");
-                        Toast.makeText(this, "Scanning for latest signal data...", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Log.w(TAG, "Scan blocked by system, using cached data");
-                    }
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error triggering scan: " + e.getMessage(), e);
+            // Also trigger a new WiFi scan if the budget allows
+            if (requestScan(ScanScheduler.Priority.TRACKER)) {
+                Log.i(TAG, "Manual scan triggered successfully");
+                Toast.makeText(this, "Scanning for latest signal data...", Toast.LENGTH_SHORT).show();
+            } else {
+                long waitSeconds = (scanScheduler.millisUntilNextSlot(ScanScheduler.Priority.TRACKER) + 999) / 1000;
+                Toast.makeText(this, "Next scan slot in " + waitSeconds + "s, using cached data",
+                        Toast.LENGTH_SHORT).show();
             }
         });
 
@@ -167,24 +360,93 @@ public class TrackerActivity extends AppCompatActivity {
         super.onDestroy();
         isTracking = false;
         handler.removeCallbacks(updateRunnable);
-        if (vibrator != null) {
-            vibrator.cancel();
+        if (scanService != null) {
+            scanService.removeObserver(scanObserver);
+            scanService = null;
+        }
+        if (serviceBound) {
+            unbindService(serviceConnection);
+            serviceBound = false;
+        }
+        if (calibrationDialog != null) {
+            calibrationDialog.dismiss();
+        }
+        if (survey != null) {
+            if (isChangingConfigurations()) {
+                // The next instance picks the survey up where this one left it
+                if (sensorManager != null) {
+                    sensorManager.unregisterListener(surveySensorListener);
+                }
+            } else {
+                if (survey.surveying) {
+                    stopSurvey();
+                }
+                SurveySession.end(survey);
+            }
+        }
+        if (scanScheduler != null) {
+            scanScheduler.onTrackerStopped();
+        }
+        // Null when onCreate finished early without a target
+        if (haptics != null) {
+            long now = SystemClock.elapsedRealtime();
+            haptics.stop(now);
+            Log.i(TAG, String.format(Locale.US,
+                    "onDestroy: Vibrator %.1f calls/min, %.1f/min when re-issued every tick (%d vs %d)",
+                    haptics.getCallsPerMinute(now), haptics.getRequestsPerMinute(now),
+                    haptics.getCallCount(), haptics.getRequestCount()));
         }
         Log.d(TAG, "onDestroy: TrackerActivity destroyed");
     }
 
+    private static RssiFilterBank.Type loadFilterType(SharedPreferences prefs) {
+        String name = prefs.getString(PREF_FILTER_TYPE, RssiFilterBank.Type.KALMAN.name());
+        try {
+            return RssiFilterBank.Type.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return RssiFilterBank.Type.KALMAN;
+        }
+    }
+
+    private static HapticEngine.Mode loadHapticMode(SharedPreferences prefs) {
+        String name = prefs.getString(PREF_HAPTIC_MODE, HapticEngine.Mode.AMPLITUDE.name());
+        try {
+            return HapticEngine.Mode.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return HapticEngine.Mode.AMPLITUDE;
+        }
+    }
+
+    private boolean requestScan(ScanScheduler.Priority priority) {
+        return scanService != null && scanService.requestScan(priority);
+    }
+
     private void updateSignalInfo() {
         try {
             int rssi = -100;
+            int frequency = 0;
             boolean found = false;
 
             // Try to get RSSI from connection info first
             WifiInfo wifiInfo = wifiManager.getConnectionInfo();
-            if (wifiInfo != null && wifiInfo.getBSSID() != null
-                    && wifiInfo.getBSSID().equalsIgnoreCase(targetBssid)) {
+            long connectedKey = wifiInfo == null ? Bssid.INVALID : Bssid.parse(wifiInfo.getBSSID());
+            if (wifiInfo != null) {
+                TraceRecorder.getInstance().onRssiPoll(connectedKey, wifiInfo.getRssi());
+            }
+            if (wifiInfo != null && connectedKey == targetBssidKey) {
                 rssi = wifiInfo.getRssi();
+                frequency = wifiInfo.getFrequency();
                 found = true;
-                Log.v(TAG, "updateSignalInfo: Using connection RSSI: " + rssi);
+                recordSurveySample(targetBssidKey, rssi);
+                if (survey.surveying) {
+                    // The other networks still come from the scans
+                    recordSurveyScan(ScanStore.getInstance().current(), true);
+                }
+                // Re-read the scan as soon as we fall back to it
+                lastScanGeneration = -1;
+                if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                    Log.v(TAG, "updateSignalInfo: Using connection RSSI: " + rssi);
+                }
             } else {
                 // Not connected, get from scan results
                 if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
@@ -193,153 +455,277 @@ public class TrackerActivity extends AppCompatActivity {
                     finish();
                     return;
                 }
-                List<ScanResult> results = wifiManager.getScanResults();
-                if (results != null) {
-                    for (ScanResult sr : results) {
-                        if (sr.BSSID.equalsIgnoreCase(targetBssid)) {
-                            rssi = sr.level;
-                            found = true;
-                            Log.v(TAG, "updateSignalInfo: Using scan RSSI: " + rssi);
-                            break;
-                        }
+                // Kept current by ScanService
+                ScanStore.Snapshot scan = ScanStore.getInstance().readCached();
+                if (scan.getGeneration() == lastScanGeneration) {
+                    // Same scan as last tick, the readout is already current
+                    return;
+                }
+                lastScanGeneration = scan.getGeneration();
+                recordSurveyScan(scan, false);
+
+                AccessPoint sr = scan.find(targetBssidKey);
+                if (sr != null) {
+                    rssi = sr.getLevel();
+                    frequency = sr.getFrequency();
+                    found = true;
+                    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                        Log.v(TAG, "updateSignalInfo: Using scan RSSI: " + rssi);
                     }
                 }
             }
 
             if (!found) {
                 Log.w(TAG, "updateSignalInfo: Target network not found");
-                txtRssiValue.setText("--");
-                txtDistance.setText("Out of range");
-                txtSignalQuality.setText("No Signal");
-                updateCircleColor(-100);
-                if (vibrator != null) {
-                    vibrator.cancel();
-                }
+                tick.onLost(SystemClock.elapsedRealtime());
                 return;
             }
 
-            // Update UI
-            txtDistance.setText(String.valueOf(rssi));
-
-            // Calculate approximate distance (rough estimation)
-            double distance = calculateDistance(rssi);
-            String distanceText;
-            if (distance < 1) {
-                distanceText = "< 1 meter";
-            } else if (distance < 10) {
-                distanceText = String.format("~%.1f meters", distance);
-            } else {
-                distanceText = String.format("~%.0f meters", distance);
-            }
-            txtRssiValue.setText(distanceText);
-
-            // Signal quality
-            String quality;
-            String qualityColor;
-            if (rssi > -50) {
-                quality = "Excellent - Very Close!";
-                qualityColor = "#4CAF50"; // Green
-            } else if (rssi > -60) {
-                quality = "Good - Close";
-                qualityColor = "#8BC34A"; // Light Green
-            } else if (rssi > -70) {
-                quality = "Fair - Medium Distance";
-                qualityColor = "#FF9800"; // Orange
-            } else if (rssi > -80) {
-                quality = "Weak - Far";
-                qualityColor = "#FF5722"; // Deep Orange
-            } else {
-                quality = "Very Weak - Very Far";
-                qualityColor = "#F44336"; // Red
+            if (frequency != targetFrequency) {
+                // Band is known now; a band-wide calibration may apply
+                targetFrequency = frequency;
+                applyPathLossModel(calibrationStore.modelFor(targetBssidKey, targetFrequency));
             }
-            txtSignalQuality.setText(quality);
-            txtSignalQuality.setTextColor(Color.parseColor(qualityColor));
 
-            // Update circle visualization
-            updateCircleColor(rssi);
-
-            // Apply vibration
-            if (vibrationEnabled) {
-                applyVibration(rssi);
+            if (calibrationSession != null) {
+                calibrationSession.addSample(rssi);
+                updateCalibrationDialog();
             }
 
+            // Readout, smoothing and vibration; views only change with the values
+            tick.onSample(rssi, SystemClock.elapsedRealtime());
+
         } catch (Exception e) {
             Log.e(TAG, "updateSignalInfo: Error: " + e.getMessage(), e);
         }
     }
 
-    private double calculateDistance(int rssi) {
-        // Rough approximation using free-space path loss formula
-        // Distance (meters) ≈ 10 ^ ((RSSI_at_1m - RSSI) / (10 * n))
-        // Where n = path loss exponent (typically 2-4, using 2.5 for indoor)
-        // RSSI_at_1m ≈ -40 dBm (typical for WiFi)
-
-        int rssiAt1m = -40;
-        double pathLossExponent = 2.5;
+    private void applyPathLossModel(PathLossModel model) {
+        if (model.equals(pathLossModel)) {
+            return;
+        }
+        pathLossModel = model;
+        tick.setStyleTable(model.equals(PathLossModel.DEFAULT)
+                ? SignalStyleTable.getDefault() : new SignalStyleTable(model));
+
+        if (model.equals(PathLossModel.DEFAULT)) {
+            txtCalibration.setText("Default");
+        } else if (calibrationStore.isCalibrated(targetBssidKey)) {
+            txtCalibration.setText(String.format(Locale.US, "%.0f dBm, n=%.1f",
+                    model.getRssiAt1m(), model.getExponent()));
+        } else {
+            // Not this AP's own fit: say it is the band's average
+            txtCalibration.setText(String.format(Locale.US, "Band avg of %d: %.0f dBm, n=%.1f",
+                    calibrationStore.bandCalibrationCount(targetFrequency),
+                    model.getRssiAt1m(), model.getExponent()));
+        }
+        Log.d(TAG, "applyPathLossModel: " + model.encode());
+    }
 
-        double distance = Math.pow(10, (rssiAt1m - rssi) / (10.0 * pathLossExponent));
-        return distance;
+    private void startCalibration() {
+        calibrationSession = new CalibrationSession();
+        calibrationDialog = new AlertDialog.Builder(this)
+                .setTitle("Distance Calibration")
+                .setMessage("")
+                .setPositiveButton("Next", null)
+                .setNeutralButton("Finish", null)
+                .setNegativeButton("Cancel", (dialog, which) -> {
+                    calibrationSession = null;
+                    calibrationDialog = null;
+                })
+                .setCancelable(false)
+                .create();
+
+        // Keep the dialog open between steps
+        calibrationDialog.setOnShowListener(d -> {
+            calibrationDialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(v -> {
+                if (calibrationSession.isLastStep()) {
+                    finishCalibration();
+                } else {
+                    calibrationSession.advance();
+                    updateCalibrationDialog();
+                }
+            });
+            calibrationDialog.getButton(AlertDialog.BUTTON_NEUTRAL)
+                    .setOnClickListener(v -> finishCalibration());
+            updateCalibrationDialog();
+        });
+        calibrationDialog.show();
     }
 
-    private void updateCircleColor(int rssi) {
-        GradientDrawable drawable = (GradientDrawable) circleInner.getBackground();
-
-        String fillColor;
-        String strokeColor;
-
-        if (rssi > -50) {
-            fillColor = "#4CAF50"; // Green
-            strokeColor = "#2E7D32";
-        } else if (rssi > -60) {
-            fillColor = "#8BC34A"; // Light Green
-            strokeColor = "#558B2F";
-        } else if (rssi > -70) {
-            fillColor = "#FF9800"; // Orange
-            strokeColor = "#E65100";
-        } else if (rssi > -80) {
-            fillColor = "#FF5722"; // Deep Orange
-            strokeColor = "#BF360C";
-        } else {
-            fillColor = "#F44336"; // Red
-            strokeColor = "#B71C1C";
+    private void updateCalibrationDialog() {
+        if (calibrationDialog == null || calibrationSession == null || !calibrationDialog.isShowing()) {
+            return;
         }
+        CalibrationSession session = calibrationSession;
+        calibrationDialog.setMessage(String.format(Locale.US,
+                "Step %d of %d: hold the phone %.0f m from the access point.\n\nSamples: %d (need %d)",
+                session.getStep() + 1, session.getStepCount(), session.getCurrentDistance(),
+                session.getStepSamples(), CalibrationSession.MIN_SAMPLES_PER_STEP));
+        calibrationDialog.getButton(AlertDialog.BUTTON_POSITIVE).setEnabled(session.isStepComplete());
+        calibrationDialog.getButton(AlertDialog.BUTTON_POSITIVE)
+                .setText(session.isLastStep() ? "Done" : "Next");
+    }
 
-        drawable.setColor(Color.parseColor(fillColor));
-        drawable.setStroke(6, Color.parseColor(strokeColor));
+    private void finishCalibration() {
+        try {
+            PathLossModel model = calibrationSession.fit();
+            calibrationStore.save(targetBssidKey, targetFrequency, model);
+            applyPathLossModel(model);
+            int band = AccessPoint.bandOf(targetFrequency);
+            if (band == 0) {
+                Toast.makeText(this, "Calibration saved for this AP", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, String.format(Locale.US,
+                        "Calibration saved. Uncalibrated %s APs use the average of %d calibrated APs",
+                        band == 2 ? "2.4 GHz" : band + " GHz",
+                        calibrationStore.bandCalibrationCount(targetFrequency)),
+                        Toast.LENGTH_LONG).show();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "finishCalibration: " + e.getMessage(), e);
+            Toast.makeText(this, "Calibration failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+        calibrationSession = null;
+        calibrationDialog.dismiss();
+        calibrationDialog = null;
     }
 
-    private void applyVibration(int rssi) {
-        if (vibrator == null || !vibrator.hasVibrator()) {
-            return;
+    private void startSurvey() {
+        survey.surveying = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.ACTIVITY_RECOGNITION)
+                != PackageManager.PERMISSION_GRANTED) {
+            requestStepPermission.launch(Manifest.permission.ACTIVITY_RECOGNITION);
         }
+        showSurvey();
+        Log.i(TAG, "startSurvey: Surveying " + targetBssid);
+    }
 
-        int minRssi = -90;
-        int maxRssi = -40;
-        int clamped = Math.max(minRssi, Math.min(maxRssi, rssi));
+    private void showSurvey() {
+        heatmapView.setVisibility(View.VISIBLE);
+        layoutSurveyActions.setVisibility(View.VISIBLE);
+        heatmapView.setLayer(survey.grid.layer(targetBssidKey));
+        heatmapView.setPosition(survey.deadReckoning.getX(), survey.deadReckoning.getY());
+        registerSurveySensors();
+        updateSurveyStatus();
+    }
 
-        float normalized = (float) (clamped - minRssi) / (float) (maxRssi - minRssi);
-        int amplitude = (int) (normalized * 255);
+    private void stopSurvey() {
+        survey.surveying = false;
+        if (sensorManager != null) {
+            sensorManager.unregisterListener(surveySensorListener);
+        }
+        heatmapView.setVisibility(View.GONE);
+        layoutSurveyActions.setVisibility(View.GONE);
+        txtSurvey.setText("Off");
+        Log.i(TAG, "stopSurvey: " + survey.grid.getLayerCount() + " networks surveyed, slowest frame "
+                + heatmapView.getMaxDrawNanos() / 1000 + " us");
+    }
 
-        Log.v(TAG, "applyVibration: RSSI=" + rssi + ", amplitude=" + amplitude);
+    private void registerSurveySensors() {
+        if (sensorManager == null) {
+            return;
+        }
+        sensorManager.unregisterListener(surveySensorListener);
+        Sensor rotation = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        Sensor steps = sensorManager.getDefaultSensor(Sensor.TYPE_STEP_DETECTOR);
+        if (rotation != null) {
+            sensorManager.registerListener(surveySensorListener, rotation, SensorManager.SENSOR_DELAY_UI);
+        }
+        if (steps != null) {
+            sensorManager.registerListener(surveySensorListener, steps, SensorManager.SENSOR_DELAY_NORMAL);
+        }
+        if (rotation == null || steps == null) {
+            Log.w(TAG, "registerSurveySensors: No dead reckoning, positions come from taps only");
+        }
+    }
 
-        if (amplitude <= 10) {
-            vibrator.cancel();
+    private void recordSurveySample(long bssidKey, int rssi) {
+        if (!survey.surveying) {
             return;
         }
+        DeadReckoning position = survey.deadReckoning;
+        survey.grid.layer(bssidKey).add(position.getX(), position.getY(), rssi,
+                bssidKey == targetBssidKey ? heatmapView : null);
+        updateSurveyStatus();
+    }
 
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                VibrationEffect effect = VibrationEffect.createWaveform(
-                        new long[]{0, 10000},
-                        new int[]{0, amplitude},
-                        1
-                );
-                vibrator.vibrate(effect);
-            } else {
-                vibrator.vibrate(10000);
+    /**
+     * Every network in the scan gets a layer, so one walk maps them all. Each
+     * scan generation is recorded once, whichever source the readout uses;
+     * while connected to the target, its samples come from the connection.
+     */
+    private void recordSurveyScan(ScanStore.Snapshot scan, boolean targetFromConnection) {
+        if (!survey.surveying || scan.getGeneration() == survey.lastGeneration) {
+            return;
+        }
+        survey.lastGeneration = scan.getGeneration();
+        DeadReckoning position = survey.deadReckoning;
+        List<AccessPoint> results = scan.getResults();
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            long key = sr.getBssidKey();
+            if (Bssid.isValid(key) && !(targetFromConnection && key == targetBssidKey)) {
+                survey.grid.layer(key).add(position.getX(), position.getY(), sr.getLevel(),
+                        key == targetBssidKey ? heatmapView : null);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "applyVibration: Error: " + e.getMessage(), e);
         }
+        updateSurveyStatus();
+    }
+
+    private void updateSurveyStatus() {
+        SurveyGrid.Layer layer = survey.grid.find(targetBssidKey);
+        txtSurvey.setText((layer == null ? 0 : layer.getSampleCount()) + " samples, "
+                + survey.deadReckoning.getStepCount() + " steps");
+    }
+
+    private void loadFloorPlan(Uri uri) {
+        new Thread(() -> {
+            try {
+                // Decode at most MAX_PLAN_PIXELS across; the heatmap is far coarser anyway
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    BitmapFactory.decodeStream(in, null, options);
+                }
+                options.inSampleSize = 1;
+                while (Math.max(options.outWidth, options.outHeight) / options.inSampleSize > MAX_PLAN_PIXELS) {
+                    options.inSampleSize *= 2;
+                }
+                options.inJustDecodeBounds = false;
+                Bitmap plan;
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    plan = BitmapFactory.decodeStream(in, null, options);
+                }
+                if (plan == null) {
+                    throw new IOException("Not an image");
+                }
+                runOnUiThread(() -> heatmapView.setFloorPlan(plan));
+            } catch (Exception e) {
+                Log.e(TAG, "loadFloorPlan: " + e.getMessage(), e);
+                runOnUiThread(() -> Toast.makeText(this, "Cannot open floor plan: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show());
+            }
+        }, "FloorPlanLoad").start();
+    }
+
+    private void exportSurvey() {
+        // The grid belongs to the main thread: copy its cells here, format them off it
+        final SurveyGrid.Export cells = survey.grid.snapshot();
+        File dir = getExternalFilesDir(null) != null ? getExternalFilesDir(null) : getFilesDir();
+        final File file = new File(dir, "survey-" + System.currentTimeMillis() + ".csv");
+        new Thread(() -> {
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                cells.write(writer);
+                Log.i(TAG, "exportSurvey: Wrote " + cells.size() + " cells to " + file);
+                runOnUiThread(() -> Toast.makeText(this, "Survey saved to " + file, Toast.LENGTH_LONG).show());
+            } catch (IOException e) {
+                Log.e(TAG, "exportSurvey: " + e.getMessage(), e);
+                runOnUiThread(() -> Toast.makeText(this, "Export failed: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show());
+            }
+        }, "SurveyExport").start();
     }
 }
@@ -0,0 +1,82 @@
+package com.example.wififinder;
+
+import android.os.Build;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import android.util.Log;
+
+/**
+ * {@link HapticEngine.Output} on the system vibrator. Every pattern repeats
+ * until replaced, so it is only issued on a change of step, and each one is
+ * built once and reused.
+ */
+public final class VibratorOutput implements HapticEngine.Output {
+
+    private static final String TAG = "VibratorOutput";
+    // One waveform segment for the continuous buzz; it repeats anyway
+    private static final long BUZZ_MS = 10000;
+    private static final long CLICK_MS = 20;
+    // Click period for step 1, halved for every step up: 800, 400, 200, 100 ms
+    private static final long SLOWEST_PERIOD_MS = 1600;
+
+    private final Vibrator vibrator;
+    private final Object[][] effects =
+            new Object[HapticEngine.Mode.values().length][HapticEngine.LEVEL_COUNT + 1];
+
+    public VibratorOutput(Vibrator vibrator) {
+        this.vibrator = vibrator;
+    }
+
+    public boolean isAvailable() {
+        return vibrator != null && vibrator.hasVibrator();
+    }
+
+    @Override
+    public void play(HapticEngine.Mode mode, int level) {
+        if (!isAvailable()) {
+            return;
+        }
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                vibrator.vibrate((VibrationEffect) effect(mode, level));
+            } else {
+                vibrator.vibrate((long[]) effect(mode, level), 0);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "play: Error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (vibrator != null) {
+            vibrator.cancel();
+        }
+    }
+
+    // A VibrationEffect on O and later, a plain on/off pattern before
+    private Object effect(HapticEngine.Mode mode, int level) {
+        Object effect = effects[mode.ordinal()][level];
+        if (effect != null) {
+            return effect;
+        }
+        long[] timings;
+        int[] amplitudes;
+        if (mode == HapticEngine.Mode.PULSE) {
+            long period = SLOWEST_PERIOD_MS >> level;
+            timings = new long[]{period - CLICK_MS, CLICK_MS};
+            amplitudes = new int[]{0, 255};
+        } else {
+            timings = new long[]{0, BUZZ_MS};
+            amplitudes = new int[]{0, 255 * level / HapticEngine.LEVEL_COUNT};
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            effect = VibrationEffect.createWaveform(timings, amplitudes, mode == HapticEngine.Mode.PULSE ? 0 : 1);
+        } else {
+            effect = timings;
+        }
+        Log.d(TAG, "effect: Built " + mode + " level " + level);
+        effects[mode.ordinal()][level] = effect;
+        return effect;
+    }
+}
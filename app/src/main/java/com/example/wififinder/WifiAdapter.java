@@ -1,88 +1,108 @@
 package com.example.wififinder;
 
-import android.content.Context;
-import android.graphics.Color;
-import android.net.wifi.ScanResult;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.List;
+public class WifiAdapter extends ListAdapter<NetworkRow, WifiAdapter.ViewHolder> {
 
-public class WifiAdapter extends ArrayAdapter<ScanResult> {
+    public interface OnNetworkClickListener {
+        void onNetworkClick(NetworkRow row);
+    }
+
+    // Rows are keyed by BSSID; only level, SSID, suspicion or vendor changes rebind.
+    static final DiffUtil.ItemCallback<NetworkRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<NetworkRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NetworkRow oldRow, @NonNull NetworkRow newRow) {
+            return oldRow.isSameNetwork(newRow);
+        }
 
-    private Context context;
-    private List<ScanResult> networks;
-    private List<ScanResult> suspiciousNetworks;
+        @Override
+        public boolean areContentsTheSame(@NonNull NetworkRow oldRow, @NonNull NetworkRow newRow) {
+            return oldRow.hasSameContents(newRow);
+        }
+    };
 
-    public WifiAdapter(@NonNull Context context, List<ScanResult> networks, List<ScanResult> suspiciousNetworks) {
-        super(context, 0, networks);
-        this.context = context;
-        this.networks = networks;
-        this.suspiciousNetworks = suspiciousNetworks;
+    private final OnNetworkClickListener clickListener;
+
+    public WifiAdapter(OnNetworkClickListener clickListener) {
+        super(DIFF_CALLBACK);
+        this.clickListener = clickListener;
     }
 
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        if (convertView == null) {
-            convertView = LayoutInflater.from(context).inflate(R.layout.wifi_list_item, parent, false);
-        }
-
-        ScanResult sr = networks.get(position);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.wifi_list_item, parent, false);
+        return new ViewHolder(view);
+    }
 
-        TextView txtWarningIcon = convertView.findViewById(R.id.txtWarningIcon);
-        TextView txtWifiIcon = convertView.findViewById(R.id.txtWifiIcon);
-        TextView txtSsid = convertView.findViewById(R.id.txtSsid);
-        TextView txtBssid = convertView.findViewById(R.id.txtBssid);
-        TextView txtSuspiciousLabel = convertView.findViewById(R.id.txtSuspiciousLabel);
-        TextView txtSignalStrength = convertView.findViewById(R.id.txtSignalStrength);
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        NetworkRow row = getItem(position);
 
         // SSID
-        String ssid = (sr.SSID == null || sr.SSID.isEmpty()) ? "<Hidden Network>" : sr.SSID;
-        txtSsid.setText(ssid);
+        holder.txtSsid.setText(row.getSsid());
 
         // BSSID
-        txtBssid.setText(sr.BSSID);
-
-        // Signal Strength
-        txtSignalStrength.setText(String.valueOf(sr.level));
-
-        // Color code signal strength
-        if (sr.level > -50) {
-            txtSignalStrength.setTextColor(Color.parseColor("#4CAF50")); // Green - Excellent
-        } else if (sr.level > -60) {
-            txtSignalStrength.setTextColor(Color.parseColor("#8BC34A")); // Light Green - Good
-        } else if (sr.level > -70) {
-            txtSignalStrength.setTextColor(Color.parseColor("#FF9800")); // Orange - Fair
+        holder.txtBssid.setText(row.getBssid());
+
+        // Manufacturer, when the prefix is registered
+        if (row.getVendor() != null) {
+            holder.txtVendor.setText(row.getVendor());
+            holder.txtVendor.setVisibility(View.VISIBLE);
         } else {
-            txtSignalStrength.setTextColor(Color.parseColor("#F44336")); // Red - Weak
+            holder.txtVendor.setVisibility(View.GONE);
         }
 
-        // Check if suspicious
-        boolean isSuspicious = false;
-        for (ScanResult susp : suspiciousNetworks) {
-            if (susp.BSSID.equals(sr.BSSID)) {
-                isSuspicious = true;
-                break;
-            }
-        }
+        // Signal Strength, color coded on the pipeline thread
+        holder.txtSignalStrength.setText(row.getLevelText());
+        holder.txtSignalStrength.setTextColor(row.getSignalColor());
 
-        if (isSuspicious) {
-            txtWarningIcon.setVisibility(View.VISIBLE);
-            txtWifiIcon.setVisibility(View.GONE);
-            txtSuspiciousLabel.setVisibility(View.VISIBLE);
+        if (row.isSuspicious()) {
+            holder.txtWarningIcon.setVisibility(View.VISIBLE);
+            holder.txtWifiIcon.setVisibility(View.GONE);
+            holder.txtSuspiciousLabel.setText(row.getSuspicionReason());
+            holder.txtSuspiciousLabel.setVisibility(View.VISIBLE);
         } else {
-            txtWarningIcon.setVisibility(View.GONE);
-            txtWifiIcon.setVisibility(View.VISIBLE);
-            txtSuspiciousLabel.setVisibility(View.GONE);
+            holder.txtWarningIcon.setVisibility(View.GONE);
+            holder.txtWifiIcon.setVisibility(View.VISIBLE);
+            holder.txtSuspiciousLabel.setVisibility(View.GONE);
         }
+    }
 
-        return convertView;
+    class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView txtWarningIcon;
+        final TextView txtWifiIcon;
+        final TextView txtSsid;
+        final TextView txtBssid;
+        final TextView txtVendor;
+        final TextView txtSuspiciousLabel;
+        final TextView txtSignalStrength;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            txtWarningIcon = itemView.findViewById(R.id.txtWarningIcon);
+            txtWifiIcon = itemView.findViewById(R.id.txtWifiIcon);
+            txtSsid = itemView.findViewById(R.id.txtSsid);
+            txtBssid = itemView.findViewById(R.id.txtBssid);
+            txtVendor = itemView.findViewById(R.id.txtVendor);
+            txtSuspiciousLabel = itemView.findViewById(R.id.txtSuspiciousLabel);
+            txtSignalStrength = itemView.findViewById(R.id.txtSignalStrength);
+
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && clickListener != null) {
+                    clickListener.onNetworkClick(getItem(position));
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,42 @@
+package com.example.wififinder;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+
+public class WifiFinderApplication extends Application {
+
+    private static final String TAG = "WifiFinderApplication";
+    private static final String HISTORY_DIR = "history";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Since boot, including deep sleep, like the platform's scan throttling window
+        ScanScheduler.init(SystemClock::elapsedRealtime);
+        // Rules see every scan, not only those a screen happened to show
+        ScanStore.getInstance().addListener(SuspicionMonitor.getInstance(getFilesDir()));
+
+        // Opening and indexing the log reads every record, so keep it off the main thread
+        File directory = new File(getFilesDir(), HISTORY_DIR);
+        new Thread(() -> {
+            try {
+                ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+                SignalHistory history = SignalHistory.getInstance();
+                history.load(ScanHistoryReader.open(directory));
+
+                ScanStore store = ScanStore.getInstance();
+                store.addListener(new ScanHistoryRecorder(writer));
+                store.addListener(history);
+                Log.d(TAG, "onCreate: Recording scan history to " + directory
+                        + ", " + history.getSampleCount() + " samples indexed");
+            } catch (IOException e) {
+                Log.e(TAG, "onCreate: Scan history disabled", e);
+            }
+        }, "ScanHistoryOpen").start();
+    }
+}
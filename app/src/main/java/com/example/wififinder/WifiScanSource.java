@@ -0,0 +1,49 @@
+package com.example.wififinder;
+
+import android.net.wifi.ScanResult;
+import android.net.wifi.WifiManager;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The device's Wi-Fi scanner as a {@link ScanSource}. Copies each
+ * {@link ScanResult} into an {@link AccessPoint}, turning its since-boot
+ * timestamp into wall-clock time.
+ */
+public final class WifiScanSource implements ScanSource {
+
+    private final WifiManager wifiManager;
+    // Fixed once, so a result that did not change converts to the same time on every read
+    private final long bootTimeMs = System.currentTimeMillis() - SystemClock.elapsedRealtime();
+
+    public WifiScanSource(WifiManager wifiManager) {
+        this.wifiManager = wifiManager;
+    }
+
+    @Override
+    public boolean startScan() {
+        return wifiManager.startScan();
+    }
+
+    /** @throws SecurityException without location access */
+    @Override
+    public List<AccessPoint> getScanResults() {
+        List<ScanResult> results = wifiManager.getScanResults();
+        if (results == null || results.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<AccessPoint> accessPoints = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            accessPoints.add(toAccessPoint(results.get(i)));
+        }
+        return accessPoints;
+    }
+
+    private AccessPoint toAccessPoint(ScanResult sr) {
+        return new AccessPoint(sr.BSSID, sr.SSID, sr.capabilities, sr.level, sr.frequency,
+                bootTimeMs + sr.timestamp / 1000, sr.channelWidth, sr.centerFreq0, sr.centerFreq1);
+    }
+}
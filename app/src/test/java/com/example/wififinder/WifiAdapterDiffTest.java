@@ -0,0 +1,142 @@
+package com.example.wififinder;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the row binds one refresh costs for a 200-network scan. Before the
+ * diff, every refresh called notifyDataSetChanged and rebound every row.
+ */
+public class WifiAdapterDiffTest {
+
+    private static final int NETWORKS = 200;
+    // What notifyDataSetChanged costs for any refresh
+    private static final int FULL_REBIND_BINDS = NETWORKS;
+
+    @Test
+    public void unchangedScanRebindsNothing() {
+        List<NetworkRow> scan = scan(NETWORKS, new Random(1));
+
+        BindCounter counter = diff(scan, new ArrayList<>(scan));
+
+        assertEquals(0, counter.binds());
+    }
+
+    @Test
+    public void rssiJitterRebindsOnlyMovedLevels() {
+        Random random = new Random(2);
+        List<NetworkRow> before = scan(NETWORKS, random);
+        List<NetworkRow> after = new ArrayList<>(before);
+
+        int changed = 0;
+        for (int i = 0; i < after.size(); i += 20) {
+            NetworkRow row = after.get(i);
+            after.set(i, new NetworkRow(row.getBssid(), row.getSsid(),
+                    row.getLevel() - 1, row.isSuspicious()));
+            changed++;
+        }
+        sortByLevel(after);
+
+        BindCounter counter = diff(before, after);
+
+        assertEquals(changed, counter.changed);
+        assertEquals(0, counter.inserted);
+        // One row in twenty moved a level: a twentieth of a full rebind
+        assertEquals(FULL_REBIND_BINDS / 20, counter.binds());
+    }
+
+    @Test
+    public void suspiciousFlagChangeRebindsRow() {
+        List<NetworkRow> before = scan(NETWORKS, new Random(3));
+        List<NetworkRow> after = new ArrayList<>(before);
+        NetworkRow row = after.get(NETWORKS / 2);
+        after.set(NETWORKS / 2, new NetworkRow(row.getBssid(), row.getSsid(),
+                row.getLevel(), !row.isSuspicious()));
+
+        BindCounter counter = diff(before, after);
+
+        assertEquals(1, counter.binds());
+    }
+
+    private static BindCounter diff(final List<NetworkRow> oldList, final List<NetworkRow> newList) {
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newList.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return WifiAdapter.DIFF_CALLBACK.areItemsTheSame(
+                        oldList.get(oldPosition), newList.get(newPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return WifiAdapter.DIFF_CALLBACK.areContentsTheSame(
+                        oldList.get(oldPosition), newList.get(newPosition));
+            }
+        });
+        BindCounter counter = new BindCounter();
+        result.dispatchUpdatesTo(counter);
+        return counter;
+    }
+
+    private static List<NetworkRow> scan(int count, Random random) {
+        List<NetworkRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int level = -30 - random.nextInt(65);
+            rows.add(new NetworkRow(String.format("02:00:00:00:%02x:%02x", i >> 8, i & 0xff),
+                    "net-" + i, level, level > -50));
+        }
+        sortByLevel(rows);
+        return rows;
+    }
+
+    private static void sortByLevel(List<NetworkRow> rows) {
+        Collections.sort(rows, (a, b) -> Integer.compare(b.getLevel(), a.getLevel()));
+    }
+
+    /** A moved row keeps its view holder; only inserts and changes cost a bind. */
+    private static class BindCounter implements ListUpdateCallback {
+        int inserted;
+        int changed;
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            changed += count;
+        }
+
+        int binds() {
+            return inserted + changed;
+        }
+    }
+}
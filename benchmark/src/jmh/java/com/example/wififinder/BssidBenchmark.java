@@ -0,0 +1,78 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the tracked access point in a scan: by string, as the tracker used
+ * to, against the parsed key the scan is indexed by.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BssidBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private List<AccessPoint> scan;
+    private ScanStore.Snapshot snapshot;
+    // Upper case, as BSSIDs typed or shared elsewhere often are
+    private String[] targets;
+    private long[] targetKeys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<List<AccessPoint>> scans = Scans.generate(networks);
+        scan = scans.get(0);
+        snapshot = Scans.snapshots(scans).get(0);
+        targets = new String[Scans.COUNT];
+        targetKeys = new long[Scans.COUNT];
+        for (int i = 0; i < Scans.COUNT; i++) {
+            // Spread over the list; later ones cost a string scan more
+            AccessPoint ap = scan.get((int) ((long) i * scan.size() / Scans.COUNT));
+            targets[i] = ap.getBssid().toUpperCase(Locale.US);
+            targetKeys[i] = ap.getBssidKey();
+        }
+    }
+
+    @Benchmark
+    public AccessPoint findByString() {
+        String target = targets[next++ & (Scans.COUNT - 1)];
+        for (int i = 0; i < scan.size(); i++) {
+            AccessPoint ap = scan.get(i);
+            if (ap.getBssid().equalsIgnoreCase(target)) {
+                return ap;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public AccessPoint findByKey() {
+        return snapshot.find(targetKeys[next++ & (Scans.COUNT - 1)]);
+    }
+
+    /** Paid once per access point per scan, when the scan comes in. */
+    @Benchmark
+    public long parse() {
+        return Bssid.parse(targets[next++ & (Scans.COUNT - 1)]);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The channel screen's work for one scan: fold it in, then pick a channel per band. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelAnalyzerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private List<List<AccessPoint>> scans;
+    private ChannelAnalyzer analyzer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        scans = Scans.generate(networks);
+        analyzer = new ChannelAnalyzer();
+    }
+
+    @Benchmark
+    public void updateAndRecommend(Blackhole bh) {
+        analyzer.update(scans.get(next++ & (Scans.COUNT - 1)));
+        for (int band : ChannelAnalyzer.BANDS) {
+            bh.consume(analyzer.recommend(band));
+        }
+    }
+}
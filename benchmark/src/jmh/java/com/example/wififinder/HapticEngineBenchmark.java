@@ -0,0 +1,67 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tracker sample through the haptic quantizer. Most samples keep their
+ * step, so the output is rarely called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HapticEngineBenchmark {
+
+    // Samples a walk toward and away from the target, with 3 dB of noise
+    private static final int SAMPLES = 1024;
+
+    @Param({"AMPLITUDE", "PULSE"})
+    public HapticEngine.Mode mode;
+
+    private final int[] levels = new int[SAMPLES];
+    private HapticEngine haptics;
+    private int next;
+    private long nowMs;
+    private long plays;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Scans.SEED);
+        for (int i = 0; i < SAMPLES; i++) {
+            double phase = 2 * Math.PI * i / SAMPLES;
+            levels[i] = (int) Math.round(-70 + 25 * Math.sin(phase) + random.nextGaussian() * 3);
+        }
+        haptics = new HapticEngine(new HapticEngine.Output() {
+            @Override
+            public void play(HapticEngine.Mode mode, int level) {
+                plays++;
+            }
+
+            @Override
+            public void stop() {
+            }
+        }, mode);
+    }
+
+    @Benchmark
+    public int update() {
+        nowMs += 200;
+        haptics.update(levels[next++ & (SAMPLES - 1)], nowMs);
+        return haptics.getLevel();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vendor lookup against the naive approach of parsing the registry CSV into
+ * a HashMap: startup, then the lookups one scan of {@link #BSSIDS} access
+ * points costs. The registry is synthetic but registry-sized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OuiDatabaseBenchmark {
+
+    private static final int PREFIXES = 35_000;
+    private static final int BSSIDS = 300;
+
+    private File directory;
+    private File csv;
+    private File bin;
+    private Map<Integer, String> parsed;
+    private OuiDatabase database;
+    private final long[] bssids = new long[BSSIDS];
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(Scans.SEED);
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        while (vendors.size() < PREFIXES) {
+            // Vendor prefixes never have the locally administered bit set
+            vendors.put(random.nextInt(1 << 24) & ~0x020000, "Vendor " + random.nextInt(20_000) + ", Inc.");
+        }
+        directory = Scans.createTempDirectory("oui");
+        csv = new File(directory, "oui.csv");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(csv), StandardCharsets.UTF_8)) {
+            out.write("Registry,Assignment,Organization Name,Organization Address\n");
+            for (Map.Entry<Integer, String> e : vendors.entrySet()) {
+                out.write(String.format("MA-L,%06X,\"%s\",\"1 Main Street Springfield US 12345 \"\n",
+                        e.getKey(), e.getValue()));
+            }
+        }
+        bin = new File(directory, "oui.bin");
+        try (FileOutputStream out = new FileOutputStream(bin)) {
+            out.write(OuiDatabaseBuilder.build(vendors));
+        }
+
+        // Half registered, half unknown
+        Integer[] prefixes = vendors.keySet().toArray(new Integer[0]);
+        for (int i = 0; i < bssids.length; i++) {
+            int prefix = random.nextBoolean() ? prefixes[random.nextInt(prefixes.length)]
+                    : random.nextInt(1 << 24) & ~0x020000;
+            bssids[i] = ((long) prefix << 24) | random.nextInt(1 << 24);
+        }
+        parsed = startupCsvHashMap();
+        database = startupMapped();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Scans.delete(directory);
+    }
+
+    @Benchmark
+    public Map<Integer, String> startupCsvHashMap() throws IOException {
+        Map<Integer, String> vendors = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(csv), StandardCharsets.UTF_8))) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                int first = line.indexOf(',');
+                int second = line.indexOf(',', first + 1);
+                int end = line.indexOf("\",", second + 2);
+                vendors.put(Integer.parseInt(line.substring(first + 1, second), 16),
+                        line.substring(second + 2, end));
+            }
+        }
+        return vendors;
+    }
+
+    @Benchmark
+    public OuiDatabase startupMapped() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(bin, "r")) {
+            return new OuiDatabase(file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+        }
+    }
+
+    @Benchmark
+    public void lookupHashMap(Blackhole bh) {
+        for (int i = 0; i < bssids.length; i++) {
+            bh.consume(parsed.get(Bssid.oui(bssids[i])));
+        }
+    }
+
+    /** Decodes the name on every hit. */
+    @Benchmark
+    public void lookupBinarySearch(Blackhole bh) {
+        for (int i = 0; i < bssids.length; i++) {
+            bh.consume(database.lookup(Bssid.oui(bssids[i])));
+        }
+    }
+
+    /** What the pipeline calls: every BSSID is in the LRU after the first scan. */
+    @Benchmark
+    public void lookupCached(Blackhole bh) {
+        for (int i = 0; i < bssids.length; i++) {
+            bh.consume(database.vendorOf(bssids[i]));
+        }
+    }
+}
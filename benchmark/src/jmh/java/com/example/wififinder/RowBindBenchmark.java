@@ -0,0 +1,111 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What WifiAdapter reads from each row while binding a full list, with the
+ * views left out. Rows are resolved on the pipeline thread, so the cost per
+ * row should stay flat whatever the share of suspicious networks: the scan
+ * is built so that exactly {@code suspiciousPercent} of its rows are flagged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowBindBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    // A share rather than a count, so every combination with networks is valid
+    @Param({"0", "10", "50", "100"})
+    public int suspiciousPercent;
+
+    private List<NetworkRow> rows;
+    private ScanSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        Scans.quietLogging();
+        ScanStore.Snapshot scan = Scans.snapshots(Collections.singletonList(scan())).get(0);
+        ScanPipeline pipeline = new ScanPipeline(ScanPipeline.Environment.alwaysOn(() -> scan),
+                Runnable::run, s -> {
+                });
+        snapshot = pipeline.process();
+        pipeline.shutdown();
+        rows = snapshot.getNetworks();
+        if (snapshot.getSuspiciousCount() != suspicious()) {
+            throw new IllegalStateException(snapshot.getSuspiciousCount() + " rows flagged, not "
+                    + suspicious());
+        }
+    }
+
+    @Benchmark
+    public void bindAll(Blackhole bh) {
+        for (int i = 0; i < rows.size(); i++) {
+            NetworkRow row = rows.get(i);
+            bh.consume(row.getSsid());
+            bh.consume(row.getBssid());
+            bh.consume(row.getVendor());
+            bh.consume(row.getLevelText());
+            bh.consume(row.getSignalColor());
+            if (row.isSuspicious()) {
+                bh.consume(row.getSuspicionReason());
+            }
+        }
+    }
+
+    /** The marker lookup a screen does for a row it only has the BSSID of. */
+    @Benchmark
+    public void isSuspiciousAll(Blackhole bh) {
+        for (int i = 0; i < rows.size(); i++) {
+            bh.consume(snapshot.isSuspicious(rows.get(i).getBssidKey()));
+        }
+    }
+
+    /**
+     * One first scan, so only the per-scan rules can fire: every SSID is
+     * unique and named, and only the flagged access points are close enough
+     * for VERY CLOSE. Flagged ones are spread through the BSSID range.
+     */
+    private List<AccessPoint> scan() {
+        int suspicious = suspicious();
+        List<AccessPoint> scan = new ArrayList<>(networks);
+        int flagged = 0;
+        for (int i = 0; i < networks; i++) {
+            boolean close = flagged < suspicious && (long) i * suspicious / networks >= flagged;
+            int level = close
+                    ? SuspicionRules.STRONG_SIGNAL_LEVEL + 1 + i % 20
+                    : SuspicionRules.STRONG_SIGNAL_LEVEL - 1 - i % 45;
+            if (close) {
+                flagged++;
+            }
+            scan.add(new AccessPoint(String.format("02:00:00:00:%02x:%02x", i >> 8, i & 0xff),
+                    "net-" + i, "[WPA2-PSK-CCMP][ESS]", level, 2412 + 5 * (i % 13),
+                    SyntheticScanSource.START_TIME_MS));
+        }
+        return scan;
+    }
+
+    private int suspicious() {
+        return networks * suspiciousPercent / 100;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording history: {@link #SCANS} scans queued, written and synced to a
+ * fresh log. Each iteration is one shot, so the score is the time for the
+ * lot, end to end, including the final fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScanHistoryBenchmark {
+
+    private static final int SCANS = 1000;
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private List<ScanStore.Snapshot> snapshots;
+    private File directory;
+    private ScanHistoryWriter writer;
+    private ScanHistoryRecorder recorder;
+
+    @Setup
+    public void setUp() {
+        Scans.quietLogging();
+        snapshots = Scans.snapshots(Scans.generate(networks));
+    }
+
+    @Setup(Level.Iteration)
+    public void openLog() throws IOException {
+        directory = Scans.createTempDirectory("history");
+        writer = new ScanHistoryWriter(directory);
+        recorder = new ScanHistoryRecorder(writer);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteLog() {
+        Scans.delete(directory);
+    }
+
+    @Benchmark
+    public long record() throws IOException {
+        for (int i = 0; i < SCANS; i++) {
+            recorder.onNewGeneration(snapshots.get(i & (Scans.COUNT - 1)));
+        }
+        writer.close();
+        return writer.getRecordsWritten();
+    }
+}
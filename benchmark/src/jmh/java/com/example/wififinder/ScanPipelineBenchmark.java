@@ -0,0 +1,66 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One refresh of the network list, as MainActivity gets it for every new
+ * scan: classify every access point, sort by level and build the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanPipelineBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private List<List<AccessPoint>> scans;
+    private ScanStore store;
+    private ScanPipeline pipeline;
+    private int next;
+    private long nowMs;
+
+    @Setup
+    public void setUp() {
+        Scans.quietLogging();
+        scans = Scans.generate(networks);
+        store = new ScanStore();
+        nowMs = SyntheticScanSource.START_TIME_MS;
+        pipeline = new ScanPipeline(ScanPipeline.Environment.alwaysOn(this::nextScan), Runnable::run,
+                snapshot -> {
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    // Consecutive scans always differ, so every call is a new generation
+    private ScanStore.Snapshot nextScan() {
+        nowMs += SyntheticScanSource.SCAN_INTERVAL_MS;
+        return store.update(scans.get(next++ & (Scans.COUNT - 1)), nowMs);
+    }
+
+    @Benchmark
+    public ScanSnapshot process() {
+        return pipeline.process();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.wififinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Synthetic scans and other fixtures shared by the benchmarks. */
+final class Scans {
+
+    static final long SEED = 42;
+    // Distinct scans each benchmark cycles through; a power of two for masking
+    static final int COUNT = 16;
+
+    private Scans() {
+    }
+
+    /**
+     * {@link #COUNT} consecutive scans of a walk through {@code networks}
+     * access points. The few out of earshot are left out, as on a device.
+     */
+    static List<List<AccessPoint>> generate(int networks) {
+        SyntheticScanSource source = new SyntheticScanSource(SEED, networks);
+        List<List<AccessPoint>> scans = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            source.startScan();
+            scans.add(source.getScanResults());
+        }
+        return scans;
+    }
+
+    /** The scans as the {@link ScanStore} hands them to its listeners. */
+    static List<ScanStore.Snapshot> snapshots(List<List<AccessPoint>> scans) {
+        ScanStore store = new ScanStore();
+        List<ScanStore.Snapshot> snapshots = new ArrayList<>(scans.size());
+        long nowMs = SyntheticScanSource.START_TIME_MS;
+        for (List<AccessPoint> scan : scans) {
+            nowMs += SyntheticScanSource.SCAN_INTERVAL_MS;
+            snapshots.add(store.update(scan, nowMs));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Turns logging off; the console handler would otherwise time itself.
+     * Messages are still built, as they are on a device.
+     */
+    static void quietLogging() {
+        Logger.getLogger("").setLevel(Level.OFF);
+    }
+
+    static File createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
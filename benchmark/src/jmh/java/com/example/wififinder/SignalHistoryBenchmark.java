@@ -0,0 +1,78 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Queries over an hour of history, one scan every 5 s. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalHistoryBenchmark {
+
+    private static final int SCANS = 720;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000;
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private SignalHistory history;
+    private final long[] keys = new long[Scans.COUNT];
+    private long endMs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        history = new SignalHistory();
+        SyntheticScanSource source = new SyntheticScanSource(Scans.SEED, networks);
+        ScanStore store = new ScanStore();
+        store.addListener(history);
+        for (int i = 0; i < SCANS; i++) {
+            source.startScan();
+            store.update(source.getScanResults(), source.getTimeMs());
+        }
+        endMs = source.getTimeMs() + 1;
+        List<AccessPoint> last = source.getScanResults();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = last.get(i % last.size()).getBssidKey();
+        }
+    }
+
+    /** The tracker's graph: one access point, the last ten minutes. */
+    @Benchmark
+    public SignalHistory.TimeSeries series() {
+        return history.series(keys[next++ & (Scans.COUNT - 1)], endMs - TEN_MINUTES_MS, endMs);
+    }
+
+    /** One access point's whole hour, by the minute. */
+    @Benchmark
+    public SignalHistory.Rollup rollupHour() {
+        return history.rollup(keys[next++ & (Scans.COUNT - 1)], SignalHistory.Resolution.MINUTE,
+                endMs - SCANS * SyntheticScanSource.SCAN_INTERVAL_MS, endMs);
+    }
+
+    @Benchmark
+    public long[] seenLastMinute() {
+        return history.seenSince(endMs - 60 * 1000);
+    }
+
+    /** Every access point, the last ten minutes, by the minute. */
+    @Benchmark
+    public LongObjectMap<SignalHistory.Rollup> maxPerMinute() {
+        return history.maxPerMinute(endMs - TEN_MINUTES_MS, endMs);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding one scan to the heatmap survey: a sample per access point at the
+ * walker's position, each updating the estimates around it. The grid is
+ * cleared every iteration so it stays the size of a short survey.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SurveyGridBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private final List<List<AccessPoint>> scans = new ArrayList<>();
+    private final float[] xs = new float[Scans.COUNT];
+    private final float[] ys = new float[Scans.COUNT];
+    private final SurveyGrid grid = new SurveyGrid();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticScanSource source = new SyntheticScanSource(Scans.SEED, networks);
+        for (int i = 0; i < Scans.COUNT; i++) {
+            source.startScan();
+            scans.add(source.getScanResults());
+            xs[i] = source.getWalkerX();
+            ys[i] = source.getWalkerY();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearGrid() {
+        grid.clear();
+    }
+
+    @Benchmark
+    public int recordSurveyScan() {
+        int i = next++ & (Scans.COUNT - 1);
+        List<AccessPoint> scan = scans.get(i);
+        for (int j = 0; j < scan.size(); j++) {
+            AccessPoint ap = scan.get(j);
+            grid.layer(ap.getBssidKey()).add(xs[i], ys[i], ap.getLevel(), null);
+        }
+        return grid.getLayerCount();
+    }
+}
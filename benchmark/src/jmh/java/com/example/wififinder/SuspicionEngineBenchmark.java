@@ -0,0 +1,67 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classification alone: every rule over one scan. With fingerprints on, each
+ * named access point is also checked against, and learned into, the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuspicionEngineBenchmark {
+
+    @Param({"10", "100", "500", "1000"})
+    public int networks;
+
+    @Param({"false", "true"})
+    public boolean fingerprints;
+
+    private List<List<AccessPoint>> scans;
+    private SuspicionEngine engine;
+    private File directory;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scans.quietLogging();
+        scans = Scans.generate(networks);
+        if (fingerprints) {
+            directory = Scans.createTempDirectory("fingerprints");
+            engine = SuspicionEngine.withDefaultRules(new FingerprintIndex(new File(directory, "index")));
+        } else {
+            engine = SuspicionEngine.withDefaultRules();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (directory != null) {
+            Scans.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return engine.evaluate(scans.get(next++ & (Scans.COUNT - 1)));
+    }
+}
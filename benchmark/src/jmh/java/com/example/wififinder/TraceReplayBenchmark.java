@@ -0,0 +1,82 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 10,000-scan trace, with four connection polls between scans, replayed
+ * as fast as possible through {@link ReplayedAppLogic}: the scan store and
+ * its listeners, the list pipeline and a tracker. One shot per iteration;
+ * the score is the whole replay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TraceReplayBenchmark {
+
+    private static final int SCANS = 10_000;
+    private static final int POLLS_PER_SCAN = 4;
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private File directory;
+    private File trace;
+    private long target;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scans.quietLogging();
+        directory = Scans.createTempDirectory("trace");
+        trace = new File(directory, "replay.wft");
+        SyntheticScanSource source = new SyntheticScanSource(Scans.SEED, networks);
+        ScanTraceWriter writer = new ScanTraceWriter(trace, SyntheticScanSource.START_TIME_MS);
+        for (int scan = 0; scan < SCANS; scan++) {
+            source.startScan();
+            List<AccessPoint> results = source.getScanResults();
+            if (scan == 0) {
+                target = results.get(0).getBssidKey();
+            }
+            long timeMs = source.getTimeMs();
+            writer.scanAvailable(timeMs, true);
+            writer.scanResults(timeMs + 20, results);
+            for (int poll = 1; poll <= POLLS_PER_SCAN; poll++) {
+                writer.rssiPoll(timeMs + poll * 1000, target, -55 - (scan + poll) % 20);
+            }
+        }
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Scans.delete(directory);
+    }
+
+    @Benchmark
+    public long replay() throws IOException, InterruptedException {
+        try (ScanTraceReader reader = new ScanTraceReader(trace);
+             ReplayedAppLogic logic = new ReplayedAppLogic(target)) {
+            TraceReplayer replayer = new TraceReplayer(reader, logic);
+            replayer.setSpeed(TraceReplayer.AS_FAST_AS_POSSIBLE);
+            return replayer.run();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.wififinder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrackerActivity.updateSignalInfo for one new scan: find the target, filter
+ * its level, and restyle the display and haptics through the style table
+ * (which also holds the distance estimate). The gc profiler should show
+ * about 0 B/op once warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackerTickBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int networks;
+
+    private List<ScanStore.Snapshot> snapshots;
+    private long targetKey;
+    private TrackerTick tick;
+    private int next;
+    private long nowMs;
+
+    // Written by the display so the tick's output is not dead code
+    private String text;
+    private int color;
+
+    @Setup
+    public void setUp() {
+        snapshots = Scans.snapshots(Scans.generate(networks));
+        List<AccessPoint> first = snapshots.get(0).getResults();
+        targetKey = first.get(first.size() / 2).getBssidKey();
+
+        HapticEngine haptics = new HapticEngine(new HapticEngine.Output() {
+            @Override
+            public void play(HapticEngine.Mode mode, int level) {
+                color = level;
+            }
+
+            @Override
+            public void stop() {
+                color = 0;
+            }
+        }, HapticEngine.Mode.AMPLITUDE);
+        tick = new TrackerTick(targetKey, new RssiFilterBank(RssiFilterBank.Type.KALMAN), haptics,
+                new TrackerTick.Display() {
+                    @Override
+                    public void showRssiValue(String value) {
+                        text = value;
+                    }
+
+                    @Override
+                    public void showDistance(String value) {
+                        text = value;
+                    }
+
+                    @Override
+                    public void showQuality(String value) {
+                        text = value;
+                    }
+
+                    @Override
+                    public void showQualityColor(int value) {
+                        color = value;
+                    }
+
+                    @Override
+                    public void showCircle(int fillColor, int strokeColor) {
+                        color = fillColor ^ strokeColor;
+                    }
+                });
+        nowMs = SyntheticScanSource.START_TIME_MS;
+    }
+
+    @Benchmark
+    public int updateSignalInfo() {
+        ScanStore.Snapshot scan = snapshots.get(next++ & (Scans.COUNT - 1));
+        nowMs += SyntheticScanSource.SCAN_INTERVAL_MS;
+        AccessPoint target = scan.find(targetKey);
+        if (target == null) {
+            tick.onLost(nowMs);
+        } else {
+            tick.onSample(target.getLevel(), nowMs);
+        }
+        return tick.getSmoothedRssi();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.wififinder;
+
+/**
+ * One access point as heard in one scan. A plain immutable copy of what the
+ * logic needs from a platform scan result, so that everything downstream of
+ * a {@link ScanSource} runs on any JVM.
+ *
+ * <p>The BSSID is parsed once here; consumers use {@link #getBssidKey}.
+ */
+public final class AccessPoint {
+
+    // Same values as android.net.wifi.ScanResult.CHANNEL_WIDTH_*
+    public static final int CHANNEL_WIDTH_20MHZ = 0;
+    public static final int CHANNEL_WIDTH_40MHZ = 1;
+    public static final int CHANNEL_WIDTH_80MHZ = 2;
+    public static final int CHANNEL_WIDTH_160MHZ = 3;
+    public static final int CHANNEL_WIDTH_80MHZ_PLUS_MHZ = 4;
+    public static final int CHANNEL_WIDTH_320MHZ = 5;
+
+    private final String bssid;
+    private final long bssidKey;
+    private final String ssid;
+    private final String capabilities;
+    private final int level;
+    private final int frequency;
+    private final long timestampMs;
+    private final int channelWidth;
+    private final int centerFreq0;
+    private final int centerFreq1;
+
+    /** A 20 MHz access point. */
+    public AccessPoint(String bssid, String ssid, String capabilities, int level, int frequency,
+                       long timestampMs) {
+        this(bssid, ssid, capabilities, level, frequency, timestampMs, CHANNEL_WIDTH_20MHZ, 0, 0);
+    }
+
+    /**
+     * @param ssid         network name; null or empty when hidden
+     * @param timestampMs  wall-clock time the access point was last heard
+     * @param centerFreq0  center of the whole channel in MHz, 0 for 20 MHz
+     * @param centerFreq1  center of the second segment of an 80+80 MHz channel, else 0
+     */
+    public AccessPoint(String bssid, String ssid, String capabilities, int level, int frequency,
+                       long timestampMs, int channelWidth, int centerFreq0, int centerFreq1) {
+        this.bssid = bssid;
+        this.bssidKey = Bssid.parse(bssid);
+        this.ssid = ssid == null ? "" : ssid;
+        this.capabilities = capabilities == null ? "" : capabilities;
+        this.level = level;
+        this.frequency = frequency;
+        this.timestampMs = timestampMs;
+        this.channelWidth = channelWidth;
+        this.centerFreq0 = centerFreq0;
+        this.centerFreq1 = centerFreq1;
+    }
+
+    /** Band in GHz for a frequency in MHz: 2, 5 or 6, or 0 if unknown. */
+    public static int bandOf(int frequencyMhz) {
+        if (frequencyMhz >= 2400 && frequencyMhz < 2500) {
+            return 2;
+        } else if (frequencyMhz >= 4900 && frequencyMhz < 5925) {
+            return 5;
+        } else if (frequencyMhz >= 5925 && frequencyMhz <= 7125) {
+            return 6;
+        }
+        return 0;
+    }
+
+    /** Same access point heard at another level and time. */
+    public AccessPoint withLevel(int level, long timestampMs) {
+        return new AccessPoint(bssid, ssid, capabilities, level, frequency, timestampMs,
+                channelWidth, centerFreq0, centerFreq1);
+    }
+
+    public String getBssid() {
+        return bssid;
+    }
+
+    /** The {@link Bssid} key, {@link Bssid#INVALID} if the BSSID did not parse. */
+    public long getBssidKey() {
+        return bssidKey;
+    }
+
+    /** Network name, empty when hidden. */
+    public String getSsid() {
+        return ssid;
+    }
+
+    public boolean isHidden() {
+        return ssid.isEmpty();
+    }
+
+    /** Security flags such as "[WPA2-PSK-CCMP][ESS]"; empty if unknown. */
+    public String getCapabilities() {
+        return capabilities;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public int getBand() {
+        return bandOf(frequency);
+    }
+
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    public int getChannelWidth() {
+        return channelWidth;
+    }
+
+    public int getCenterFreq0() {
+        return centerFreq0;
+    }
+
+    public int getCenterFreq1() {
+        return centerFreq1;
+    }
+
+    @Override
+    public String toString() {
+        return (isHidden() ? "<hidden>" : ssid) + " | " + bssid + " | " + level + " dBm | " + frequency + " MHz";
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.wififinder;
+
+/**
+ * What the {@link SuspicionEngine} remembers about one BSSID across scans.
+ * Updated once per scan the access point appears in; rules only read it.
+ */
+public final class AccessPointState {
+
+    /** Scans in a row an access point must stay visible before its flapping is forgotten. */
+    static final int STABLE_SCANS = 10;
+    /** Vendor group shared by every locally administered (randomized) BSSID. */
+    static final int LOCAL_OUI = -1;
+
+    private final long bssidKey;
+    private final int oui;
+    private String ssid = "";
+    private int security = FingerprintIndex.SECURITY_OPEN;
+    private int band;
+    private int level;
+    private int previousLevel;
+    private boolean seenInPreviousScan;
+    private long lastSeenScan = 0;
+    private int presentStreak = 0;
+    private int reappearances = 0;
+    private int ssidVendorCount = 0;
+    int flags;
+
+    AccessPointState(long bssidKey) {
+        this.bssidKey = bssidKey;
+        this.oui = vendorOf(bssidKey);
+    }
+
+    /** Vendor prefix of the key, with every randomized BSSID in one {@link #LOCAL_OUI} group. */
+    static int vendorOf(long bssidKey) {
+        return Bssid.isLocallyAdministered(bssidKey) ? LOCAL_OUI : Bssid.oui(bssidKey);
+    }
+
+    void observe(AccessPoint sr, long scan) {
+        boolean seenBefore = lastSeenScan > 0;
+        seenInPreviousScan = seenBefore && lastSeenScan == scan - 1;
+        if (seenBefore && !seenInPreviousScan) {
+            reappearances++;
+            presentStreak = 0;
+        }
+        presentStreak++;
+        if (presentStreak >= STABLE_SCANS) {
+            reappearances = 0;
+        }
+
+        previousLevel = level;
+        level = sr.getLevel();
+        ssid = sr.getSsid();
+        security = FingerprintIndex.securityOf(sr.getCapabilities());
+        band = sr.getBand();
+        lastSeenScan = scan;
+    }
+
+    void setSsidVendorCount(int count) {
+        ssidVendorCount = count;
+    }
+
+    public long getBssidKey() {
+        return bssidKey;
+    }
+
+    /** Vendor prefix, or {@link #LOCAL_OUI} for a locally administered BSSID. */
+    public int getOui() {
+        return oui;
+    }
+
+    /** SSID as broadcast; empty for hidden networks. */
+    public String getSsid() {
+        return ssid;
+    }
+
+    /** FingerprintIndex.SECURITY_* bits from the capabilities. */
+    public int getSecurity() {
+        return security;
+    }
+
+    /** Band in GHz (2, 5 or 6), or 0 if unknown. */
+    public int getBand() {
+        return band;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /** Level at the previous sighting, valid when {@link #wasSeenInPreviousScan}. */
+    public int getPreviousLevel() {
+        return previousLevel;
+    }
+
+    public boolean wasSeenInPreviousScan() {
+        return seenInPreviousScan;
+    }
+
+    public long getLastSeenScan() {
+        return lastSeenScan;
+    }
+
+    /** Times the access point came back after missing a scan, since it was last stable. */
+    public int getReappearances() {
+        return reappearances;
+    }
+
+    /** Distinct vendors broadcasting this SSID in the current scan; 0 when hidden. */
+    public int getSsidVendorCount() {
+        return ssidVendorCount;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.wififinder;
+
+/**
+ * Packs a textual MAC address such as {@code aa:bb:cc:dd:ee:ff} into the low
+ * 48 bits of a {@code long}. Parsing does not allocate, so the key can be
+ * used for every comparison and map lookup instead of the string.
+ */
+public final class Bssid {
+
+    /** Returned for null or malformed input. Valid keys are never negative. */
+    public static final long INVALID = -1L;
+
+    private static final int TEXT_LENGTH = 17;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Bssid() {
+    }
+
+    /**
+     * Parses six hex octets separated by ':' or '-', in any letter case.
+     *
+     * @return the 48-bit key, or {@link #INVALID}
+     */
+    public static long parse(CharSequence text) {
+        if (text == null || text.length() != TEXT_LENGTH) {
+            return INVALID;
+        }
+
+        char separator = text.charAt(2);
+        if (separator != ':' && separator != '-') {
+            return INVALID;
+        }
+
+        long key = 0;
+        for (int i = 0; i < TEXT_LENGTH; i += 3) {
+            int high = hexValue(text.charAt(i));
+            int low = hexValue(text.charAt(i + 1));
+            if (high < 0 || low < 0) {
+                return INVALID;
+            }
+            if (i + 2 < TEXT_LENGTH && text.charAt(i + 2) != separator) {
+                return INVALID;
+            }
+            key = (key << 8) | (high << 4) | low;
+        }
+        return key;
+    }
+
+    public static boolean isValid(long key) {
+        return key >= 0 && key <= 0xFFFFFFFFFFFFL;
+    }
+
+    /** Formats a key back to the lower-case, colon-separated form. */
+    public static String format(long key) {
+        if (!isValid(key)) {
+            return null;
+        }
+        char[] out = new char[TEXT_LENGTH];
+        for (int octet = 0; octet < 6; octet++) {
+            int value = (int) (key >>> (40 - octet * 8)) & 0xFF;
+            int i = octet * 3;
+            out[i] = HEX[value >>> 4];
+            out[i + 1] = HEX[value & 0x0F];
+            if (octet < 5) {
+                out[i + 2] = ':';
+            }
+        }
+        return new String(out);
+    }
+
+    /** The 24-bit organizationally unique identifier (vendor prefix). */
+    public static int oui(long key) {
+        return (int) (key >>> 24) & 0xFFFFFF;
+    }
+
+    /** True when the AP uses a locally administered address rather than a vendor one. */
+    public static boolean isLocallyAdministered(long key) {
+        return ((key >>> 40) & 0x02) != 0;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
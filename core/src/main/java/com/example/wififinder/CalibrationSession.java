@@ -0,0 +1,68 @@
+package com.example.wififinder;
+
+/**
+ * Guided capture for {@link PathLossFitter}: the user stands at each of a
+ * few known distances from the AP while raw samples are collected.
+ */
+public final class CalibrationSession {
+
+    public static final double[] DEFAULT_DISTANCES = {1, 2, 4, 8};
+    public static final int MIN_SAMPLES_PER_STEP = 3;
+
+    private final double[] distances;
+    private final PathLossFitter fitter = new PathLossFitter();
+    private int step = 0;
+    private int stepSamples = 0;
+
+    public CalibrationSession() {
+        this(DEFAULT_DISTANCES);
+    }
+
+    public CalibrationSession(double[] distances) {
+        if (distances.length == 0) {
+            throw new IllegalArgumentException("At least one distance is required");
+        }
+        this.distances = distances.clone();
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public int getStepCount() {
+        return distances.length;
+    }
+
+    public double getCurrentDistance() {
+        return distances[Math.min(step, distances.length - 1)];
+    }
+
+    public int getStepSamples() {
+        return stepSamples;
+    }
+
+    public boolean isStepComplete() {
+        return stepSamples >= MIN_SAMPLES_PER_STEP;
+    }
+
+    public boolean isLastStep() {
+        return step >= distances.length - 1;
+    }
+
+    public void addSample(int rssi) {
+        fitter.addSample(getCurrentDistance(), rssi);
+        stepSamples++;
+    }
+
+    /** Moves to the next distance. */
+    public void advance() {
+        if (!isLastStep()) {
+            step++;
+            stepSamples = 0;
+        }
+    }
+
+    public PathLossModel fit() {
+        return fitter.fit(PathLossModel.DEFAULT.getExponent());
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.wififinder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-channel congestion across the 2.4, 5 and 6 GHz bands. Every access
+ * point loads the 20 MHz channels its transmission overlaps, in proportion
+ * to the overlap and to how loud it is, so a strong 80 MHz AP weighs on four
+ * channels and a 2.4 GHz AP spills onto its neighbours. Loads are smoothed
+ * across scans, and the least loaded non-overlapping channel of each band is
+ * recommended.
+ *
+ * <p>All state lives in primitive arrays indexed by channel number, reused
+ * from scan to scan. Not thread-safe; meant for the UI thread.
+ */
+public final class ChannelAnalyzer {
+
+    /** Bands, numbered as {@link AccessPoint#bandOf}. */
+    public static final int[] BANDS = {2, 5, 6};
+    /** Level at which an AP stops counting, and level at which it counts fully. */
+    static final int NOISE_FLOOR_DBM = -95;
+    static final int FULL_LOAD_DBM = -35;
+    /** Weight of the newest scan in the smoothed load. */
+    static final float SMOOTHING = 0.5f;
+
+    private static final int CHANNEL_MHZ = 20;
+
+    // Channels that do not overlap one another: 1/6/11, the 5 GHz 20 MHz
+    // channels, and the 6 GHz preferred scanning channels
+    private static final int[] CANDIDATES_2_GHZ = {1, 6, 11};
+    private static final int[] CANDIDATES_5_GHZ = {36, 40, 44, 48, 52, 56, 60, 64, 100, 104, 108,
+            112, 116, 120, 124, 128, 132, 136, 140, 144, 149, 153, 157, 161, 165};
+    private static final int[] CANDIDATES_6_GHZ = new int[15];
+
+    static {
+        for (int i = 0; i < CANDIDATES_6_GHZ.length; i++) {
+            CANDIDATES_6_GHZ[i] = 5 + 16 * i;
+        }
+    }
+
+    // Indexed by slot (0: 2.4, 1: 5, 2: 6 GHz), then by channel number
+    private final float[][] scanLoad = {new float[15], new float[178], new float[234]};
+    private final float[][] load = {new float[15], new float[178], new float[234]};
+    private final int[][] accessPoints = {new int[15], new int[178], new int[234]};
+    private final boolean[] bandSeen = new boolean[3];
+    private long lastGeneration = -1;
+    private long scans = 0;
+
+    /** Channel number for a primary frequency, or 0 outside the three bands. */
+    public static int channelOf(int frequencyMhz) {
+        switch (AccessPoint.bandOf(frequencyMhz)) {
+            case 2:
+                return frequencyMhz == 2484 ? 14 : (frequencyMhz - 2407) / 5;
+            case 5:
+                return (frequencyMhz - 5000) / 5;
+            case 6:
+                return (frequencyMhz - 5950) / 5;
+            default:
+                return 0;
+        }
+    }
+
+    /** Center frequency of a 20 MHz channel. */
+    public static int centerOf(int band, int channel) {
+        switch (band) {
+            case 2:
+                return channel == 14 ? 2484 : 2407 + 5 * channel;
+            case 5:
+                return 5000 + 5 * channel;
+            default:
+                return 5950 + 5 * channel;
+        }
+    }
+
+    /** Number of channels {@link #recommend} chooses from in the band. */
+    public static int getCandidateCount(int band) {
+        return candidates(band).length;
+    }
+
+    public static int getCandidate(int band, int index) {
+        return candidates(band)[index];
+    }
+
+    /**
+     * Folds a scan into the loads.
+     *
+     * @return false if the scan was already applied and nothing changed
+     */
+    public boolean update(ScanStore.Snapshot scan) {
+        if (scan.getGeneration() == lastGeneration) {
+            return false;
+        }
+        lastGeneration = scan.getGeneration();
+        update(scan.getResults());
+        return true;
+    }
+
+    void update(List<AccessPoint> results) {
+        for (int s = 0; s < 3; s++) {
+            Arrays.fill(scanLoad[s], 0f);
+            Arrays.fill(accessPoints[s], 0);
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            int band = AccessPoint.bandOf(sr.getFrequency());
+            int channel = channelOf(sr.getFrequency());
+            if (band == 0 || channel <= 0 || channel >= accessPoints[slot(band)].length) {
+                continue;
+            }
+            int s = slot(band);
+            bandSeen[s] = true;
+            accessPoints[s][channel]++;
+
+            float strength = strength(sr.getLevel());
+            if (strength <= 0f) {
+                continue;
+            }
+            switch (sr.getChannelWidth()) {
+                case AccessPoint.CHANNEL_WIDTH_40MHZ:
+                    spread(band, center(sr), 40, strength);
+                    break;
+                case AccessPoint.CHANNEL_WIDTH_80MHZ:
+                    spread(band, center(sr), 80, strength);
+                    break;
+                case AccessPoint.CHANNEL_WIDTH_160MHZ:
+                    spread(band, center(sr), 160, strength);
+                    break;
+                case AccessPoint.CHANNEL_WIDTH_80MHZ_PLUS_MHZ:
+                    spread(band, center(sr), 80, strength);
+                    if (sr.getCenterFreq1() > 0) {
+                        spread(band, sr.getCenterFreq1(), 80, strength);
+                    }
+                    break;
+                case AccessPoint.CHANNEL_WIDTH_320MHZ:
+                    spread(band, center(sr), 320, strength);
+                    break;
+                default:
+                    spread(band, sr.getFrequency(), CHANNEL_MHZ, strength);
+                    break;
+            }
+        }
+
+        for (int s = 0; s < 3; s++) {
+            float[] current = scanLoad[s];
+            float[] smoothed = load[s];
+            for (int c = 0; c < smoothed.length; c++) {
+                smoothed[c] = scans == 0 ? current[c] : smoothed[c] + SMOOTHING * (current[c] - smoothed[c]);
+            }
+        }
+        scans++;
+    }
+
+    /**
+     * Smoothed load of a 20 MHz channel: roughly the number of full-strength
+     * access points sharing its spectrum.
+     */
+    public float getLoad(int band, int channel) {
+        float[] loads = load[slot(band)];
+        return channel > 0 && channel < loads.length ? loads[channel] : 0f;
+    }
+
+    /** Access points whose primary channel it was in the last scan. */
+    public int getAccessPointCount(int band, int channel) {
+        int[] counts = accessPoints[slot(band)];
+        return channel > 0 && channel < counts.length ? counts[channel] : 0;
+    }
+
+    /** True once an access point has been heard on the band, i.e. the device scans it. */
+    public boolean hasSeen(int band) {
+        return bandSeen[slot(band)];
+    }
+
+    /**
+     * The least loaded candidate channel of the band; ties go to the lower
+     * channel.
+     *
+     * @return the channel, or 0 if nothing has been heard on the band
+     */
+    public int recommend(int band) {
+        if (!hasSeen(band)) {
+            return 0;
+        }
+        int[] channels = candidates(band);
+        int best = channels[0];
+        for (int i = 1; i < channels.length; i++) {
+            if (getLoad(band, channels[i]) < getLoad(band, best)) {
+                best = channels[i];
+            }
+        }
+        return best;
+    }
+
+    public long getScanCount() {
+        return scans;
+    }
+
+    /** 0 at the noise floor, 1 from {@link #FULL_LOAD_DBM} up. */
+    static float strength(int level) {
+        float s = (float) (level - NOISE_FLOOR_DBM) / (FULL_LOAD_DBM - NOISE_FLOOR_DBM);
+        return Math.max(0f, Math.min(1f, s));
+    }
+
+    // Adds the share of [center - width/2, center + width/2] each 20 MHz channel overlaps
+    private void spread(int band, int centerMhz, int widthMhz, float strength) {
+        float[] loads = scanLoad[slot(band)];
+        int low = centerMhz - widthMhz / 2;
+        int high = centerMhz + widthMhz / 2;
+        int first = Math.max(1, channelFloor(band, low - CHANNEL_MHZ / 2));
+        int last = Math.min(loads.length - 1, channelFloor(band, high + CHANNEL_MHZ / 2) + 1);
+        for (int c = first; c <= last; c++) {
+            int channelCenter = centerOf(band, c);
+            int overlap = Math.min(high, channelCenter + CHANNEL_MHZ / 2)
+                    - Math.max(low, channelCenter - CHANNEL_MHZ / 2);
+            if (overlap > 0) {
+                loads[c] += strength * overlap / CHANNEL_MHZ;
+            }
+        }
+    }
+
+    private static int center(AccessPoint sr) {
+        return sr.getCenterFreq0() > 0 ? sr.getCenterFreq0() : sr.getFrequency();
+    }
+
+    // Channel at or below a frequency, ignoring 2.4 GHz channel 14's odd spacing
+    private static int channelFloor(int band, int frequencyMhz) {
+        return Math.floorDiv(frequencyMhz - centerOf(band, 0), 5);
+    }
+
+    private static int slot(int band) {
+        return band == 2 ? 0 : band == 5 ? 1 : 2;
+    }
+
+    private static int[] candidates(int band) {
+        return band == 2 ? CANDIDATES_2_GHZ : band == 5 ? CANDIDATES_5_GHZ : CANDIDATES_6_GHZ;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.wififinder;
+
+/**
+ * Pedestrian dead reckoning: every detected step moves the position one
+ * step length along the current heading. Drift grows with every step, so a
+ * known position (a tap on the floor plan) re-anchors it.
+ *
+ * <p>Positions are in meters with x to the east and y to the south, like
+ * screen coordinates on a north-up plan.
+ */
+public final class DeadReckoning {
+
+    /** Average adult step, in meters. */
+    public static final float DEFAULT_STEP_METERS = 0.7f;
+
+    private final float stepMeters;
+    private float x;
+    private float y;
+    private float heading;
+    private int steps = 0;
+
+    public DeadReckoning(float startX, float startY) {
+        this(startX, startY, DEFAULT_STEP_METERS);
+    }
+
+    public DeadReckoning(float startX, float startY, float stepMeters) {
+        this.x = startX;
+        this.y = startY;
+        this.stepMeters = stepMeters;
+    }
+
+    /** @param azimuthRadians heading clockwise from north, as from SensorManager.getOrientation */
+    public void setHeading(float azimuthRadians) {
+        heading = azimuthRadians;
+    }
+
+    public void onStep() {
+        x += stepMeters * (float) Math.sin(heading);
+        y -= stepMeters * (float) Math.cos(heading);
+        steps++;
+    }
+
+    /** Replaces the estimate with a known position. */
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getHeading() {
+        return heading;
+    }
+
+    public int getStepCount() {
+        return steps;
+    }
+}
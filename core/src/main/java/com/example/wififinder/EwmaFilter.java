@@ -0,0 +1,32 @@
+package com.example.wififinder;
+
+/** Exponentially weighted moving average. */
+public final class EwmaFilter implements RssiFilter {
+
+    private final float alpha;
+    private float value = Float.NaN;
+
+    /** @param alpha weight of the newest sample, in (0, 1] */
+    public EwmaFilter(float alpha) {
+        if (alpha <= 0f || alpha > 1f) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    public float update(float rssi) {
+        value = Float.isNaN(value) ? rssi : value + alpha * (rssi - value);
+        return value;
+    }
+
+    @Override
+    public float value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        value = Float.NaN;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.wififinder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers which access points each network name has been broadcast from:
+ * per BSSID the security it advertises and its band, per SSID the vendors
+ * and security seen so far. An access point that claims a known name but
+ * does not fit its fingerprint is a mismatch, e.g. an open hotspot named
+ * like the home network, or a new vendor answering for the office SSID.
+ *
+ * <p>Learning is trust-on-first-use: a new name is learned as is, and a new
+ * access point is added to a known name only if it matches, so an impostor
+ * keeps being reported. Each check is two hash lookups.
+ *
+ * <p>The index is read from disk on the first check, not when created, so
+ * it never costs the main thread or cold start anything. Saves are
+ * throttled to one per {@link #SAVE_INTERVAL_MS}.
+ */
+public final class FingerprintIndex {
+
+    private static final String TAG = "FingerprintIndex";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    static final String FILE_NAME = "fingerprints.bin";
+    private static final int MAGIC = 0x57464650; // "WFFP"
+    private static final int VERSION = 1;
+    /** Names learned at most; past that new names are neither learned nor flagged. */
+    static final int MAX_NETWORKS = 4096;
+    /** Access points learned per name at most, enough for a large office. */
+    static final int MAX_ACCESS_POINTS_PER_NETWORK = 256;
+    static final long SAVE_INTERVAL_MS = 30000;
+
+    // Security bits parsed from AccessPoint.getCapabilities()
+    public static final int SECURITY_OPEN = 1;
+    public static final int SECURITY_WEP = 1 << 1;
+    public static final int SECURITY_PSK = 1 << 2;
+    public static final int SECURITY_SAE = 1 << 3;
+    public static final int SECURITY_EAP = 1 << 4;
+    public static final int SECURITY_OWE = 1 << 5;
+
+    // Mismatch bits returned by check()
+    /** An unknown access point for the name, from a vendor never seen with it. */
+    public static final int MISMATCH_VENDOR = 1;
+    /** Security that shares nothing with what the name or access point advertised. */
+    public static final int MISMATCH_SECURITY = 1 << 1;
+    /** A known access point heard on another band. */
+    public static final int MISMATCH_BAND = 1 << 2;
+
+    private static FingerprintIndex instance;
+
+    // One per SSID; the name string is held here once for every access point
+    private static final class Network {
+        final int id;
+        final String ssid;
+        int security;
+        int[] vendors = new int[2];
+        int vendorCount;
+        int accessPoints;
+
+        Network(int id, String ssid) {
+            this.id = id;
+            this.ssid = ssid;
+        }
+
+        boolean hasVendor(int oui) {
+            for (int i = 0; i < vendorCount; i++) {
+                if (vendors[i] == oui) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Fingerprint fp, int oui) {
+            security |= fp.security;
+            accessPoints++;
+            if (!hasVendor(oui)) {
+                if (vendorCount == vendors.length) {
+                    vendors = Arrays.copyOf(vendors, vendorCount * 2);
+                }
+                vendors[vendorCount++] = oui;
+            }
+        }
+    }
+
+    private static final class Fingerprint {
+        final Network network;
+        int security;
+        final int band;
+
+        Fingerprint(Network network, int security, int band) {
+            this.network = network;
+            this.security = security;
+            this.band = band;
+        }
+    }
+
+    private final File file;
+    private final HashMap<String, Network> bySsid = new HashMap<>();
+    private final List<Network> networks = new ArrayList<>();
+    private final LongObjectMap<Fingerprint> byBssid = new LongObjectMap<>();
+    private boolean loaded = false;
+    private boolean dirty = false;
+    private long lastSaveMs = 0;
+
+    FingerprintIndex(File file) {
+        this.file = file;
+    }
+
+    /** The app's index, kept in its files directory. Does no I/O. */
+    public static synchronized FingerprintIndex getInstance(File filesDir) {
+        if (instance == null) {
+            instance = new FingerprintIndex(new File(filesDir, FILE_NAME));
+        }
+        return instance;
+    }
+
+    /** Security bits for a capabilities string such as "[WPA2-PSK-CCMP][ESS]". */
+    public static int securityOf(String capabilities) {
+        if (capabilities == null) {
+            return SECURITY_OPEN;
+        }
+        int security = 0;
+        if (capabilities.contains("WEP")) {
+            security |= SECURITY_WEP;
+        }
+        if (capabilities.contains("PSK")) {
+            security |= SECURITY_PSK;
+        }
+        if (capabilities.contains("SAE")) {
+            security |= SECURITY_SAE;
+        }
+        if (capabilities.contains("EAP")) {
+            security |= SECURITY_EAP;
+        }
+        if (capabilities.contains("OWE")) {
+            security |= SECURITY_OWE;
+        }
+        return security == 0 ? SECURITY_OPEN : security;
+    }
+
+    /**
+     * Checks the access point against what its SSID is known for, learning
+     * it if it fits. Hidden networks are skipped.
+     *
+     * @return mismatch bits, 0 if the access point fits or is new
+     */
+    public synchronized int check(AccessPointState ap) {
+        ensureLoaded();
+        String ssid = ap.getSsid();
+        if (ssid.isEmpty()) {
+            return 0;
+        }
+
+        Fingerprint known = byBssid.get(ap.getBssidKey());
+        if (known != null && known.network.ssid.equals(ssid)) {
+            int mismatch = 0;
+            if ((known.security & ap.getSecurity()) == 0) {
+                mismatch |= MISMATCH_SECURITY;
+            } else if (known.security != ap.getSecurity()) {
+                // e.g. WPA2 to WPA2/WPA3 transition: the same network, upgraded
+                known.security = ap.getSecurity();
+                known.network.security |= ap.getSecurity();
+                dirty = true;
+            }
+            if (known.band != 0 && ap.getBand() != 0 && known.band != ap.getBand()) {
+                mismatch |= MISMATCH_BAND;
+            }
+            return mismatch;
+        }
+
+        // Unknown access point, or one that was renamed
+        Network network = bySsid.get(ssid);
+        if (network == null) {
+            if (networks.size() >= MAX_NETWORKS) {
+                return 0;
+            }
+            network = new Network(networks.size(), ssid);
+            networks.add(network);
+            bySsid.put(ssid, network);
+        } else if (network.accessPoints > 0) {
+            int mismatch = 0;
+            if (!network.hasVendor(ap.getOui())) {
+                mismatch |= MISMATCH_VENDOR;
+            }
+            if ((network.security & ap.getSecurity()) == 0) {
+                mismatch |= MISMATCH_SECURITY;
+            }
+            if (mismatch != 0) {
+                return mismatch;
+            }
+        }
+
+        if (network.accessPoints < MAX_ACCESS_POINTS_PER_NETWORK) {
+            if (known != null) {
+                known.network.accessPoints--;
+            }
+            Fingerprint fp = new Fingerprint(network, ap.getSecurity(), ap.getBand());
+            byBssid.put(ap.getBssidKey(), fp);
+            network.add(fp, ap.getOui());
+            dirty = true;
+        }
+        return 0;
+    }
+
+    /** Writes the index if it changed and the last save is old enough. */
+    public synchronized void saveIfDue(long nowMs) {
+        if (!dirty || nowMs - lastSaveMs < SAVE_INTERVAL_MS) {
+            return;
+        }
+        lastSaveMs = nowMs;
+        try {
+            save();
+            dirty = false;
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "saveIfDue: Error writing " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized int getNetworkCount() {
+        ensureLoaded();
+        return networks.size();
+    }
+
+    public synchronized int getAccessPointCount() {
+        ensureLoaded();
+        return byBssid.size();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            read(in);
+            LOG.fine("Loaded " + networks.size() + " networks, " + byBssid.size()
+                    + " access points in " + (System.nanoTime() - start) / 1000 + " us");
+        } catch (FileNotFoundException e) {
+            LOG.fine("No fingerprints yet");
+        } catch (IOException e) {
+            // Start over rather than trust a partial index
+            LOG.severe("Discarding unreadable " + file + ": " + e.getMessage());
+            bySsid.clear();
+            networks.clear();
+            byBssid.clear();
+        }
+    }
+
+    // int magic, int version, int networks, {UTF ssid}*, int access points,
+    // {u16+u32 bssid, int network id, byte security, byte band}*
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a fingerprint file");
+        }
+        int networkCount = in.readInt();
+        if (networkCount < 0 || networkCount > MAX_NETWORKS) {
+            throw new IOException("Bad network count " + networkCount);
+        }
+        for (int i = 0; i < networkCount; i++) {
+            Network network = new Network(i, in.readUTF());
+            networks.add(network);
+            bySsid.put(network.ssid, network);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long key = ((long) in.readUnsignedShort() << 32) | (in.readInt() & 0xFFFFFFFFL);
+            int id = in.readInt();
+            int security = in.readUnsignedByte();
+            int band = in.readUnsignedByte();
+            if (id < 0 || id >= networkCount) {
+                throw new IOException("Bad network id " + id);
+            }
+            Network network = networks.get(id);
+            Fingerprint fp = new Fingerprint(network, security, band);
+            byBssid.put(key, fp);
+            network.add(fp, AccessPointState.vendorOf(key));
+        }
+    }
+
+    // Written next to the file and renamed over it, so a crash leaves the old index
+    private void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(networks.size());
+            for (Network network : networks) {
+                out.writeUTF(network.ssid);
+            }
+            out.writeInt(byBssid.size());
+            final IOException[] error = new IOException[1];
+            byBssid.forEach((key, fp) -> {
+                if (error[0] != null) {
+                    return;
+                }
+                try {
+                    out.writeShort((int) (key >>> 32));
+                    out.writeInt((int) key);
+                    out.writeInt(fp.network.id);
+                    out.writeByte(fp.security);
+                    out.writeByte(fp.band);
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+        LOG.fine("Saved " + networks.size() + " networks, " + byBssid.size() + " access points");
+    }
+}
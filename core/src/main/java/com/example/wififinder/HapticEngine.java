@@ -0,0 +1,152 @@
+package com.example.wififinder;
+
+/**
+ * Turns the tracker's signal level into vibration. Levels are quantized into
+ * {@link #LEVEL_COUNT} steps, with {@link #HYSTERESIS_DB} of hysteresis at
+ * every boundary, and the {@link Output} is only told about a change of
+ * step. A level hovering around a boundary, or the same level every tick,
+ * costs no vibrator call at all.
+ *
+ * <p>Counts what it issued next to what the old tick-by-tick code would
+ * have, per minute, so the saving shows up in the log.
+ */
+public final class HapticEngine {
+
+    /** Steps above "off"; step 0 is silent. */
+    public static final int LEVEL_COUNT = 4;
+    public static final int HYSTERESIS_DB = 3;
+    // Lower edge of each step, in dBm; the old code was silent below about -88
+    private static final int[] THRESHOLDS = {-88, -76, -64, -52};
+
+    public enum Mode {
+        /** Continuous buzz, stronger when closer. */
+        AMPLITUDE("Buzz"),
+        /** Geiger-counter clicks, faster when closer; works without amplitude control. */
+        PULSE("Geiger");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Mode next() {
+            Mode[] modes = values();
+            return modes[(ordinal() + 1) % modes.length];
+        }
+    }
+
+    /** Where the vibration goes; each call is one call into the vibrator service. */
+    public interface Output {
+        /** Starts a repeating pattern for the step, 1..{@link #LEVEL_COUNT}, replacing any other. */
+        void play(Mode mode, int level);
+
+        void stop();
+    }
+
+    private final Output output;
+    private Mode mode;
+    private int level = 0;
+    private long startMs = -1;
+    private long requests = 0;
+    private long calls = 0;
+
+    public HapticEngine(Output output, Mode mode) {
+        this.output = output;
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        if (this.mode != mode) {
+            this.mode = mode;
+            if (level > 0) {
+                output.play(mode, level);
+                calls++;
+            }
+        }
+    }
+
+    /** Current step, 0 when silent. */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Step for a level with no history, i.e. without hysteresis. */
+    public static int levelOf(int rssi) {
+        int level = 0;
+        while (level < THRESHOLDS.length && rssi >= THRESHOLDS[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    /** Called once per tracker tick with the smoothed level. */
+    public void update(int rssi, long nowMs) {
+        count(nowMs);
+        // Only move once the level is clearly past the boundary
+        int next = level;
+        if (levelOf(rssi - HYSTERESIS_DB) > level) {
+            next = levelOf(rssi - HYSTERESIS_DB);
+        } else if (levelOf(rssi + HYSTERESIS_DB) < level) {
+            next = levelOf(rssi + HYSTERESIS_DB);
+        }
+        if (next == level) {
+            return;
+        }
+        level = next;
+        if (level == 0) {
+            output.stop();
+        } else {
+            output.play(mode, level);
+        }
+        calls++;
+    }
+
+    /** Silences the output, e.g. when the target is lost or vibration is turned off. */
+    public void stop(long nowMs) {
+        count(nowMs);
+        if (level != 0) {
+            level = 0;
+            output.stop();
+            calls++;
+        }
+    }
+
+    /** Vibrator calls actually made. */
+    public long getCallCount() {
+        return calls;
+    }
+
+    /** Vibrator calls a vibrate-or-cancel on every tick would have made. */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    public float getCallsPerMinute(long nowMs) {
+        return perMinute(calls, nowMs);
+    }
+
+    public float getRequestsPerMinute(long nowMs) {
+        return perMinute(requests, nowMs);
+    }
+
+    private void count(long nowMs) {
+        if (startMs < 0) {
+            startMs = nowMs;
+        }
+        requests++;
+    }
+
+    private float perMinute(long count, long nowMs) {
+        long elapsedMs = startMs < 0 ? 0 : nowMs - startMs;
+        return elapsedMs <= 0 ? 0f : count * 60_000f / elapsedMs;
+    }
+}
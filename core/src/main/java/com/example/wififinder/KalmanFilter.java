@@ -0,0 +1,47 @@
+package com.example.wififinder;
+
+/**
+ * One-dimensional Kalman filter with a constant-level model: the true RSSI
+ * drifts by {@code processNoise} per step and each sample carries
+ * {@code measurementNoise} of variance.
+ */
+public final class KalmanFilter implements RssiFilter {
+
+    private final float processNoise;
+    private final float measurementNoise;
+    private float estimate = Float.NaN;
+    private float errorCovariance;
+
+    public KalmanFilter(float processNoise, float measurementNoise) {
+        if (processNoise <= 0f || measurementNoise <= 0f) {
+            throw new IllegalArgumentException("noise variances must be positive");
+        }
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    @Override
+    public float update(float rssi) {
+        if (Float.isNaN(estimate)) {
+            estimate = rssi;
+            errorCovariance = measurementNoise;
+            return estimate;
+        }
+        float predictedCovariance = errorCovariance + processNoise;
+        float gain = predictedCovariance / (predictedCovariance + measurementNoise);
+        estimate += gain * (rssi - estimate);
+        errorCovariance = (1f - gain) * predictedCovariance;
+        return estimate;
+    }
+
+    @Override
+    public float value() {
+        return estimate;
+    }
+
+    @Override
+    public void reset() {
+        estimate = Float.NaN;
+        errorCovariance = 0f;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.wififinder;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity LRU cache from primitive {@code long} keys (usually
+ * {@link Bssid} keys) to objects. Entries live in preallocated arrays,
+ * linked most to least recently used and indexed by an open-addressing
+ * table, so neither a hit nor a put boxes or allocates. Null values are not
+ * allowed; {@link #get} returns null for a missing key. Not thread-safe.
+ */
+public final class LongLruCache<V> {
+
+    private static final int NONE = -1;
+
+    private final long[] keys;
+    private final Object[] values;
+    // Recency list over entry indexes: head is the most recently used
+    private final int[] newer;
+    private final int[] older;
+    // Entry index + 1 per slot, 0 for an empty slot
+    private final int[] table;
+    private final int mask;
+    private int size;
+    private int head = NONE;
+    private int tail = NONE;
+
+    public LongLruCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity " + capacity);
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+        newer = new int[capacity];
+        older = new int[capacity];
+        int slots = 2;
+        while (slots < capacity * 2) {
+            slots <<= 1;
+        }
+        table = new int[slots];
+        mask = slots - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Returns the value and marks the key most recently used. */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        int entry = table[slot] - 1;
+        moveToHead(entry);
+        return (V) values[entry];
+    }
+
+    /**
+     * Adds or replaces the value for the key, evicting the least recently
+     * used entry when the cache is full.
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            int entry = table[slot] - 1;
+            values[entry] = value;
+            moveToHead(entry);
+            return;
+        }
+
+        int entry;
+        if (size < keys.length) {
+            entry = size++;
+        } else {
+            entry = tail;
+            removeSlot(find(keys[entry]));
+            unlink(entry);
+        }
+        keys[entry] = key;
+        values[entry] = value;
+        slot = slotFor(key);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+        linkHead(entry);
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(values, null);
+        size = 0;
+        head = NONE;
+        tail = NONE;
+    }
+
+    private int find(long key) {
+        int slot = slotFor(key);
+        while (table[slot] != 0) {
+            if (keys[table[slot] - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward-shift deletion, as in LongObjectMap
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int home = slotFor(keys[table[next] - 1]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private void moveToHead(int entry) {
+        if (entry != head) {
+            unlink(entry);
+            linkHead(entry);
+        }
+    }
+
+    private void linkHead(int entry) {
+        newer[entry] = NONE;
+        older[entry] = head;
+        if (head != NONE) {
+            newer[head] = entry;
+        }
+        head = entry;
+        if (tail == NONE) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        if (newer[entry] != NONE) {
+            older[newer[entry]] = older[entry];
+        } else {
+            head = older[entry];
+        }
+        if (older[entry] != NONE) {
+            newer[older[entry]] = newer[entry];
+        } else {
+            tail = newer[entry];
+        }
+    }
+
+    private int slotFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
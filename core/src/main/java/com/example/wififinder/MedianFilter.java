@@ -0,0 +1,74 @@
+package com.example.wififinder;
+
+/**
+ * Median of the last N samples. Rejects single-sample spikes outright,
+ * which the averaging filters only dampen.
+ */
+public final class MedianFilter implements RssiFilter {
+
+    private final float[] window;
+    private final float[] sorted;
+    private int next = 0;
+    private int count = 0;
+    private float value = Float.NaN;
+
+    public MedianFilter(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        window = new float[size];
+        sorted = new float[size];
+    }
+
+    @Override
+    public float update(float rssi) {
+        if (count < window.length) {
+            window[next] = rssi;
+            insert(count, rssi);
+            count++;
+        } else {
+            float evicted = window[next];
+            window[next] = rssi;
+            replace(evicted, rssi);
+        }
+        next = (next + 1) % window.length;
+
+        int mid = count / 2;
+        value = (count % 2 == 1) ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2f;
+        return value;
+    }
+
+    @Override
+    public float value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        next = 0;
+        count = 0;
+        value = Float.NaN;
+    }
+
+    // Insertion into sorted[0..length), keeping it ordered
+    private void insert(int length, float sample) {
+        int i = length;
+        while (i > 0 && sorted[i - 1] > sample) {
+            sorted[i] = sorted[i - 1];
+            i--;
+        }
+        sorted[i] = sample;
+    }
+
+    private void replace(float evicted, float sample) {
+        int i = 0;
+        while (sorted[i] != evicted) {
+            i++;
+        }
+        // Close the gap, then insert the new sample
+        for (; i < count - 1; i++) {
+            sorted[i] = sorted[i + 1];
+        }
+        insert(count - 1, sample);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.wififinder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Follows several access points at once. Each new scan is walked once and
+ * every result is matched against the targets through a {@link Bssid}-keyed
+ * map, so a tick costs the same whether 1 or {@link #MAX_TARGETS} targets
+ * are followed. Targets are kept ranked by smoothed level, closest first.
+ * Not thread-safe; meant for the UI thread.
+ */
+public final class MultiTargetTracker {
+
+    public static final int MAX_TARGETS = 20;
+    /** Scans a target may be missing from before it is shown as out of range. */
+    static final int MAX_MISSED_SCANS = 3;
+
+    public static final class Target {
+        private final long bssidKey;
+        private String ssid;
+        private int level;
+        private float smoothedLevel;
+        private boolean inRange;
+        private int missedScans = MAX_MISSED_SCANS;
+
+        Target(long bssidKey, String ssid) {
+            this.bssidKey = bssidKey;
+            this.ssid = ssid;
+        }
+
+        public long getBssidKey() {
+            return bssidKey;
+        }
+
+        /** Last SSID seen, or the one given at start if never seen. */
+        public String getSsid() {
+            return ssid;
+        }
+
+        /** Last raw level, in dBm. */
+        public int getLevel() {
+            return level;
+        }
+
+        public float getSmoothedLevel() {
+            return smoothedLevel;
+        }
+
+        public boolean isInRange() {
+            return inRange;
+        }
+    }
+
+    private final Target[] targets;
+    private final Target[] ranked;
+    private final LongObjectMap<Target> byBssid;
+    private final RssiFilterBank filters;
+    private long lastGeneration = -1;
+
+    /**
+     * @param bssidKeys targets as {@link Bssid} keys; invalid and duplicate
+     *                  keys are skipped, and at most {@link #MAX_TARGETS} kept
+     * @param ssids     labels until a target is first seen; may be null
+     */
+    public MultiTargetTracker(long[] bssidKeys, String[] ssids, RssiFilterBank filters) {
+        this.filters = filters;
+        this.byBssid = new LongObjectMap<>(Math.min(bssidKeys.length, MAX_TARGETS));
+
+        Target[] accepted = new Target[Math.min(bssidKeys.length, MAX_TARGETS)];
+        int count = 0;
+        for (int i = 0; i < bssidKeys.length && count < accepted.length; i++) {
+            long key = bssidKeys[i];
+            if (!Bssid.isValid(key) || byBssid.containsKey(key)) {
+                continue;
+            }
+            String ssid = ssids != null && i < ssids.length ? ssids[i] : null;
+            Target target = new Target(key, ssid != null ? ssid : Bssid.format(key));
+            byBssid.put(key, target);
+            accepted[count++] = target;
+        }
+        this.targets = Arrays.copyOf(accepted, count);
+        this.ranked = targets.clone();
+    }
+
+    public int size() {
+        return targets.length;
+    }
+
+    /** @return the target at the rank, 0 being the closest */
+    public Target getRanked(int rank) {
+        return ranked[rank];
+    }
+
+    /** Re-arms every filter, e.g. after the smoothing type changed. */
+    public void resetFilters() {
+        for (Target target : targets) {
+            filters.reset(target.bssidKey);
+        }
+    }
+
+    /**
+     * Folds a scan into the targets.
+     *
+     * @return false if the scan was already applied and nothing changed
+     */
+    public boolean update(ScanStore.Snapshot scan) {
+        if (scan.getGeneration() == lastGeneration) {
+            return false;
+        }
+        lastGeneration = scan.getGeneration();
+
+        for (Target target : targets) {
+            target.missedScans++;
+        }
+
+        List<AccessPoint> results = scan.getResults();
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            Target target = byBssid.get(sr.getBssidKey());
+            if (target == null) {
+                continue;
+            }
+            target.missedScans = 0;
+            target.inRange = true;
+            target.level = sr.getLevel();
+            target.smoothedLevel = filters.update(target.bssidKey, sr.getLevel());
+            if (!sr.isHidden()) {
+                target.ssid = sr.getSsid();
+            }
+        }
+
+        for (Target target : targets) {
+            if (target.inRange && target.missedScans > MAX_MISSED_SCANS) {
+                target.inRange = false;
+                filters.reset(target.bssidKey);
+            }
+        }
+
+        rank();
+        return true;
+    }
+
+    // Insertion sort: the order barely changes between scans and there are few targets
+    private void rank() {
+        for (int i = 1; i < ranked.length; i++) {
+            Target t = ranked[i];
+            int j = i - 1;
+            while (j >= 0 && closer(t, ranked[j])) {
+                ranked[j + 1] = ranked[j];
+                j--;
+            }
+            ranked[j + 1] = t;
+        }
+    }
+
+    private static boolean closer(Target a, Target b) {
+        if (a.inRange != b.inRange) {
+            return a.inRange;
+        }
+        return a.inRange && a.smoothedLevel > b.smoothedLevel;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.wififinder;
+
+import java.util.Objects;
+
+/**
+ * Immutable per-row model for the network list. Copied out of a
+ * {@link AccessPoint} on the pipeline thread, with everything the row shows
+ * already resolved, so binding a row is a handful of setters.
+ */
+public final class NetworkRow {
+
+    private static final String DEFAULT_REASON = "SUSPICIOUS HOTSPOT";
+
+    private final String bssid;
+    private final long bssidKey;
+    private final String ssid;
+    private final int level;
+    private final boolean suspicious;
+    private final String suspicionReason;
+    private final String vendor;
+    private final SignalStyle style;
+
+    public NetworkRow(String bssid, String ssid, int level, boolean suspicious) {
+        this(bssid, ssid, level, suspicious ? DEFAULT_REASON : "");
+    }
+
+    /** @param suspicionReason why the network was flagged; empty if it was not */
+    public NetworkRow(String bssid, String ssid, int level, String suspicionReason) {
+        this(bssid, ssid, level, suspicionReason, null);
+    }
+
+    /** @param vendor manufacturer, e.g. from the app's OuiDatabase; null if unknown */
+    public NetworkRow(String bssid, String ssid, int level, String suspicionReason, String vendor) {
+        this(bssid, Bssid.parse(bssid), ssid, level, suspicionReason, vendor);
+    }
+
+    private NetworkRow(String bssid, long bssidKey, String ssid, int level,
+                       String suspicionReason, String vendor) {
+        this.bssid = bssid;
+        this.bssidKey = bssidKey;
+        this.ssid = ssid;
+        this.level = level;
+        this.suspicious = !suspicionReason.isEmpty();
+        this.suspicionReason = suspicionReason;
+        this.vendor = vendor;
+        this.style = SignalStyleTable.getDefault().get(level);
+    }
+
+    static NetworkRow from(AccessPoint sr, String suspicionReason, String vendor) {
+        String ssid = sr.isHidden() ? "<Hidden Network>" : sr.getSsid();
+        return new NetworkRow(sr.getBssid(), sr.getBssidKey(), ssid, sr.getLevel(),
+                suspicionReason, vendor);
+    }
+
+    public String getBssid() {
+        return bssid;
+    }
+
+    /** Parsed {@link Bssid} key used for identity and lookups. */
+    public long getBssidKey() {
+        return bssidKey;
+    }
+
+    /** SSID as shown to the user; hidden networks are already substituted. */
+    public String getSsid() {
+        return ssid;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isSuspicious() {
+        return suspicious;
+    }
+
+    /** Names of the rules that flagged the network; empty if none did. */
+    public String getSuspicionReason() {
+        return suspicionReason;
+    }
+
+    /** Manufacturer of the access point; null if unknown or randomized. */
+    public String getVendor() {
+        return vendor;
+    }
+
+    public String getLevelText() {
+        return style.getLevelText();
+    }
+
+    /** ARGB color for the signal strength text. */
+    public int getSignalColor() {
+        return style.getListColor();
+    }
+
+    /**
+     * True when both rows are the same access point. Keys are compared where
+     * they parsed; malformed BSSIDs all share {@link Bssid#INVALID}, so those
+     * fall back to the string.
+     */
+    boolean isSameNetwork(NetworkRow other) {
+        if (bssidKey != other.bssidKey) {
+            return false;
+        }
+        return Bssid.isValid(bssidKey) || Objects.equals(bssid, other.bssid);
+    }
+
+    /** True when a bound row would look the same for both models. */
+    boolean hasSameContents(NetworkRow other) {
+        return level == other.level
+                && suspicionReason.equals(other.suspicionReason)
+                && ssid.equals(other.ssid)
+                && Objects.equals(vendor, other.vendor);
+    }
+}
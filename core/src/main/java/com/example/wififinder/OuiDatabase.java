@@ -0,0 +1,130 @@
+package com.example.wififinder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vendor names for BSSIDs from the IEEE MA-L (OUI) registry. The app bundles
+ * it as an asset and memory-maps it (see OuiAsset); it is binary-searched in
+ * place, so opening it reads 8 bytes and only the names actually looked up
+ * are ever decoded. Resolved names are kept per BSSID in a small LRU.
+ *
+ * <p>Layout, big-endian: int magic, int count, then count entries of
+ * (int 24-bit prefix, int name offset) sorted by prefix, then the names as
+ * an unsigned length byte and UTF-8 bytes, each distinct name stored once.
+ * Offsets are from the start of the names. {@link OuiDatabaseBuilder}
+ * writes it.
+ */
+public final class OuiDatabase {
+
+    static final int MAGIC = 0x4F554931; // "OUI1"
+    static final int HEADER_SIZE = 8;
+    static final int ENTRY_SIZE = 8;
+    static final int CACHE_SIZE = 512;
+    // Cached for BSSIDs without a registered vendor, so misses are cached too
+    private static final String UNKNOWN = "";
+
+    /** No vendors at all; used when the database is missing or unreadable. */
+    public static final OuiDatabase EMPTY = new OuiDatabase();
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int namesStart;
+    private final LongLruCache<String> cache = new LongLruCache<>(CACHE_SIZE);
+    private long lookups = 0;
+    private long cacheHits = 0;
+
+    private OuiDatabase() {
+        buffer = null;
+        count = 0;
+        namesStart = HEADER_SIZE;
+    }
+
+    /**
+     * Reads a database from a buffer in the layout above, e.g. a mapped file.
+     * Only the header is read here.
+     *
+     * @throws IOException if the buffer does not hold a whole database
+     */
+    public OuiDatabase(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an OUI database");
+        }
+        int count = buffer.getInt(4);
+        if (count < 0 || HEADER_SIZE + (long) count * ENTRY_SIZE > buffer.limit()) {
+            throw new IOException("Truncated OUI database");
+        }
+        this.buffer = buffer;
+        this.count = count;
+        this.namesStart = HEADER_SIZE + count * ENTRY_SIZE;
+    }
+
+    /** Registered prefixes. */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Vendor of the access point, or null if its prefix is not registered or
+     * the BSSID is locally administered (randomized).
+     */
+    public String vendorOf(long bssidKey) {
+        if (!Bssid.isValid(bssidKey) || Bssid.isLocallyAdministered(bssidKey)) {
+            return null;
+        }
+        synchronized (cache) {
+            lookups++;
+            String name = cache.get(bssidKey);
+            if (name != null) {
+                cacheHits++;
+                return name.isEmpty() ? null : name;
+            }
+        }
+        String name = lookup(Bssid.oui(bssidKey));
+        synchronized (cache) {
+            cache.put(bssidKey, name == null ? UNKNOWN : name);
+        }
+        return name;
+    }
+
+    /** Vendor registered for the 24-bit prefix, or null. Decodes on every call. */
+    public String lookup(int oui) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int prefix = buffer.getInt(HEADER_SIZE + mid * ENTRY_SIZE);
+            if (prefix < oui) {
+                low = mid + 1;
+            } else if (prefix > oui) {
+                high = mid - 1;
+            } else {
+                return nameAt(buffer.getInt(HEADER_SIZE + mid * ENTRY_SIZE + 4));
+            }
+        }
+        return null;
+    }
+
+    public long getLookups() {
+        synchronized (cache) {
+            return lookups;
+        }
+    }
+
+    public long getCacheHits() {
+        synchronized (cache) {
+            return cacheHits;
+        }
+    }
+
+    private String nameAt(int offset) {
+        int position = namesStart + offset;
+        int length = buffer.get(position) & 0xFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.wififinder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Writes vendor prefixes in the {@link OuiDatabase} layout. The app's build
+ * runs {@link #main} to turn the IEEE registry into its asset.
+ */
+public final class OuiDatabaseBuilder {
+
+    // Names are stored behind a length byte
+    static final int MAX_NAME_BYTES = 255;
+
+    private OuiDatabaseBuilder() {
+    }
+
+    /**
+     * Builds a database file from the registry.
+     *
+     * @param args the registry CSV, as a URL or a path, and the file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: OuiDatabaseBuilder <oui.csv URL or path> <output>");
+        }
+        TreeMap<Integer, String> vendors;
+        try (InputStream in = args[0].contains("://")
+                ? new URL(args[0]).openStream() : new FileInputStream(args[0])) {
+            vendors = parseCsv(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        if (vendors.isEmpty()) {
+            throw new IOException("No MA-L assignments in " + args[0]);
+        }
+        File output = new File(args[1]);
+        File parent = output.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            out.write(build(vendors));
+        }
+        System.out.println("Wrote " + vendors.size() + " prefixes to " + output);
+    }
+
+    /**
+     * Reads the MA-L rows of the registry CSV (Registry, Assignment,
+     * Organization Name, Organization Address). Fields may be quoted, with
+     * commas, line breaks and doubled quotes inside.
+     */
+    public static TreeMap<Integer, String> parseCsv(Reader reader) throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        BufferedReader in = new BufferedReader(reader);
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                in.mark(1);
+                if (in.read() == '"') {
+                    field.append('"');
+                } else {
+                    in.reset();
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                row.add(field.toString());
+                field.setLength(0);
+                addRow(vendors, row);
+                row.clear();
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (field.length() > 0 || !row.isEmpty()) {
+            row.add(field.toString());
+            addRow(vendors, row);
+        }
+        return vendors;
+    }
+
+    private static void addRow(Map<Integer, String> vendors, List<String> row) {
+        if (row.size() >= 3 && row.get(0).equals("MA-L") && row.get(1).matches("[0-9A-Fa-f]{6}")) {
+            vendors.put(Integer.parseInt(row.get(1), 16), row.get(2).trim());
+        }
+    }
+
+    /**
+     * @param vendors vendor name per 24-bit prefix. Names longer than
+     *                {@value #MAX_NAME_BYTES} UTF-8 bytes are cut at a
+     *                character boundary.
+     */
+    public static byte[] build(SortedMap<Integer, String> vendors) {
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        Map<String, Integer> offsets = new HashMap<>();
+        for (String name : vendors.values()) {
+            if (!offsets.containsKey(name)) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(bytes.length, MAX_NAME_BYTES);
+                // Back off continuation bytes so no character is split
+                while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+                    length--;
+                }
+                offsets.put(name, names.size());
+                names.write(length);
+                names.write(bytes, 0, length);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                OuiDatabase.HEADER_SIZE + vendors.size() * OuiDatabase.ENTRY_SIZE + names.size());
+        try (DataOutputStream data = new DataOutputStream(out)) {
+            data.writeInt(OuiDatabase.MAGIC);
+            data.writeInt(vendors.size());
+            for (Map.Entry<Integer, String> e : vendors.entrySet()) {
+                data.writeInt(e.getKey());
+                data.writeInt(offsets.get(e.getValue()));
+            }
+            names.writeTo(data);
+        } catch (IOException e) {
+            throw new AssertionError("In-memory write failed", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.wififinder;
+
+/**
+ * Least-squares fit of a {@link PathLossModel} to (distance, RSSI) samples.
+ * With x = -10 * log10(d) the model is linear, RSSI = rssiAt1m + n * x, so
+ * both parameters fall out of an ordinary regression.
+ */
+public final class PathLossFitter {
+
+    // Exponents outside this range mean the capture was not a clean walk
+    private static final double MIN_EXPONENT = 1.0;
+    private static final double MAX_EXPONENT = 6.0;
+
+    private int count;
+    private double sumX;
+    private double sumY;
+    private double sumXX;
+    private double sumXY;
+    private double minDistance = Double.MAX_VALUE;
+    private double maxDistance = 0;
+
+    public void addSample(double distanceMeters, double rssi) {
+        if (!(distanceMeters > 0)) {
+            throw new IllegalArgumentException("Distance must be positive: " + distanceMeters);
+        }
+        double x = -10.0 * Math.log10(distanceMeters);
+        count++;
+        sumX += x;
+        sumY += rssi;
+        sumXX += x * x;
+        sumXY += x * rssi;
+        minDistance = Math.min(minDistance, distanceMeters);
+        maxDistance = Math.max(maxDistance, distanceMeters);
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Fits both parameters. Samples taken only at one distance fix the
+     * reference power and keep the given fallback exponent.
+     *
+     * @throws IllegalStateException if there are no samples or the fitted
+     *                               exponent is not physically plausible
+     */
+    public PathLossModel fit(double fallbackExponent) {
+        if (count == 0) {
+            throw new IllegalStateException("No calibration samples");
+        }
+
+        double meanX = sumX / count;
+        double meanY = sumY / count;
+
+        if (maxDistance / minDistance < 1.5) {
+            // Single distance: solve for the reference power only
+            return new PathLossModel(meanY - fallbackExponent * meanX, fallbackExponent);
+        }
+
+        double varianceX = sumXX - count * meanX * meanX;
+        double exponent = (sumXY - count * meanX * meanY) / varianceX;
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            throw new IllegalStateException(String.format(
+                    "Fitted exponent %.2f is implausible, repeat the capture", exponent));
+        }
+        return new PathLossModel(meanY - exponent * meanX, exponent);
+    }
+
+    public void reset() {
+        count = 0;
+        sumX = sumY = sumXX = sumXY = 0;
+        minDistance = Double.MAX_VALUE;
+        maxDistance = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.wififinder;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Log-distance path loss: RSSI = rssiAt1m - 10 * n * log10(d).
+ */
+public final class PathLossModel {
+
+    public static final PathLossModel DEFAULT = new PathLossModel(
+            SignalStyleTable.DEFAULT_RSSI_AT_1M, SignalStyleTable.DEFAULT_PATH_LOSS_EXPONENT);
+
+    private final double rssiAt1m;
+    private final double exponent;
+
+    public PathLossModel(double rssiAt1m, double exponent) {
+        if (!(exponent > 0) || Double.isInfinite(exponent) || Double.isNaN(rssiAt1m)) {
+            throw new IllegalArgumentException("Invalid path loss model: "
+                    + rssiAt1m + " dBm, n=" + exponent);
+        }
+        this.rssiAt1m = rssiAt1m;
+        this.exponent = exponent;
+    }
+
+    public double getRssiAt1m() {
+        return rssiAt1m;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    public double distanceMeters(double rssi) {
+        return Math.pow(10, (rssiAt1m - rssi) / (10.0 * exponent));
+    }
+
+    public double rssiAt(double distanceMeters) {
+        return rssiAt1m - 10.0 * exponent * Math.log10(distanceMeters);
+    }
+
+    /**
+     * Parameter-wise mean of several fits, e.g. every calibrated AP on a band.
+     *
+     * @return the mean, or null if there are no models
+     */
+    public static PathLossModel mean(Collection<PathLossModel> models) {
+        if (models.isEmpty()) {
+            return null;
+        }
+        double rssiAt1m = 0;
+        double exponent = 0;
+        for (PathLossModel model : models) {
+            rssiAt1m += model.rssiAt1m;
+            exponent += model.exponent;
+        }
+        return new PathLossModel(rssiAt1m / models.size(), exponent / models.size());
+    }
+
+    /** Compact form used for persistence, e.g. {@code -41.3,2.70}. */
+    public String encode() {
+        return String.format(Locale.US, "%.2f,%.3f", rssiAt1m, exponent);
+    }
+
+    /** @return the decoded model, or null if the text is not a valid encoding */
+    public static PathLossModel decode(String text) {
+        if (text == null) {
+            return null;
+        }
+        int comma = text.indexOf(',');
+        if (comma < 0) {
+            return null;
+        }
+        try {
+            return new PathLossModel(Double.parseDouble(text.substring(0, comma)),
+                    Double.parseDouble(text.substring(comma + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PathLossModel)) {
+            return false;
+        }
+        PathLossModel other = (PathLossModel) o;
+        return rssiAt1m == other.rssiAt1m && exponent == other.exponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(rssiAt1m) * 31 + Double.hashCode(exponent);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.wififinder;
+
+/**
+ * Poll interval for the fallback refresh loop. Doubles every time a poll
+ * finds nothing new and drops back to the minimum as soon as something
+ * changes, so an idle list costs a handful of wakeups per minute.
+ */
+public final class RefreshBackoff {
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private long intervalMs;
+
+    public RefreshBackoff(long minIntervalMs, long maxIntervalMs) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("Invalid interval range");
+        }
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.intervalMs = minIntervalMs;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public void onChanged() {
+        intervalMs = minIntervalMs;
+    }
+
+    public void onUnchanged() {
+        intervalMs = Math.min(maxIntervalMs, intervalMs * 2);
+    }
+}
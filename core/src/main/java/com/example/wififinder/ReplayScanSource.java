@@ -0,0 +1,69 @@
+package com.example.wififinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plays a recorded history log back one scan at a time. A scan ends at the
+ * next record marked as a scan start, or, in logs written before scans were
+ * marked, where a BSSID shows up a second time. Capabilities are not
+ * recorded, so replayed access points have none.
+ */
+public final class ReplayScanSource implements ScanSource {
+
+    private final ScanHistoryReader reader;
+    private int next = 0;
+    private List<AccessPoint> current = Collections.emptyList();
+    private int scanCount = 0;
+
+    public ReplayScanSource(ScanHistoryReader reader) {
+        this.reader = reader;
+    }
+
+    /** Moves to the next recorded scan; false once the log is used up. */
+    @Override
+    public boolean startScan() {
+        if (next >= reader.size()) {
+            return false;
+        }
+        List<AccessPoint> scan = new ArrayList<>();
+        LongObjectMap<AccessPoint> seen = new LongObjectMap<>();
+        while (next < reader.size() && !seen.containsKey(reader.bssidAt(next))
+                && (scan.isEmpty() || !reader.isScanStartAt(next))) {
+            long key = reader.bssidAt(next);
+            AccessPoint ap = new AccessPoint(Bssid.format(key), reader.ssidAt(next), "",
+                    reader.levelAt(next), reader.frequencyAt(next), reader.timestampAt(next),
+                    reader.channelWidthAt(next), 0, 0);
+            seen.put(key, ap);
+            scan.add(ap);
+            next++;
+        }
+        current = Collections.unmodifiableList(scan);
+        scanCount++;
+        return true;
+    }
+
+    @Override
+    public List<AccessPoint> getScanResults() {
+        return current;
+    }
+
+    public boolean hasNext() {
+        return next < reader.size();
+    }
+
+    /** Scans replayed so far. */
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    /** Time of the newest record in the current scan, or 0 before the first. */
+    public long getTimeMs() {
+        long newest = 0;
+        for (int i = 0; i < current.size(); i++) {
+            newest = Math.max(newest, current.get(i).getTimestampMs());
+        }
+        return newest;
+    }
+}
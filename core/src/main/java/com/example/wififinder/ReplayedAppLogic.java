@@ -0,0 +1,135 @@
+package com.example.wififinder;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The scan logic of the app, wired as the app wires it, for a
+ * {@link TraceReplayer} to drive: a {@link ScanStore} with the signal
+ * history and channel analyzer listening, the list {@link ScanPipeline}
+ * reading it, and a {@link TrackerTick} on one access point fed by the
+ * connection polls. Everything runs on the replaying thread.
+ */
+public final class ReplayedAppLogic implements TraceReplayer.Listener, Closeable {
+
+    /** A vibrator that does nothing. */
+    public static final HapticEngine.Output NO_VIBRATOR = new HapticEngine.Output() {
+        @Override
+        public void play(HapticEngine.Mode mode, int level) {
+        }
+
+        @Override
+        public void stop() {
+        }
+    };
+
+    /** A tracker screen that shows nothing. */
+    public static final TrackerTick.Display NO_DISPLAY = new TrackerTick.Display() {
+        @Override
+        public void showRssiValue(String text) {
+        }
+
+        @Override
+        public void showDistance(String text) {
+        }
+
+        @Override
+        public void showQuality(String text) {
+        }
+
+        @Override
+        public void showQualityColor(int color) {
+        }
+
+        @Override
+        public void showCircle(int fillColor, int strokeColor) {
+        }
+    };
+
+    private final long targetBssidKey;
+    private final ScanStore store = new ScanStore();
+    private final SignalHistory history = new SignalHistory();
+    private final ChannelAnalyzer analyzer = new ChannelAnalyzer();
+    private final ScanPipeline pipeline;
+    private final ScanPipeline.Listener listener;
+    private final TrackerTick tick;
+    private long snapshots = 0;
+
+    /** Tracks the target with nothing to show or vibrate. */
+    public ReplayedAppLogic(long targetBssidKey) {
+        this(targetBssidKey, new HapticEngine(NO_VIBRATOR, HapticEngine.Mode.AMPLITUDE), NO_DISPLAY,
+                snapshot -> {
+                });
+    }
+
+    /**
+     * @param listener told of every list snapshot the pipeline publishes,
+     *                 after the store's listeners have seen the scan
+     */
+    public ReplayedAppLogic(long targetBssidKey, HapticEngine haptics, TrackerTick.Display display,
+                            ScanPipeline.Listener listener) {
+        this.targetBssidKey = targetBssidKey;
+        this.listener = listener;
+        store.addListener(history);
+        store.addListener(analyzer::update);
+        pipeline = new ScanPipeline(ScanPipeline.Environment.alwaysOn(store::current),
+                Runnable::run, listener);
+        tick = new TrackerTick(targetBssidKey, new RssiFilterBank(RssiFilterBank.Type.KALMAN),
+                haptics, display);
+    }
+
+    @Override
+    public void onScanAvailable(long timeMs, boolean updated) {
+        // The results that follow are what the app reads
+    }
+
+    @Override
+    public void onScanResults(long timeMs, List<AccessPoint> results) {
+        store.update(results, timeMs);
+        ScanSnapshot snapshot = pipeline.process();
+        if (snapshot != null) {
+            snapshots++;
+            listener.onSnapshot(snapshot);
+        }
+    }
+
+    @Override
+    public void onRssiPoll(long timeMs, long bssidKey, int rssi) {
+        if (bssidKey == targetBssidKey) {
+            tick.onSample(rssi, timeMs);
+        } else {
+            tick.onLost(timeMs);
+        }
+    }
+
+    public long getTargetBssidKey() {
+        return targetBssidKey;
+    }
+
+    public ScanStore getStore() {
+        return store;
+    }
+
+    public SignalHistory getHistory() {
+        return history;
+    }
+
+    public ChannelAnalyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public TrackerTick getTick() {
+        return tick;
+    }
+
+    /** List snapshots the pipeline published. */
+    public long getSnapshotCount() {
+        return snapshots;
+    }
+
+    /** Stops the pipeline's thread. */
+    @Override
+    public void close() {
+        pipeline.shutdown();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.wififinder;
+
+/**
+ * Smooths a stream of RSSI samples from one access point. Implementations
+ * use constant memory and do not allocate in {@link #update}.
+ */
+public interface RssiFilter {
+
+    /** Feeds one sample in dBm and returns the smoothed estimate. */
+    float update(float rssi);
+
+    /** Current estimate, or {@link Float#NaN} before the first sample. */
+    float value();
+
+    void reset();
+}
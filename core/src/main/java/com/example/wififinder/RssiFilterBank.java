@@ -0,0 +1,79 @@
+package com.example.wififinder;
+
+/**
+ * Keeps one {@link RssiFilter} per access point, all of the selected
+ * {@link Type}. Switching type drops the existing state.
+ */
+public final class RssiFilterBank {
+
+    public enum Type {
+        NONE("Raw"),
+        EWMA("EWMA"),
+        KALMAN("Kalman"),
+        MEDIAN("Median");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Type next() {
+            Type[] types = values();
+            return types[(ordinal() + 1) % types.length];
+        }
+
+        RssiFilter create() {
+            switch (this) {
+                case EWMA:
+                    return new EwmaFilter(0.3f);
+                case KALMAN:
+                    return new KalmanFilter(0.5f, 16f);
+                case MEDIAN:
+                    return new MedianFilter(5);
+                default:
+                    return new EwmaFilter(1f);
+            }
+        }
+    }
+
+    private final LongObjectMap<RssiFilter> filters = new LongObjectMap<>();
+    private Type type;
+
+    public RssiFilterBank(Type type) {
+        this.type = type;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        if (this.type != type) {
+            this.type = type;
+            filters.clear();
+        }
+    }
+
+    /** Feeds a sample for the {@link Bssid} key and returns its smoothed value. */
+    public float update(long bssidKey, int rssi) {
+        RssiFilter filter = filters.get(bssidKey);
+        if (filter == null) {
+            filter = type.create();
+            filters.put(bssidKey, filter);
+        }
+        return filter.update(rssi);
+    }
+
+    /** Forgets an access point, e.g. after it dropped out of range. */
+    public void reset(long bssidKey) {
+        RssiFilter filter = filters.get(bssidKey);
+        if (filter != null) {
+            filter.reset();
+        }
+    }
+}
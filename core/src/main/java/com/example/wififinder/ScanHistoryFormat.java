@@ -0,0 +1,46 @@
+package com.example.wififinder;
+
+/**
+ * On-disk layout shared by {@link ScanHistoryWriter} and
+ * {@link ScanHistoryReader}.
+ *
+ * <p>{@code scans.log} is an 8-byte header followed by fixed-width,
+ * big-endian records:
+ * <pre>
+ *   0  long   timestamp (ms since epoch)
+ *   8  6 B    BSSID
+ *  14  int    SSID dictionary id
+ *  18  short  level (dBm)
+ *  20  short  frequency (MHz)
+ *  22  byte   channel width (AccessPoint.CHANNEL_WIDTH_*)
+ *  23  byte   flags: FLAG_SCAN_START on the first record of a scan
+ * </pre>
+ * {@code ssids.dict} is an 8-byte header followed by entries of a 2-byte
+ * length and that many UTF-8 bytes; an entry's id is its position.
+ */
+final class ScanHistoryFormat {
+
+    static final String LOG_FILE = "scans.log";
+    static final String DICTIONARY_FILE = "ssids.dict";
+
+    static final int LOG_MAGIC = 0x57464C47;        // "WFLG"
+    static final int DICTIONARY_MAGIC = 0x57464443; // "WFDC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final int RECORD_SIZE = 24;
+    static final int OFFSET_TIMESTAMP = 0;
+    static final int OFFSET_BSSID = 8;
+    static final int OFFSET_SSID = 14;
+    static final int OFFSET_LEVEL = 18;
+    static final int OFFSET_FREQUENCY = 20;
+    static final int OFFSET_CHANNEL_WIDTH = 22;
+    static final int OFFSET_FLAGS = 23;
+
+    static final int FLAG_SCAN_START = 1;
+
+    static final int MAX_SSID_BYTES = 0xFFFF;
+
+    private ScanHistoryFormat() {
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.wififinder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.wififinder.ScanHistoryFormat.*;
+
+/**
+ * Random access over a recorded history log. The log is memory-mapped, so
+ * replaying it costs page faults rather than read calls, and records are
+ * decoded in place by index.
+ */
+public final class ScanHistoryReader {
+
+    private final ByteBuffer log;
+    private final String[] ssids;
+    private final int size;
+
+    private ScanHistoryReader(ByteBuffer log, String[] ssids) {
+        this.log = log;
+        this.ssids = ssids;
+        // A torn record at the tail is ignored
+        this.size = (log.limit() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /** Maps the log in the directory as it is now; later appends are not seen. */
+    public static ScanHistoryReader open(File directory) throws IOException {
+        File logFile = new File(directory, LOG_FILE);
+        ByteBuffer log;
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "r");
+             FileChannel channel = file.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (log.limit() < HEADER_SIZE || log.getInt(0) != LOG_MAGIC
+                || log.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " history file: " + logFile);
+        }
+
+        List<String> dictionary = readDictionary(new File(directory, DICTIONARY_FILE));
+        return new ScanHistoryReader(log, dictionary.toArray(new String[0]));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timestampAt(int index) {
+        return log.getLong(offset(index) + OFFSET_TIMESTAMP);
+    }
+
+    /** @return the {@link Bssid} key of the record */
+    public long bssidAt(int index) {
+        int at = offset(index) + OFFSET_BSSID;
+        return ((long) (log.getShort(at) & 0xFFFF) << 32) | (log.getInt(at + 2) & 0xFFFFFFFFL);
+    }
+
+    /** @return the SSID, or an empty string for hidden networks */
+    public String ssidAt(int index) {
+        int id = log.getInt(offset(index) + OFFSET_SSID);
+        return id >= 0 && id < ssids.length ? ssids[id] : "";
+    }
+
+    public int levelAt(int index) {
+        return log.getShort(offset(index) + OFFSET_LEVEL);
+    }
+
+    public int frequencyAt(int index) {
+        return log.getShort(offset(index) + OFFSET_FREQUENCY) & 0xFFFF;
+    }
+
+    public int channelWidthAt(int index) {
+        return log.get(offset(index) + OFFSET_CHANNEL_WIDTH);
+    }
+
+    /** True if the record starts a scan; logs written before scans were marked have none. */
+    public boolean isScanStartAt(int index) {
+        return (log.get(offset(index) + OFFSET_FLAGS) & FLAG_SCAN_START) != 0;
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /** Reads every complete dictionary entry, in id order. */
+    static List<String> readDictionary(File file) throws IOException {
+        List<String> ssids = new ArrayList<>();
+        if (!file.exists()) {
+            return ssids;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.skipBytes(HEADER_SIZE) < HEADER_SIZE) {
+                return ssids;
+            }
+            while (true) {
+                int length;
+                byte[] bytes;
+                try {
+                    length = in.readUnsignedShort();
+                    bytes = new byte[length];
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    // End of file, or an entry torn by a crash
+                    break;
+                }
+                ssids.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return ssids;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.wififinder;
+
+import java.util.List;
+
+/**
+ * Feeds every new scan generation into the history log. Runs on whichever
+ * thread updated the {@link ScanStore}; the writer only buffers, so this
+ * never waits on disk.
+ */
+public final class ScanHistoryRecorder implements ScanStore.Listener {
+
+    private final ScanHistoryWriter writer;
+
+    public ScanHistoryRecorder(ScanHistoryWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void onNewGeneration(ScanStore.Snapshot snapshot) {
+        List<AccessPoint> results = snapshot.getResults();
+        boolean first = true;
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            long key = sr.getBssidKey();
+            if (!Bssid.isValid(key)) {
+                continue;
+            }
+            writer.append(sr.getTimestampMs(), key, sr.getSsid(),
+                    sr.getLevel(), sr.getFrequency(), sr.getChannelWidth(), first);
+            first = false;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.wififinder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.example.wififinder.ScanHistoryFormat.*;
+
+/**
+ * Appends scan records to the history log on its own thread. Callers only
+ * copy a record into an in-memory buffer; the writer thread swaps buffers,
+ * writes them out in one call, and fsyncs at most every few seconds.
+ */
+public class ScanHistoryWriter implements Closeable {
+
+    private static final String TAG = "ScanHistoryWriter";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    private static final int BUFFER_RECORDS = 4096;
+    private static final int DICTIONARY_BUFFER_SIZE = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final long SYNC_INTERVAL_MS = 5000;
+
+    private final Object lock = new Object();
+    private final FileChannel logChannel;
+    private final FileChannel dictionaryChannel;
+    private final Map<String, Integer> ssidIds = new HashMap<>();
+    private final Thread thread;
+    private final AtomicLong recordsWritten = new AtomicLong();
+
+    // Guarded by lock
+    private ByteBuffer records = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private ByteBuffer spareRecords = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private ByteBuffer dictionary = ByteBuffer.allocate(DICTIONARY_BUFFER_SIZE);
+    private ByteBuffer spareDictionary = ByteBuffer.allocate(DICTIONARY_BUFFER_SIZE);
+    private boolean closed = false;
+
+    private IOException failure;
+
+    public ScanHistoryWriter(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        dictionaryChannel = openDictionary(new File(directory, DICTIONARY_FILE));
+        logChannel = openLog(new File(directory, LOG_FILE));
+
+        thread = new Thread(this::run, TAG);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues one record. Blocks only if the writer has fallen a full buffer
+     * behind; records offered after {@link #close} are dropped.
+     */
+    public void append(long timestampMs, long bssidKey, String ssid,
+                       int level, int frequency, int channelWidth) {
+        append(timestampMs, bssidKey, ssid, level, frequency, channelWidth, false);
+    }
+
+    /** @param scanStart true for the first record of a scan, so replay can tell scans apart */
+    public void append(long timestampMs, long bssidKey, String ssid,
+                       int level, int frequency, int channelWidth, boolean scanStart) {
+        byte[] ssidBytes = null;
+        synchronized (lock) {
+            Integer id = ssidIds.get(ssid == null ? "" : ssid);
+            if (id == null) {
+                ssidBytes = (ssid == null ? "" : ssid).getBytes(StandardCharsets.UTF_8);
+                if (ssidBytes.length > MAX_SSID_BYTES) {
+                    throw new IllegalArgumentException("SSID too long");
+                }
+            }
+            int dictionaryBytes = ssidBytes == null ? 0 : 2 + ssidBytes.length;
+
+            while (!closed && (records.remaining() < RECORD_SIZE
+                    || dictionary.remaining() < dictionaryBytes)) {
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (closed) {
+                return;
+            }
+
+            if (id == null) {
+                id = ssidIds.size();
+                ssidIds.put(ssid == null ? "" : ssid, id);
+                dictionary.putShort((short) ssidBytes.length).put(ssidBytes);
+            }
+
+            records.putLong(timestampMs);
+            records.putShort((short) (bssidKey >>> 32)).putInt((int) bssidKey);
+            records.putInt(id);
+            records.putShort((short) level);
+            records.putShort((short) frequency);
+            records.put((byte) channelWidth);
+            records.put((byte) (scanStart ? FLAG_SCAN_START : 0));
+
+            if (records.position() >= records.capacity() / 2) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /** Records durably handed to the file system so far. */
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    /** Writes out everything queued so far, fsyncs and stops the writer thread. */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logChannel.close();
+        dictionaryChannel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void run() {
+        long lastSync = System.nanoTime();
+        boolean done = false;
+
+        while (!done) {
+            ByteBuffer pendingRecords;
+            ByteBuffer pendingDictionary;
+            synchronized (lock) {
+                if (!closed && records.position() < records.capacity() / 2) {
+                    try {
+                        lock.wait(FLUSH_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                done = closed;
+
+                pendingRecords = records;
+                records = spareRecords;
+                spareRecords = pendingRecords;
+                pendingDictionary = dictionary;
+                dictionary = spareDictionary;
+                spareDictionary = pendingDictionary;
+                lock.notifyAll();
+            }
+
+            try {
+                int count = pendingRecords.position() / RECORD_SIZE;
+                // Dictionary first, so a record never names an id missing on disk
+                writeFully(dictionaryChannel, pendingDictionary);
+                writeFully(logChannel, pendingRecords);
+                recordsWritten.addAndGet(count);
+
+                long now = System.nanoTime();
+                if (done || (count > 0 && now - lastSync >= SYNC_INTERVAL_MS * 1_000_000L)) {
+                    dictionaryChannel.force(false);
+                    logChannel.force(false);
+                    lastSync = now;
+                }
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "run: Write failed, history recording stopped", e);
+                failure = e;
+                synchronized (lock) {
+                    closed = true;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static FileChannel openLog(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            writeHeader(channel, LOG_MAGIC);
+        } else {
+            checkHeader(channel, LOG_MAGIC, file);
+            // Drop a record torn by a crash mid-write
+            long complete = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+            channel.truncate(complete);
+        }
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private FileChannel openDictionary(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(channel, DICTIONARY_MAGIC);
+        } else {
+            checkHeader(channel, DICTIONARY_MAGIC, file);
+            long complete = HEADER_SIZE;
+            for (String ssid : ScanHistoryReader.readDictionary(file)) {
+                ssidIds.put(ssid, ssidIds.size());
+                complete += 2 + ssid.getBytes(StandardCharsets.UTF_8).length;
+            }
+            channel.truncate(complete);
+        }
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static void writeHeader(FileChannel channel, int magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(magic).putInt(VERSION);
+        channel.truncate(0);
+        channel.position(0);
+        writeFully(channel, header);
+    }
+
+    private static void checkHeader(FileChannel channel, int magic, File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != magic || header.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " history file: " + file);
+        }
+    }
+}
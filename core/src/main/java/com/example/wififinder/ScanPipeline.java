@@ -0,0 +1,257 @@
+package com.example.wififinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fetches, classifies and sorts scan results on a single background thread,
+ * then publishes one immutable {@link ScanSnapshot} through the UI executor.
+ */
+public class ScanPipeline {
+
+    private static final String TAG = "ScanPipeline";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    /** Everything the pipeline needs from the platform. Called on the pipeline thread. */
+    public interface Environment {
+        boolean isWifiEnabled();
+
+        boolean hasLocationPermission();
+
+        boolean isLocationEnabled();
+
+        /** Latest scan, as recorded in the {@link ScanStore}. */
+        ScanStore.Snapshot fetchScan();
+
+        /** Manufacturer of the access point, or null if unknown. */
+        default String vendorOf(long bssidKey) {
+            return null;
+        }
+
+        /**
+         * Wi-Fi on and location allowed, as on a device ready to scan: for
+         * replays, tests and benchmarks.
+         */
+        static Environment alwaysOn(final Supplier<ScanStore.Snapshot> scans) {
+            return new Environment() {
+                @Override
+                public boolean isWifiEnabled() {
+                    return true;
+                }
+
+                @Override
+                public boolean hasLocationPermission() {
+                    return true;
+                }
+
+                @Override
+                public boolean isLocationEnabled() {
+                    return true;
+                }
+
+                @Override
+                public ScanStore.Snapshot fetchScan() {
+                    return scans.get();
+                }
+            };
+        }
+    }
+
+    public interface Listener {
+        void onSnapshot(ScanSnapshot snapshot);
+
+        /** The refresh found the same scan generation that was last published. */
+        default void onUnchanged() {
+        }
+    }
+
+    private static final Comparator<AccessPoint> BY_LEVEL_DESC = new Comparator<AccessPoint>() {
+        @Override
+        public int compare(AccessPoint a, AccessPoint b) {
+            return Integer.compare(b.getLevel(), a.getLevel());
+        }
+    };
+
+    private final Environment environment;
+    private final Executor uiExecutor;
+    private final Listener listener;
+    private final ExecutorService executor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong unchangedCount = new AtomicLong();
+    private final SuspicionMonitor suspicionMonitor;
+
+    // Only touched on the pipeline thread
+    private long publishedGeneration = -1;
+
+    public ScanPipeline(Environment environment, Executor uiExecutor, Listener listener) {
+        this(environment, uiExecutor, listener, SuspicionEngine.withDefaultRules());
+    }
+
+    /** Evaluates scans with its own engine, so rule state lives as long as the pipeline. */
+    public ScanPipeline(Environment environment, Executor uiExecutor, Listener listener,
+                        SuspicionEngine suspicionEngine) {
+        this(environment, uiExecutor, listener, new SuspicionMonitor(suspicionEngine));
+    }
+
+    /** Reads verdicts from a monitor that may outlive the pipeline and see scans it never fetches. */
+    public ScanPipeline(Environment environment, Executor uiExecutor, Listener listener,
+                        SuspicionMonitor suspicionMonitor) {
+        this.environment = environment;
+        this.suspicionMonitor = suspicionMonitor;
+        this.uiExecutor = uiExecutor;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, TAG);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules a refresh. Requests arriving while one is still queued are
+     * folded into it, so a slow pass never builds up a backlog.
+     */
+    public void requestRefresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            LOG.finest("requestRefresh: Refresh already queued");
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refreshPending.set(false);
+                    refreshCount.incrementAndGet();
+                    final ScanSnapshot snapshot = process();
+                    if (snapshot == null) {
+                        unchangedCount.incrementAndGet();
+                        uiExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                listener.onUnchanged();
+                            }
+                        });
+                        return;
+                    }
+                    uiExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onSnapshot(snapshot);
+                        }
+                    });
+                }
+            });
+        } catch (Exception e) {
+            refreshPending.set(false);
+            LOG.warning("requestRefresh: Pipeline is shut down");
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Refreshes that ran on the pipeline thread. */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /** Refreshes that found an already-published scan and skipped all work. */
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /** Rule hit counters and timings; safe to read from any thread. */
+    public SuspicionEngine getSuspicionEngine() {
+        return suspicionMonitor.getEngine();
+    }
+
+    /** @return the new snapshot, or null when the scan has not changed since the last one */
+    ScanSnapshot process() {
+        LOG.fine("process: Retrieving scan results");
+
+        ScanSnapshot snapshot = build();
+        if (snapshot != null && snapshot.getStatus() != ScanSnapshot.Status.OK
+                && snapshot.getStatus() != ScanSnapshot.Status.NO_NETWORKS) {
+            // Publish the next good scan even if its generation was seen before
+            publishedGeneration = -1;
+        }
+        return snapshot;
+    }
+
+    private ScanSnapshot build() {
+        try {
+            if (!environment.isWifiEnabled()) {
+                return ScanSnapshot.failure(ScanSnapshot.Status.WIFI_DISABLED, "Wi-Fi is OFF");
+            }
+
+            if (!environment.hasLocationPermission()) {
+                return ScanSnapshot.failure(ScanSnapshot.Status.PERMISSION_DENIED,
+                        "Location permission denied");
+            }
+
+            if (!environment.isLocationEnabled()) {
+                return ScanSnapshot.failure(ScanSnapshot.Status.LOCATION_DISABLED,
+                        "Location services OFF");
+            }
+
+            ScanStore.Snapshot scan = environment.fetchScan();
+            if (scan.getGeneration() == publishedGeneration) {
+                LOG.finest("process: Scan generation " + publishedGeneration + " already published");
+                return null;
+            }
+            publishedGeneration = scan.getGeneration();
+
+            List<AccessPoint> results = scan.getResults();
+
+            if (results.isEmpty()) {
+                return ScanSnapshot.failure(ScanSnapshot.Status.NO_NETWORKS, "No networks detected");
+            }
+
+            List<AccessPoint> sorted = new ArrayList<>(results);
+            LOG.info("process: Found " + sorted.size() + " networks");
+
+            // Sort by signal strength
+            Collections.sort(sorted, BY_LEVEL_DESC);
+
+            // Usually evaluated already, when the store announced the scan
+            SuspicionMonitor.Verdicts verdicts = suspicionMonitor.verdictsFor(scan);
+
+            List<NetworkRow> rows = new ArrayList<>(sorted.size());
+            LongObjectMap<NetworkRow> suspicious = new LongObjectMap<>();
+            for (AccessPoint sr : sorted) {
+                long key = sr.getBssidKey();
+                NetworkRow row = NetworkRow.from(sr, verdicts.reasonFor(key), environment.vendorOf(key));
+                if (row.isSuspicious()) {
+                    // Malformed BSSIDs share one key; the engine never flags them anyway
+                    if (Bssid.isValid(key)) {
+                        suspicious.put(key, row);
+                    }
+                    LOG.warning("SUSPICIOUS (" + row.getSuspicionReason() + "): " + sr);
+                }
+                rows.add(row);
+            }
+
+            return ScanSnapshot.of(rows, suspicious);
+
+        } catch (SecurityException e) {
+            LOG.log(Level.SEVERE, "process: Security error", e);
+            return ScanSnapshot.failure(ScanSnapshot.Status.SECURITY_ERROR,
+                    "Security error: Permission denied");
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "process: Error: " + e.getMessage(), e);
+            return ScanSnapshot.failure(ScanSnapshot.Status.ERROR, "Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.wififinder;
+
+/**
+ * Shares the platform's foreground scan budget (4 scans per rolling 2
+ * minutes since Android 9) between every screen that can start a scan.
+ * Each issued scan holds a token until it leaves the window, so the wait
+ * reported for the next slot is exact rather than estimated.
+ *
+ * <p>The process-wide instance runs on the clock the app passes to
+ * {@link #init}, so the logic itself has no Android dependency.
+ */
+public final class ScanScheduler {
+
+    public interface Clock {
+        long nowMs();
+    }
+
+    public enum Priority {
+        /** Explicit request from the tracker; may spend every token. */
+        TRACKER,
+        /** Explicit request from the list; leaves one token while a tracker runs. */
+        USER,
+        /** Background top-up; evenly spaced and always leaves one token for a tap. */
+        PERIODIC
+    }
+
+    public static final int MAX_SCANS = 4;
+    public static final long WINDOW_MS = 120000;
+    /** Spacing that spends the whole budget evenly across the window. */
+    public static final long PERIODIC_SPACING_MS = WINDOW_MS / MAX_SCANS;
+
+    private static ScanScheduler instance;
+
+    private final Clock clock;
+    // Issue times of the last MAX_SCANS scans, oldest at head
+    private final long[] issuedAt = new long[MAX_SCANS];
+    private int head = 0;
+    private int issued = 0;
+    private int activeTrackers = 0;
+
+    public ScanScheduler(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the process-wide instance. Called once, before any screen or
+     * service asks for it.
+     *
+     * @param clock monotonic milliseconds that keep counting in deep sleep,
+     *              as the platform's scan window does
+     */
+    public static synchronized void init(Clock clock) {
+        if (instance != null) {
+            throw new IllegalStateException("ScanScheduler is already initialized");
+        }
+        instance = new ScanScheduler(clock);
+    }
+
+    public static synchronized ScanScheduler getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("ScanScheduler.init has not been called");
+        }
+        return instance;
+    }
+
+    public synchronized void onTrackerStarted() {
+        activeTrackers++;
+    }
+
+    public synchronized void onTrackerStopped() {
+        if (activeTrackers > 0) {
+            activeTrackers--;
+        }
+    }
+
+    public synchronized boolean canScan(Priority priority) {
+        return nextSlotMs(priority) <= clock.nowMs();
+    }
+
+    /** Records a scan the platform accepted. */
+    public synchronized void recordScan() {
+        long now = clock.nowMs();
+        if (issued < MAX_SCANS) {
+            issuedAt[(head + issued) % MAX_SCANS] = now;
+            issued++;
+        } else {
+            issuedAt[head] = now;
+            head = (head + 1) % MAX_SCANS;
+        }
+    }
+
+    /** Scans still counting against the budget right now. */
+    public synchronized int getUsedSlots() {
+        return inWindow(clock.nowMs());
+    }
+
+    /** Clock time at which a request of the given priority would be granted. */
+    public synchronized long nextSlotMs(Priority priority) {
+        long now = clock.nowMs();
+        int reserve = reserveFor(priority);
+        int used = inWindow(now);
+        int allowed = MAX_SCANS - reserve;
+
+        long slot = now;
+        if (used >= allowed) {
+            // Wait for enough of the oldest in-window scans to expire
+            int firstInWindow = issued - used;
+            int mustExpire = used - allowed + 1;
+            slot = at(firstInWindow + mustExpire - 1) + WINDOW_MS;
+        }
+
+        if (priority == Priority.PERIODIC && issued > 0) {
+            slot = Math.max(slot, at(issued - 1) + PERIODIC_SPACING_MS);
+        }
+        return slot;
+    }
+
+    /** Milliseconds until the next slot for the priority, zero if one is free now. */
+    public synchronized long millisUntilNextSlot(Priority priority) {
+        return Math.max(0, nextSlotMs(priority) - clock.nowMs());
+    }
+
+    private int reserveFor(Priority priority) {
+        switch (priority) {
+            case TRACKER:
+                return 0;
+            case USER:
+                return activeTrackers > 0 ? 1 : 0;
+            default:
+                return 1;
+        }
+    }
+
+    private int inWindow(long now) {
+        int count = 0;
+        for (int i = 0; i < issued; i++) {
+            if (now - at(i) < WINDOW_MS) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // i-th oldest recorded scan
+    private long at(int i) {
+        return issuedAt[(head + i) % MAX_SCANS];
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.wififinder;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of one pass through the {@link ScanPipeline}.
+ * Built on the pipeline thread and handed to the UI as a whole.
+ */
+public final class ScanSnapshot {
+
+    public enum Status {
+        OK,
+        NO_NETWORKS,
+        WIFI_DISABLED,
+        PERMISSION_DENIED,
+        LOCATION_DISABLED,
+        SECURITY_ERROR,
+        ERROR
+    }
+
+    private final Status status;
+    private final String message;
+    private final List<NetworkRow> networks;
+    private final LongObjectMap<NetworkRow> suspiciousByBssid;
+
+    private ScanSnapshot(Status status, String message,
+                         List<NetworkRow> networks, LongObjectMap<NetworkRow> suspiciousByBssid) {
+        this.status = status;
+        this.message = message;
+        this.networks = networks;
+        this.suspiciousByBssid = suspiciousByBssid;
+    }
+
+    /** Takes ownership of the map; the pipeline must not touch it afterwards. */
+    static ScanSnapshot of(List<NetworkRow> networks, LongObjectMap<NetworkRow> suspiciousByBssid) {
+        return new ScanSnapshot(Status.OK, null,
+                Collections.unmodifiableList(networks), suspiciousByBssid);
+    }
+
+    static ScanSnapshot failure(Status status, String message) {
+        return new ScanSnapshot(status, message,
+                Collections.<NetworkRow>emptyList(), new LongObjectMap<NetworkRow>());
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /** Networks sorted by signal strength, strongest first. */
+    public List<NetworkRow> getNetworks() {
+        return networks;
+    }
+
+    public int getSuspiciousCount() {
+        return suspiciousByBssid.size();
+    }
+
+    /** Hashed lookup for code that only has a {@link Bssid} key, not the row. */
+    public boolean isSuspicious(long bssidKey) {
+        return suspiciousByBssid.containsKey(bssidKey);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.wififinder;
+
+import java.util.List;
+
+/**
+ * Where scans come from: the platform's Wi-Fi scanner on a device, or a
+ * synthetic or recorded source on a plain JVM. Results go into the
+ * {@link ScanStore} as they are; everything after that does not know which
+ * source it is running on.
+ */
+public interface ScanSource {
+
+    /**
+     * Asks for a new scan. Results show up in a later {@link #getScanResults}.
+     *
+     * @return false if the scan was refused, e.g. by platform throttling
+     */
+    boolean startScan();
+
+    /** The latest results, possibly unchanged since the last call. Never null. */
+    List<AccessPoint> getScanResults();
+}
@@ -0,0 +1,166 @@
+package com.example.wififinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide holder of the latest scan. Every new scan gets a generation
+ * number and a BSSID index built once, so consumers can tell cheaply
+ * whether anything changed since they last looked.
+ *
+ * <p>Readers never lock: {@link #current} is a volatile read of an
+ * immutable snapshot, swapped whole by {@link #update}. Callers that used to
+ * make a {@code getScanResults()} binder call read through
+ * {@link #readCached} instead, which counts the call saved.
+ */
+public final class ScanStore {
+
+    /** Immutable view of one scan. */
+    public static final class Snapshot {
+        private final long generation;
+        private final long updatedAtMs;
+        private final List<AccessPoint> results;
+        private final LongObjectMap<AccessPoint> index;
+
+        Snapshot(long generation, long updatedAtMs, List<AccessPoint> results,
+                 LongObjectMap<AccessPoint> index) {
+            this.generation = generation;
+            this.updatedAtMs = updatedAtMs;
+            this.results = results;
+            this.index = index;
+        }
+
+        /** Increases by one for every scan whose contents differ from the last. */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /** Clock time, in the caller's time base, when this scan was first seen. */
+        public long getUpdatedAtMs() {
+            return updatedAtMs;
+        }
+
+        public List<AccessPoint> getResults() {
+            return results;
+        }
+
+        /** @return the result for the {@link Bssid} key, or null if it was not seen */
+        public AccessPoint find(long bssidKey) {
+            return index.get(bssidKey);
+        }
+    }
+
+    /** Notified on the updating thread whenever a new generation is built. */
+    public interface Listener {
+        void onNewGeneration(Snapshot snapshot);
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(0, 0,
+            Collections.<AccessPoint>emptyList(), new LongObjectMap<AccessPoint>());
+
+    // Declared after EMPTY so the instance initializer sees it
+    private static final ScanStore INSTANCE = new ScanStore();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong cacheReads = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private volatile Snapshot current = EMPTY;
+    private volatile long lastFetchMs = Long.MIN_VALUE;
+    private long lastFingerprint;
+
+    ScanStore() {
+    }
+
+    public static ScanStore getInstance() {
+        return INSTANCE;
+    }
+
+    public Snapshot current() {
+        return current;
+    }
+
+    /** {@link #current}, for a caller that would otherwise fetch from the platform. */
+    public Snapshot readCached() {
+        cacheReads.incrementAndGet();
+        return current;
+    }
+
+    /**
+     * @return true if no result list was offered in the last {@code maxAgeMs},
+     *         in the time base passed to {@link #update}
+     */
+    public boolean isStale(long nowMs, long maxAgeMs) {
+        long last = lastFetchMs;
+        return last == Long.MIN_VALUE || nowMs - last >= maxAgeMs;
+    }
+
+    /** Calls to {@link #readCached}, each a binder call saved. */
+    public long getCacheReads() {
+        return cacheReads.get();
+    }
+
+    /** Result lists fetched from the platform, changed or not. */
+    public long getFetches() {
+        return fetches.get();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Offers a freshly fetched result list. A new generation is built only
+     * when the list differs from the previous one; otherwise the current
+     * snapshot is returned untouched.
+     */
+    public synchronized Snapshot update(List<AccessPoint> results, long nowMs) {
+        if (results == null) {
+            results = Collections.emptyList();
+        }
+        fetches.incrementAndGet();
+        lastFetchMs = nowMs;
+
+        long fingerprint = fingerprint(results);
+        Snapshot previous = current;
+        if (previous != EMPTY && fingerprint == lastFingerprint) {
+            return previous;
+        }
+
+        LongObjectMap<AccessPoint> index = new LongObjectMap<>(results.size());
+        for (AccessPoint sr : results) {
+            long key = sr.getBssidKey();
+            if (Bssid.isValid(key)) {
+                index.put(key, sr);
+            }
+        }
+
+        Snapshot next = new Snapshot(previous.generation + 1, nowMs,
+                Collections.unmodifiableList(new ArrayList<>(results)), index);
+        lastFingerprint = fingerprint;
+        current = next;
+
+        for (Listener listener : listeners) {
+            listener.onNewGeneration(next);
+        }
+        return next;
+    }
+
+    // Each result is stamped with the time it was last seen, so a new scan
+    // changes the timestamps even when every level stays the same.
+    private static long fingerprint(List<AccessPoint> results) {
+        long h = results.size();
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            h = h * 31 + sr.getTimestampMs();
+            h = h * 31 + sr.getLevel();
+        }
+        return h;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wififinder;
+
+/**
+ * Layout of a scan trace, shared by {@link ScanTraceWriter} and
+ * {@link ScanTraceReader}.
+ *
+ * <p>A 16-byte header (magic, version, start time in ms) followed by a
+ * stream of events. Each event is a type byte, then the milliseconds since
+ * the previous event (or the start time) as a varint, then its body:
+ * <pre>
+ *   EVENT_ACCESS_POINT    defines the next access point id, counting from 0:
+ *                         6 B BSSID, string SSID, string capabilities,
+ *                         varint frequency, byte channel width,
+ *                         varint center frequency 0, varint center frequency 1
+ *   EVENT_SCAN_AVAILABLE  byte: 1 if the broadcast said the results were updated
+ *   EVENT_SCAN_RESULTS    varint count, then per access point: varint id,
+ *                         byte level, zigzag varint age (event time - timestamp)
+ *   EVENT_RSSI_POLL       6 B BSSID of the connection (NO_BSSID if none), byte RSSI
+ * </pre>
+ * Varints are unsigned LEB128. A string is a varint: 0 for a new string,
+ * followed by a varint UTF-8 length and the bytes, otherwise 1 + the index
+ * of an earlier new string. An access point is defined once and referenced
+ * by id after that, so a scan costs 4 or 5 bytes per access point, against
+ * 24 per record in the history log.
+ */
+final class ScanTraceFormat {
+
+    static final int MAGIC = 0x57465452; // "WFTR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final int EVENT_ACCESS_POINT = 1;
+    static final int EVENT_SCAN_AVAILABLE = 2;
+    static final int EVENT_SCAN_RESULTS = 3;
+    static final int EVENT_RSSI_POLL = 4;
+
+    // ff:ff:ff:ff:ff:ff is broadcast, never a BSSID
+    static final long NO_BSSID = 0xFFFFFFFFFFFFL;
+
+    private ScanTraceFormat() {
+    }
+}
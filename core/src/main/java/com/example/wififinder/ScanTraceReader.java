@@ -0,0 +1,208 @@
+package com.example.wififinder;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static com.example.wififinder.ScanTraceFormat.*;
+
+/**
+ * Reads a trace written by {@link ScanTraceWriter} one event at a time, so a
+ * trace of any length replays in constant memory beyond its access point
+ * definitions. The accessors describe the event last returned by
+ * {@link #next}.
+ */
+public final class ScanTraceReader implements Closeable {
+
+    private static final String TAG = "ScanTraceReader";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    public enum Event {
+        SCAN_AVAILABLE,
+        SCAN_RESULTS,
+        RSSI_POLL
+    }
+
+    private final DataInputStream in;
+    private final long startMs;
+    private final List<String> strings = new ArrayList<>();
+    private final List<AccessPoint> definitions = new ArrayList<>();
+
+    private long timeMs;
+    private long eventCount = 0;
+    private boolean updated;
+    private List<AccessPoint> results = Collections.emptyList();
+    private long bssidKey = Bssid.INVALID;
+    private int rssi;
+
+    public ScanTraceReader(File file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " scan trace: " + file);
+            }
+            startMs = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e instanceof EOFException ? new IOException("Truncated scan trace: " + file) : e;
+        }
+        timeMs = startMs;
+    }
+
+    /**
+     * Moves to the next event.
+     *
+     * @return the event, or null at the end of the trace. A trace cut off
+     *         mid-event, e.g. by a crash, ends cleanly before that event.
+     */
+    public Event next() throws IOException {
+        try {
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return null;
+                }
+                timeMs += readVarint();
+                switch (type) {
+                    case EVENT_ACCESS_POINT:
+                        readDefinition();
+                        break;
+                    case EVENT_SCAN_AVAILABLE:
+                        updated = in.readByte() != 0;
+                        eventCount++;
+                        return Event.SCAN_AVAILABLE;
+                    case EVENT_SCAN_RESULTS:
+                        readResults();
+                        eventCount++;
+                        return Event.SCAN_RESULTS;
+                    case EVENT_RSSI_POLL:
+                        long key = readBssid();
+                        bssidKey = key == NO_BSSID ? Bssid.INVALID : key;
+                        rssi = in.readByte();
+                        eventCount++;
+                        return Event.RSSI_POLL;
+                    default:
+                        throw new IOException("Unknown trace event " + type + " after "
+                                + eventCount + " events");
+                }
+            }
+        } catch (EOFException e) {
+            LOG.warning("next: Trace ends mid-event after " + eventCount + " events");
+            return null;
+        }
+    }
+
+    /** Time of the trace's start, in the recording's clock. */
+    public long getStartMs() {
+        return startMs;
+    }
+
+    /** Time of the current event, in the recording's clock. */
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    /** Events returned so far. */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /** For {@link Event#SCAN_AVAILABLE}: whether the broadcast reported new results. */
+    public boolean isUpdated() {
+        return updated;
+    }
+
+    /** For {@link Event#SCAN_RESULTS}: the list as the app read it. */
+    public List<AccessPoint> getResults() {
+        return results;
+    }
+
+    /** For {@link Event#RSSI_POLL}: the connected BSSID, {@link Bssid#INVALID} if none. */
+    public long getBssidKey() {
+        return bssidKey;
+    }
+
+    /** For {@link Event#RSSI_POLL}. */
+    public int getRssi() {
+        return rssi;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readDefinition() throws IOException {
+        long key = readBssid();
+        String ssid = readString();
+        String capabilities = readString();
+        int frequency = (int) readVarint();
+        int channelWidth = in.readByte();
+        int centerFreq0 = (int) readVarint();
+        int centerFreq1 = (int) readVarint();
+        definitions.add(new AccessPoint(Bssid.format(key), ssid, capabilities, 0, frequency, 0,
+                channelWidth, centerFreq0, centerFreq1));
+    }
+
+    private void readResults() throws IOException {
+        int count = (int) readVarint();
+        List<AccessPoint> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = (int) readVarint();
+            if (id >= definitions.size()) {
+                throw new IOException("Undefined access point " + id + " after " + eventCount + " events");
+            }
+            int level = in.readByte();
+            long age = unzigzag(readVarint());
+            list.add(definitions.get(id).withLevel(level, timeMs - age));
+        }
+        results = Collections.unmodifiableList(list);
+    }
+
+    private String readString() throws IOException {
+        int index = (int) readVarint();
+        if (index > strings.size()) {
+            throw new IOException("Undefined string " + index + " after " + eventCount + " events");
+        } else if (index > 0) {
+            return strings.get(index - 1);
+        }
+        byte[] bytes = new byte[(int) readVarint()];
+        in.readFully(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    private long readBssid() throws IOException {
+        long key = 0;
+        for (int i = 0; i < 6; i++) {
+            key = (key << 8) | in.readUnsignedByte();
+        }
+        return key;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint after " + eventCount + " events");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.wififinder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.example.wififinder.ScanTraceFormat.*;
+
+/**
+ * Streams what the app hears from the platform into a trace file: scan
+ * broadcasts, the result lists read after them, and connection RSSI polls.
+ * Callers only encode into a buffer; full chunks are written out on the
+ * writer's own thread. See {@link ScanTraceFormat} for the layout.
+ *
+ * <p>Times are in the caller's clock and should not go backwards; an event
+ * stamped before the previous one is recorded at the same time.
+ */
+public class ScanTraceWriter implements Closeable {
+
+    private static final String TAG = "ScanTraceWriter";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    private static final int CHUNK_SIZE = 64 * 1024;
+    // A quiet trace still reaches the file this often, in trace time
+    private static final long FLUSH_INTERVAL_MS = 5000;
+
+    // Access points defined so far, chained per BSSID in case the SSID or channel changes
+    private static final class Definition {
+        final int id;
+        final AccessPoint ap;
+        final Definition next;
+
+        Definition(int id, AccessPoint ap, Definition next) {
+            this.id = id;
+            this.ap = ap;
+            this.next = next;
+        }
+    }
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final long startMs;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final LongObjectMap<Definition> definitions = new LongObjectMap<>();
+    private int definitionCount = 0;
+    private int[] ids = new int[64];
+
+    private byte[] buffer = new byte[CHUNK_SIZE];
+    private int position = 0;
+    private long lastMs;
+    private long lastFlushMs;
+    private long eventCount = 0;
+    private long byteCount = 0;
+    private boolean closed = false;
+    private volatile IOException failure;
+
+    public ScanTraceWriter(File file, long startMs) throws IOException {
+        this.out = new FileOutputStream(file);
+        this.startMs = startMs;
+        this.lastMs = startMs;
+        this.lastFlushMs = startMs;
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, TAG);
+            t.setDaemon(true);
+            return t;
+        });
+        writeInt(MAGIC);
+        writeInt(VERSION);
+        writeLong(startMs);
+    }
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    /** A scan-results broadcast; {@code updated} is its EXTRA_RESULTS_UPDATED. */
+    public synchronized void scanAvailable(long timeMs, boolean updated) {
+        if (closed) {
+            return;
+        }
+        beginEvent(EVENT_SCAN_AVAILABLE, timeMs);
+        writeByte(updated ? 1 : 0);
+        endEvent();
+    }
+
+    /**
+     * One read of the scan results, as returned. Access points with a BSSID
+     * that does not parse are left out, as in the history log.
+     */
+    public synchronized void scanResults(long timeMs, List<AccessPoint> results) {
+        if (closed) {
+            return;
+        }
+        if (ids.length < results.size()) {
+            ids = new int[Math.max(results.size(), ids.length * 2)];
+        }
+        // Definitions go first, so the results event is one run
+        int count = 0;
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint ap = results.get(i);
+            if (Bssid.isValid(ap.getBssidKey())) {
+                ids[count++] = idOf(ap, timeMs);
+            }
+        }
+
+        beginEvent(EVENT_SCAN_RESULTS, timeMs);
+        writeVarint(count);
+        int n = 0;
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint ap = results.get(i);
+            if (!Bssid.isValid(ap.getBssidKey())) {
+                continue;
+            }
+            writeVarint(ids[n++]);
+            writeByte(ap.getLevel());
+            writeVarint(zigzag(lastMs - ap.getTimestampMs()));
+        }
+        endEvent();
+    }
+
+    /** One connection info poll; {@code bssidKey} is {@link Bssid#INVALID} when not connected. */
+    public synchronized void rssiPoll(long timeMs, long bssidKey, int rssi) {
+        if (closed) {
+            return;
+        }
+        beginEvent(EVENT_RSSI_POLL, timeMs);
+        writeBssid(Bssid.isValid(bssidKey) ? bssidKey : NO_BSSID);
+        writeByte(rssi);
+        endEvent();
+    }
+
+    /** Broadcasts, result reads and polls recorded so far. */
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    /** Size of the trace so far, including what is still buffered. */
+    public synchronized long getByteCount() {
+        return byteCount + position;
+    }
+
+    /**
+     * Writes out everything recorded so far and closes the file.
+     *
+     * @throws IOException if any write failed, now or on the writer thread
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flushChunk();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (failure != null) {
+            throw failure;
+        }
+        LOG.info("close: " + eventCount + " events, " + byteCount + " bytes");
+    }
+
+    private int idOf(AccessPoint ap, long timeMs) {
+        long key = ap.getBssidKey();
+        Definition head = definitions.get(key);
+        for (Definition d = head; d != null; d = d.next) {
+            if (sameAccessPoint(d.ap, ap)) {
+                return d.id;
+            }
+        }
+        int id = definitionCount++;
+        definitions.put(key, new Definition(id, ap, head));
+
+        beginEvent(EVENT_ACCESS_POINT, timeMs);
+        writeBssid(key);
+        writeString(ap.getSsid());
+        writeString(ap.getCapabilities());
+        writeVarint(ap.getFrequency());
+        writeByte(ap.getChannelWidth());
+        writeVarint(ap.getCenterFreq0());
+        writeVarint(ap.getCenterFreq1());
+        // Part of the results event that follows; not counted on its own
+        return id;
+    }
+
+    // Everything but level and time
+    private static boolean sameAccessPoint(AccessPoint a, AccessPoint b) {
+        return a.getFrequency() == b.getFrequency()
+                && a.getChannelWidth() == b.getChannelWidth()
+                && a.getCenterFreq0() == b.getCenterFreq0()
+                && a.getCenterFreq1() == b.getCenterFreq1()
+                && a.getSsid().equals(b.getSsid())
+                && a.getCapabilities().equals(b.getCapabilities());
+    }
+
+    private void beginEvent(int type, long timeMs) {
+        long delta = Math.max(0, timeMs - lastMs);
+        lastMs += delta;
+        writeByte(type);
+        writeVarint(delta);
+    }
+
+    private void endEvent() {
+        eventCount++;
+        if (position >= CHUNK_SIZE || lastMs - lastFlushMs >= FLUSH_INTERVAL_MS) {
+            flushChunk();
+        }
+    }
+
+    private void flushChunk() {
+        if (position == 0) {
+            return;
+        }
+        final byte[] chunk = Arrays.copyOf(buffer, position);
+        byteCount += position;
+        position = 0;
+        lastFlushMs = lastMs;
+        executor.execute(() -> {
+            if (failure != null) {
+                return;
+            }
+            try {
+                out.write(chunk);
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "flushChunk: Trace write failed", e);
+                failure = e;
+            }
+        });
+    }
+
+    private void writeString(String s) {
+        Integer index = strings.get(s);
+        if (index != null) {
+            writeVarint(index + 1);
+            return;
+        }
+        strings.put(s, strings.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(0);
+        writeVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeBssid(long key) {
+        ensureCapacity(6);
+        for (int shift = 40; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (key >>> shift);
+        }
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    // A single scan can outgrow a chunk; the buffer grows rather than split it
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(position + bytes, buffer.length * 2));
+        }
+    }
+}
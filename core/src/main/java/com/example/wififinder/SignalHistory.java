@@ -0,0 +1,323 @@
+package com.example.wififinder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory index of every RSSI sample seen, for survey queries. Samples
+ * are kept per BSSID in time order, next to pre-aggregated rollups at 1 s,
+ * 10 s and 1 min, so a range query is a binary search plus a copy of the
+ * matching run and never a scan over the whole history.
+ */
+public final class SignalHistory implements ScanStore.Listener {
+
+    public enum Resolution {
+        SECOND(1000),
+        TEN_SECONDS(10000),
+        MINUTE(60000);
+
+        private final long widthMs;
+
+        Resolution(long widthMs) {
+            this.widthMs = widthMs;
+        }
+
+        public long getWidthMs() {
+            return widthMs;
+        }
+    }
+
+    /** Raw samples of one BSSID, oldest first. */
+    public static final class TimeSeries {
+        private final long[] times;
+        private final int[] levels;
+
+        TimeSeries(long[] times, int[] levels) {
+            this.times = times;
+            this.levels = levels;
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        public long timeAt(int index) {
+            return times[index];
+        }
+
+        public int levelAt(int index) {
+            return levels[index];
+        }
+    }
+
+    /** Fixed-width buckets of one BSSID, oldest first. Empty buckets are omitted. */
+    public static final class Rollup {
+        private final long[] starts;
+        private final int[] min;
+        private final int[] max;
+        private final int[] count;
+        private final int[] sum;
+
+        Rollup(long[] starts, int[] min, int[] max, int[] count, int[] sum) {
+            this.starts = starts;
+            this.min = min;
+            this.max = max;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        public long startAt(int index) {
+            return starts[index];
+        }
+
+        public int minAt(int index) {
+            return min[index];
+        }
+
+        public int maxAt(int index) {
+            return max[index];
+        }
+
+        public int countAt(int index) {
+            return count[index];
+        }
+
+        public double meanAt(int index) {
+            return (double) sum[index] / count[index];
+        }
+    }
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+    private static final SignalHistory INSTANCE = new SignalHistory();
+
+    private final LongObjectMap<Series> series = new LongObjectMap<>();
+    private long sampleCount = 0;
+
+    SignalHistory() {
+    }
+
+    public static SignalHistory getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void onNewGeneration(ScanStore.Snapshot snapshot) {
+        List<AccessPoint> results = snapshot.getResults();
+        synchronized (this) {
+            for (int i = 0; i < results.size(); i++) {
+                AccessPoint sr = results.get(i);
+                long key = sr.getBssidKey();
+                if (Bssid.isValid(key)) {
+                    add(key, sr.getTimestampMs(), sr.getLevel());
+                }
+            }
+        }
+    }
+
+    /** Indexes every record of a history log, e.g. on startup. */
+    public synchronized void load(ScanHistoryReader reader) {
+        for (int i = 0; i < reader.size(); i++) {
+            add(reader.bssidAt(i), reader.timestampAt(i), reader.levelAt(i));
+        }
+    }
+
+    /**
+     * Adds one sample. A sample with the same time as one already stored for
+     * the BSSID is a repeat of a cached result and is ignored.
+     */
+    public synchronized void add(long bssidKey, long timestampMs, int level) {
+        Series s = series.get(bssidKey);
+        if (s == null) {
+            s = new Series();
+            series.put(bssidKey, s);
+        }
+        if (s.add(timestampMs, level)) {
+            sampleCount++;
+        }
+    }
+
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /** Samples for the BSSID with {@code fromMs <= time < toMs}. */
+    public synchronized TimeSeries series(long bssidKey, long fromMs, long toMs) {
+        Series s = series.get(bssidKey);
+        if (s == null) {
+            return new TimeSeries(new long[0], new int[0]);
+        }
+        int from = lowerBound(s.times, s.size, fromMs);
+        int to = lowerBound(s.times, s.size, toMs);
+        int n = Math.max(0, to - from);
+
+        long[] times = Arrays.copyOfRange(s.times, from, from + n);
+        int[] levels = new int[n];
+        for (int i = 0; i < n; i++) {
+            levels[i] = s.levels[from + i];
+        }
+        return new TimeSeries(times, levels);
+    }
+
+    /** Buckets for the BSSID whose start lies in {@code [fromMs, toMs)}. */
+    public synchronized Rollup rollup(long bssidKey, Resolution resolution,
+                                      long fromMs, long toMs) {
+        Series s = series.get(bssidKey);
+        if (s == null) {
+            return new Rollup(new long[0], new int[0], new int[0], new int[0], new int[0]);
+        }
+        return s.buckets[resolution.ordinal()].slice(fromMs, toMs);
+    }
+
+    /** BSSID keys with at least one sample at or after {@code sinceMs}. */
+    public synchronized long[] seenSince(long sinceMs) {
+        long[] keys = new long[series.size()];
+        int[] n = new int[1];
+        series.forEach((key, s) -> {
+            if (s.size > 0 && s.times[s.size - 1] >= sinceMs) {
+                keys[n[0]++] = key;
+            }
+        });
+        return Arrays.copyOf(keys, n[0]);
+    }
+
+    /** Per-minute rollups of every BSSID seen in {@code [fromMs, toMs)}. */
+    public synchronized LongObjectMap<Rollup> maxPerMinute(long fromMs, long toMs) {
+        LongObjectMap<Rollup> out = new LongObjectMap<>();
+        long from = Math.floorDiv(fromMs, Resolution.MINUTE.widthMs) * Resolution.MINUTE.widthMs;
+        series.forEach((key, s) -> {
+            Rollup r = s.buckets[Resolution.MINUTE.ordinal()].slice(from, toMs);
+            if (r.size() > 0) {
+                out.put(key, r);
+            }
+        });
+        return out;
+    }
+
+    public synchronized void clear() {
+        series.clear();
+        sampleCount = 0;
+    }
+
+    // First index whose time is >= t
+    private static int lowerBound(long[] times, int size, long t) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static final class Series {
+        long[] times = new long[16];
+        short[] levels = new short[16];
+        int size;
+        final Buckets[] buckets = new Buckets[RESOLUTIONS.length];
+
+        Series() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Buckets(RESOLUTIONS[i].widthMs);
+            }
+        }
+
+        boolean add(long t, int level) {
+            // Scans arrive in order, so the insertion point is almost always the end
+            int at = size;
+            if (size > 0 && times[size - 1] >= t) {
+                at = lowerBound(times, size, t);
+                if (at < size && times[at] == t) {
+                    return false;
+                }
+            }
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            System.arraycopy(times, at, times, at + 1, size - at);
+            System.arraycopy(levels, at, levels, at + 1, size - at);
+            times[at] = t;
+            levels[at] = (short) level;
+            size++;
+
+            for (Buckets b : buckets) {
+                b.add(t, level);
+            }
+            return true;
+        }
+    }
+
+    private static final class Buckets {
+        final long widthMs;
+        long[] starts = new long[8];
+        short[] min = new short[8];
+        short[] max = new short[8];
+        int[] count = new int[8];
+        int[] sum = new int[8];
+        int size;
+
+        Buckets(long widthMs) {
+            this.widthMs = widthMs;
+        }
+
+        void add(long t, int level) {
+            long start = Math.floorDiv(t, widthMs) * widthMs;
+            int at = size;
+            if (size > 0 && starts[size - 1] >= start) {
+                at = lowerBound(starts, size, start);
+            }
+            if (at == size || starts[at] != start) {
+                insert(at, start);
+            }
+            min[at] = (short) Math.min(min[at], level);
+            max[at] = (short) Math.max(max[at], level);
+            count[at]++;
+            sum[at] += level;
+        }
+
+        Rollup slice(long fromMs, long toMs) {
+            int from = lowerBound(starts, size, fromMs);
+            int n = Math.max(0, lowerBound(starts, size, toMs) - from);
+            int[] mins = new int[n];
+            int[] maxes = new int[n];
+            for (int i = 0; i < n; i++) {
+                mins[i] = min[from + i];
+                maxes[i] = max[from + i];
+            }
+            return new Rollup(Arrays.copyOfRange(starts, from, from + n), mins, maxes,
+                    Arrays.copyOfRange(count, from, from + n),
+                    Arrays.copyOfRange(sum, from, from + n));
+        }
+
+        private void insert(int at, long start) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                min = Arrays.copyOf(min, capacity);
+                max = Arrays.copyOf(max, capacity);
+                count = Arrays.copyOf(count, capacity);
+                sum = Arrays.copyOf(sum, capacity);
+            }
+            int tail = size - at;
+            System.arraycopy(starts, at, starts, at + 1, tail);
+            System.arraycopy(min, at, min, at + 1, tail);
+            System.arraycopy(max, at, max, at + 1, tail);
+            System.arraycopy(count, at, count, at + 1, tail);
+            System.arraycopy(sum, at, sum, at + 1, tail);
+            starts[at] = start;
+            min[at] = Short.MAX_VALUE;
+            max[at] = Short.MIN_VALUE;
+            count[at] = 0;
+            sum[at] = 0;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.wififinder;
+
+/**
+ * Everything the UI shows for one integer RSSI level, resolved ahead of
+ * time by {@link SignalStyleTable}. Colors are ARGB ints.
+ */
+public final class SignalStyle {
+
+    private final int rssi;
+    private final String levelText;
+    private final double distanceMeters;
+    private final String distanceText;
+    private final String quality;
+    private final int qualityColor;
+    private final int fillColor;
+    private final int strokeColor;
+    private final int listColor;
+
+    SignalStyle(int rssi, double distanceMeters, String distanceText, String quality,
+                int qualityColor, int fillColor, int strokeColor, int listColor) {
+        this.rssi = rssi;
+        this.levelText = String.valueOf(rssi);
+        this.distanceMeters = distanceMeters;
+        this.distanceText = distanceText;
+        this.quality = quality;
+        this.qualityColor = qualityColor;
+        this.fillColor = fillColor;
+        this.strokeColor = strokeColor;
+        this.listColor = listColor;
+    }
+
+    public int getRssi() {
+        return rssi;
+    }
+
+    public String getLevelText() {
+        return levelText;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public String getDistanceText() {
+        return distanceText;
+    }
+
+    public String getQuality() {
+        return quality;
+    }
+
+    public int getQualityColor() {
+        return qualityColor;
+    }
+
+    /** Tracker circle fill. */
+    public int getFillColor() {
+        return fillColor;
+    }
+
+    /** Tracker circle outline. */
+    public int getStrokeColor() {
+        return strokeColor;
+    }
+
+    /** Signal strength text color in the network list. */
+    public int getListColor() {
+        return listColor;
+    }
+}
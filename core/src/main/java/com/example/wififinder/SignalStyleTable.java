@@ -0,0 +1,89 @@
+package com.example.wififinder;
+
+/**
+ * Precomputed {@link SignalStyle} for every integer dBm level. RSSI only
+ * takes about a hundred distinct values, so the per-update path is one
+ * array index instead of Math.pow, Color.parseColor and String.format.
+ */
+public final class SignalStyleTable {
+
+    public static final int MIN_RSSI = -127;
+    public static final int MAX_RSSI = 0;
+
+    // Typical for Wi-Fi at 1 m, and an indoor path loss exponent
+    public static final int DEFAULT_RSSI_AT_1M = -40;
+    public static final double DEFAULT_PATH_LOSS_EXPONENT = 2.5;
+
+    private static final SignalStyleTable DEFAULT =
+            new SignalStyleTable(DEFAULT_RSSI_AT_1M, DEFAULT_PATH_LOSS_EXPONENT);
+
+    private final SignalStyle[] styles = new SignalStyle[MAX_RSSI - MIN_RSSI + 1];
+
+    public SignalStyleTable(PathLossModel model) {
+        this(model.getRssiAt1m(), model.getExponent());
+    }
+
+    public SignalStyleTable(double rssiAt1m, double pathLossExponent) {
+        for (int rssi = MIN_RSSI; rssi <= MAX_RSSI; rssi++) {
+            styles[rssi - MIN_RSSI] = build(rssi, rssiAt1m, pathLossExponent);
+        }
+    }
+
+    public static SignalStyleTable getDefault() {
+        return DEFAULT;
+    }
+
+    /** Style for the level, clamped to the table range. */
+    public SignalStyle get(int rssi) {
+        if (rssi < MIN_RSSI) {
+            rssi = MIN_RSSI;
+        } else if (rssi > MAX_RSSI) {
+            rssi = MAX_RSSI;
+        }
+        return styles[rssi - MIN_RSSI];
+    }
+
+    private static SignalStyle build(int rssi, double rssiAt1m, double pathLossExponent) {
+        // Distance (meters) ≈ 10 ^ ((RSSI_at_1m - RSSI) / (10 * n))
+        double distance = Math.pow(10, (rssiAt1m - rssi) / (10.0 * pathLossExponent));
+        String distanceText;
+        if (distance < 1) {
+            distanceText = "< 1 meter";
+        } else if (distance < 10) {
+            distanceText = String.format("~%.1f meters", distance);
+        } else {
+            distanceText = String.format("~%.0f meters", distance);
+        }
+
+        String quality;
+        int fillColor;
+        int strokeColor;
+        if (rssi > -50) {
+            quality = "Excellent - Very Close!";
+            fillColor = 0xFF4CAF50; // Green
+            strokeColor = 0xFF2E7D32;
+        } else if (rssi > -60) {
+            quality = "Good - Close";
+            fillColor = 0xFF8BC34A; // Light Green
+            strokeColor = 0xFF558B2F;
+        } else if (rssi > -70) {
+            quality = "Fair - Medium Distance";
+            fillColor = 0xFFFF9800; // Orange
+            strokeColor = 0xFFE65100;
+        } else if (rssi > -80) {
+            quality = "Weak - Far";
+            fillColor = 0xFFFF5722; // Deep Orange
+            strokeColor = 0xFFBF360C;
+        } else {
+            quality = "Very Weak - Very Far";
+            fillColor = 0xFFF44336; // Red
+            strokeColor = 0xFFB71C1C;
+        }
+
+        // The list only uses four bands; everything from -70 down is red
+        int listColor = rssi > -70 ? fillColor : 0xFFF44336;
+
+        return new SignalStyle(rssi, distance, distanceText, quality,
+                fillColor, fillColor, strokeColor, listColor);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.wififinder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Signal levels surveyed on foot, binned into square cells per BSSID. Only
+ * cells that were walked through, or are near one, exist. Every cell also
+ * holds an inverse-distance-weighted (IDW) estimate from the surveyed cells
+ * within {@link #RADIUS_CELLS}, kept up to date incrementally. A new sample
+ * touches only the cells in that radius, so adding one costs the same
+ * however large the survey gets.
+ *
+ * <p>Positions are in meters, in whatever frame the caller uses (floor plan
+ * or dead reckoning). Not thread-safe; meant for the UI thread. To write a
+ * survey from another thread, take a {@link #snapshot} on the UI thread.
+ */
+public final class SurveyGrid {
+
+    /** Cell edge, in meters. */
+    public static final float CELL_METERS = 0.5f;
+    /** Surveyed cells influence estimates this many cells away. */
+    public static final int RADIUS_CELLS = 6;
+
+    // IDW weights 1 / (1 + d^2), d in cells, for every offset within the radius
+    private static final int SPAN = 2 * RADIUS_CELLS + 1;
+    private static final float[] WEIGHTS = new float[SPAN * SPAN];
+
+    static {
+        for (int dy = -RADIUS_CELLS; dy <= RADIUS_CELLS; dy++) {
+            for (int dx = -RADIUS_CELLS; dx <= RADIUS_CELLS; dx++) {
+                int d2 = dx * dx + dy * dy;
+                WEIGHTS[(dy + RADIUS_CELLS) * SPAN + dx + RADIUS_CELLS] =
+                        d2 > RADIUS_CELLS * RADIUS_CELLS ? 0f : 1f / (1 + d2);
+            }
+        }
+    }
+
+    /** Receives the cells whose estimate changed; see {@link Layer#add}. */
+    public interface DirtyListener {
+        void onCellChanged(int cx, int cy, float estimate);
+    }
+
+    private static final class Cell {
+        final int cx;
+        final int cy;
+        // Surveyed samples in this cell
+        float sum;
+        int count;
+        // IDW sums from the surveyed cells around it
+        float weightedSum;
+        float weights;
+
+        Cell(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+    }
+
+    /** One access point's cells. */
+    public static final class Layer {
+        private final long bssidKey;
+        private final LongObjectMap<Cell> cells = new LongObjectMap<>();
+        private int samples = 0;
+        private int surveyedCells = 0;
+        private int minCx = Integer.MAX_VALUE;
+        private int minCy = Integer.MAX_VALUE;
+        private int maxCx = Integer.MIN_VALUE;
+        private int maxCy = Integer.MIN_VALUE;
+
+        Layer(long bssidKey) {
+            this.bssidKey = bssidKey;
+        }
+
+        public long getBssidKey() {
+            return bssidKey;
+        }
+
+        /**
+         * Adds one level at a position and updates the estimates around it.
+         *
+         * @param listener told about every cell whose estimate changed; may be null
+         */
+        public void add(float x, float y, int level, DirtyListener listener) {
+            int sx = cellOf(x);
+            int sy = cellOf(y);
+            Cell sampled = cellAt(sx, sy);
+            float oldMean = sampled.count == 0 ? 0f : sampled.sum / sampled.count;
+            boolean isNew = sampled.count == 0;
+            sampled.sum += level;
+            sampled.count++;
+            float delta = sampled.sum / sampled.count - (isNew ? 0f : oldMean);
+            samples++;
+            if (isNew) {
+                surveyedCells++;
+                minCx = Math.min(minCx, sx);
+                minCy = Math.min(minCy, sy);
+                maxCx = Math.max(maxCx, sx);
+                maxCy = Math.max(maxCy, sy);
+            }
+
+            // A cell's mean moved by delta; its weight only joins the sums the first time
+            for (int dy = -RADIUS_CELLS; dy <= RADIUS_CELLS; dy++) {
+                for (int dx = -RADIUS_CELLS; dx <= RADIUS_CELLS; dx++) {
+                    float w = WEIGHTS[(dy + RADIUS_CELLS) * SPAN + dx + RADIUS_CELLS];
+                    if (w == 0f) {
+                        continue;
+                    }
+                    Cell cell = cellAt(sx + dx, sy + dy);
+                    cell.weightedSum += w * delta;
+                    if (isNew) {
+                        cell.weights += w;
+                    }
+                    if (listener != null) {
+                        listener.onCellChanged(cell.cx, cell.cy, cell.weightedSum / cell.weights);
+                    }
+                }
+            }
+        }
+
+        /** Interpolated level of the cell, or NaN if no surveyed cell is near it. */
+        public float estimate(int cx, int cy) {
+            Cell cell = cells.get(key(cx, cy));
+            return cell == null || cell.weights == 0f ? Float.NaN : cell.weightedSum / cell.weights;
+        }
+
+        /** Mean surveyed level of the cell, or NaN if it was never walked through. */
+        public float mean(int cx, int cy) {
+            Cell cell = cells.get(key(cx, cy));
+            return cell == null || cell.count == 0 ? Float.NaN : cell.sum / cell.count;
+        }
+
+        public int getSampleCount() {
+            return samples;
+        }
+
+        public int getSurveyedCellCount() {
+            return surveyedCells;
+        }
+
+        /** Cells holding an estimate, surveyed or not. */
+        public int getCellCount() {
+            return cells.size();
+        }
+
+        /** Bounds of the surveyed cells; empty (min > max) before the first sample. */
+        public int getMinCx() {
+            return minCx;
+        }
+
+        public int getMinCy() {
+            return minCy;
+        }
+
+        public int getMaxCx() {
+            return maxCx;
+        }
+
+        public int getMaxCy() {
+            return maxCy;
+        }
+
+        private Cell cellAt(int cx, int cy) {
+            long key = key(cx, cy);
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                cell = new Cell(cx, cy);
+                cells.put(key, cell);
+            }
+            return cell;
+        }
+    }
+
+    /** Every estimated cell, copied out of the grid. Immutable, so any thread may write it. */
+    public static final class Export {
+        private final long[] bssids;
+        private final int[] cxs;
+        private final int[] cys;
+        private final int[] counts;
+        private final float[] means;
+        private final float[] estimates;
+
+        Export(int size) {
+            bssids = new long[size];
+            cxs = new int[size];
+            cys = new int[size];
+            counts = new int[size];
+            means = new float[size];
+            estimates = new float[size];
+        }
+
+        public int size() {
+            return bssids.length;
+        }
+
+        /**
+         * Writes the cells as CSV: BSSID, cell center in meters, samples and
+         * mean level (empty if not surveyed), and the estimate.
+         */
+        public void write(Writer out) throws IOException {
+            out.write("bssid,x_m,y_m,samples,mean_dbm,estimate_dbm\n");
+            for (int i = 0; i < bssids.length; i++) {
+                out.write(String.format(Locale.US, "%s,%.2f,%.2f,%d,%s,%.1f\n",
+                        Bssid.format(bssids[i]),
+                        (cxs[i] + 0.5f) * CELL_METERS, (cys[i] + 0.5f) * CELL_METERS,
+                        counts[i],
+                        counts[i] == 0 ? "" : String.format(Locale.US, "%.1f", means[i]),
+                        estimates[i]));
+            }
+            out.flush();
+        }
+    }
+
+    private final LongObjectMap<Layer> layers = new LongObjectMap<>();
+
+    /** Cell index of a coordinate in meters. */
+    public static int cellOf(float meters) {
+        return (int) Math.floor(meters / CELL_METERS);
+    }
+
+    /** The access point's layer, created on first use. */
+    public Layer layer(long bssidKey) {
+        Layer layer = layers.get(bssidKey);
+        if (layer == null) {
+            layer = new Layer(bssidKey);
+            layers.put(bssidKey, layer);
+        }
+        return layer;
+    }
+
+    /** The access point's layer, or null if it was never surveyed. */
+    public Layer find(long bssidKey) {
+        return layers.get(bssidKey);
+    }
+
+    public int getLayerCount() {
+        return layers.size();
+    }
+
+    public void clear() {
+        layers.clear();
+    }
+
+    /**
+     * Copies every estimated cell of every layer: a few array stores per
+     * cell, with the formatting left to {@link Export#write}.
+     */
+    public Export snapshot() {
+        final int[] size = new int[1];
+        layers.forEach((bssidKey, layer) -> layer.cells.forEach((key, cell) -> {
+            if (cell.weights != 0f) {
+                size[0]++;
+            }
+        }));
+        final Export export = new Export(size[0]);
+        final int[] next = new int[1];
+        layers.forEach((bssidKey, layer) -> layer.cells.forEach((key, cell) -> {
+            if (cell.weights == 0f) {
+                return;
+            }
+            int i = next[0]++;
+            export.bssids[i] = bssidKey;
+            export.cxs[i] = cell.cx;
+            export.cys[i] = cell.cy;
+            export.counts[i] = cell.count;
+            export.means[i] = cell.count == 0 ? Float.NaN : cell.sum / cell.count;
+            export.estimates[i] = cell.weightedSum / cell.weights;
+        }));
+        return export;
+    }
+
+    /** Writes every estimated cell as CSV; see {@link Export#write}. UI thread only. */
+    public void export(Writer out) throws IOException {
+        snapshot().write(out);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
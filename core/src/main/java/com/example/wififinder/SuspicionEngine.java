@@ -0,0 +1,227 @@
+package com.example.wififinder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * Classifies access points with a fixed set of {@link SuspicionRule}s.
+ * Each scan is walked once to update per-BSSID state and group SSIDs by
+ * vendor; the rules then run one after the other over the access points of
+ * that scan, so each rule is timed once per scan. A match sets the rule's
+ * bit in the access point's flags.
+ *
+ * <p>Not thread-safe: evaluate on one thread (the pipeline thread). The
+ * counters may be read from any thread.
+ */
+public final class SuspicionEngine {
+
+    private static final String TAG = "SuspicionEngine";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    /** Rule flags are bits of an int. */
+    public static final int MAX_RULES = 32;
+    /** Scans after which an access point that has not been seen is forgotten. */
+    static final int FORGET_AFTER_SCANS = 50;
+
+    // Vendors broadcasting one SSID in the current scan; two are enough to tell
+    private static final class SsidGroup {
+        final int firstOui;
+        int secondOui;
+        int vendors = 1;
+
+        SsidGroup(int oui) {
+            firstOui = oui;
+        }
+
+        void add(int oui) {
+            if (vendors == 1 && oui != firstOui) {
+                secondOui = oui;
+                vendors = 2;
+            } else if (vendors == 2 && oui != firstOui && oui != secondOui) {
+                vendors = 3;
+            }
+        }
+    }
+
+    private final SuspicionRule[] rules;
+    private final AtomicLongArray hits;
+    private final AtomicLongArray nanos;
+    private final AtomicLong scans = new AtomicLong();
+
+    private final LongObjectMap<AccessPointState> states = new LongObjectMap<>();
+    private final HashMap<String, SsidGroup> ssidGroups = new HashMap<>();
+    private AccessPointState[] inScan = new AccessPointState[64];
+    private int inScanCount = 0;
+    private long scanIndex = 0;
+
+    public SuspicionEngine(List<SuspicionRule> rules) {
+        if (rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " rules");
+        }
+        this.rules = rules.toArray(new SuspicionRule[0]);
+        this.hits = new AtomicLongArray(this.rules.length);
+        this.nanos = new AtomicLongArray(this.rules.length);
+    }
+
+    public static SuspicionEngine withDefaultRules() {
+        return new SuspicionEngine(SuspicionRules.defaults());
+    }
+
+    /** The default rules plus the check against known network fingerprints. */
+    public static SuspicionEngine withDefaultRules(FingerprintIndex fingerprints) {
+        return new SuspicionEngine(SuspicionRules.defaults(fingerprints));
+    }
+
+    /**
+     * Runs every rule over one scan. Call once per distinct scan: state such
+     * as the previous level advances on every call.
+     *
+     * @return the number of access points flagged by at least one rule
+     */
+    public int evaluate(List<AccessPoint> results) {
+        scanIndex++;
+        inScanCount = 0;
+        ssidGroups.clear();
+
+        for (int i = 0; i < results.size(); i++) {
+            AccessPoint sr = results.get(i);
+            long key = sr.getBssidKey();
+            if (!Bssid.isValid(key)) {
+                continue;
+            }
+            AccessPointState ap = states.get(key);
+            if (ap == null) {
+                ap = new AccessPointState(key);
+                states.put(key, ap);
+            } else if (ap.getLastSeenScan() == scanIndex) {
+                // Duplicate entry in the same scan
+                continue;
+            }
+            ap.observe(sr, scanIndex);
+
+            if (inScanCount == inScan.length) {
+                inScan = Arrays.copyOf(inScan, inScanCount * 2);
+            }
+            inScan[inScanCount++] = ap;
+
+            if (!ap.getSsid().isEmpty()) {
+                SsidGroup group = ssidGroups.get(ap.getSsid());
+                if (group == null) {
+                    ssidGroups.put(ap.getSsid(), new SsidGroup(ap.getOui()));
+                } else {
+                    group.add(ap.getOui());
+                }
+            }
+        }
+
+        for (int i = 0; i < inScanCount; i++) {
+            AccessPointState ap = inScan[i];
+            SsidGroup group = ap.getSsid().isEmpty() ? null : ssidGroups.get(ap.getSsid());
+            ap.setSsidVendorCount(group == null ? 0 : group.vendors);
+            ap.flags = 0;
+        }
+
+        for (int r = 0; r < rules.length; r++) {
+            SuspicionRule rule = rules[r];
+            int bit = 1 << r;
+            int matched = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < inScanCount; i++) {
+                AccessPointState ap = inScan[i];
+                if (rule.matches(ap)) {
+                    ap.flags |= bit;
+                    matched++;
+                }
+            }
+            nanos.addAndGet(r, System.nanoTime() - start);
+            hits.addAndGet(r, matched);
+        }
+        for (SuspicionRule rule : rules) {
+            rule.afterScan();
+        }
+
+        int flagged = 0;
+        for (int i = 0; i < inScanCount; i++) {
+            if (inScan[i].flags != 0) {
+                flagged++;
+            }
+        }
+
+        if (scanIndex % FORGET_AFTER_SCANS == 0) {
+            forgetGone();
+        }
+        scans.incrementAndGet();
+        return flagged;
+    }
+
+    /** Rule bits that matched the BSSID in the last scan; 0 if none or not in it. */
+    public int flagsFor(long bssidKey) {
+        AccessPointState ap = states.get(bssidKey);
+        return ap == null || ap.getLastSeenScan() != scanIndex ? 0 : ap.flags;
+    }
+
+    /** State of the BSSID, or null if it was never seen or has been forgotten. */
+    public AccessPointState stateFor(long bssidKey) {
+        return states.get(bssidKey);
+    }
+
+    /** Names of the rules set in the flags, comma separated. */
+    public String describe(int flags) {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rules.length; r++) {
+            if ((flags & (1 << r)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(rules[r].getName());
+            }
+        }
+        return sb.toString();
+    }
+
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    public String getRuleName(int rule) {
+        return rules[rule].getName();
+    }
+
+    /** Access points the rule has flagged, summed over every scan. */
+    public long getHits(int rule) {
+        return hits.get(rule);
+    }
+
+    /** Time spent in the rule, summed over every scan. */
+    public long getNanos(int rule) {
+        return nanos.get(rule);
+    }
+
+    public long getScanCount() {
+        return scans.get();
+    }
+
+    public void logStats() {
+        long n = Math.max(1, scans.get());
+        for (int r = 0; r < rules.length; r++) {
+            LOG.info("Rule " + rules[r].getName() + ": hits=" + hits.get(r)
+                    + ", avg " + nanos.get(r) / n + " ns/scan over " + scans.get() + " scans");
+        }
+    }
+
+    private void forgetGone() {
+        final long[] gone = new long[states.size()];
+        final int[] count = new int[1];
+        states.forEach((key, ap) -> {
+            if (scanIndex - ap.getLastSeenScan() >= FORGET_AFTER_SCANS) {
+                gone[count[0]++] = key;
+            }
+        });
+        for (int i = 0; i < count[0]; i++) {
+            states.remove(gone[i]);
+        }
+    }
+}
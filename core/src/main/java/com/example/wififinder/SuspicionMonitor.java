@@ -0,0 +1,94 @@
+package com.example.wififinder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs a {@link SuspicionEngine} over every new scan generation, whether or
+ * not a screen is showing, so per-BSSID rule state (the previous level, how
+ * often an access point came and went) survives activities being recreated.
+ * The app registers it as a {@link ScanStore} listener; screens read the
+ * verdicts of a scan through {@link #verdictsFor}.
+ */
+public final class SuspicionMonitor implements ScanStore.Listener {
+
+    /** Names of the rules each access point of one scan generation matched. Immutable. */
+    public static final class Verdicts {
+        static final Verdicts NONE = new Verdicts(0, new LongObjectMap<String>());
+
+        private final long generation;
+        private final LongObjectMap<String> reasons;
+
+        Verdicts(long generation, LongObjectMap<String> reasons) {
+            this.generation = generation;
+            this.reasons = reasons;
+        }
+
+        /** The {@link ScanStore} generation these verdicts were made for. */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /** @return the rules the BSSID matched, comma separated, or "" if none did */
+        public String reasonFor(long bssidKey) {
+            String reason = reasons.get(bssidKey);
+            return reason == null ? "" : reason;
+        }
+
+        public int getFlaggedCount() {
+            return reasons.size();
+        }
+    }
+
+    private static SuspicionMonitor instance;
+
+    private final SuspicionEngine engine;
+    // Guarded by this
+    private Verdicts latest = Verdicts.NONE;
+
+    public SuspicionMonitor(SuspicionEngine engine) {
+        this.engine = engine;
+    }
+
+    /** The app's monitor: the default rules plus its fingerprint index. Does no I/O. */
+    public static synchronized SuspicionMonitor getInstance(File filesDir) {
+        if (instance == null) {
+            instance = new SuspicionMonitor(
+                    SuspicionEngine.withDefaultRules(FingerprintIndex.getInstance(filesDir)));
+        }
+        return instance;
+    }
+
+    @Override
+    public void onNewGeneration(ScanStore.Snapshot snapshot) {
+        verdictsFor(snapshot);
+    }
+
+    /**
+     * Verdicts for the scan, evaluating it first if the listener has not got
+     * to it yet. Each generation is evaluated once. A scan older than the
+     * last one evaluated gets the latest verdicts, since rule state only
+     * moves forward.
+     */
+    public synchronized Verdicts verdictsFor(ScanStore.Snapshot scan) {
+        if (scan.getGeneration() > latest.generation) {
+            List<AccessPoint> results = scan.getResults();
+            engine.evaluate(results);
+            LongObjectMap<String> reasons = new LongObjectMap<>();
+            for (int i = 0; i < results.size(); i++) {
+                long key = results.get(i).getBssidKey();
+                int flags = engine.flagsFor(key);
+                if (flags != 0 && !reasons.containsKey(key)) {
+                    reasons.put(key, engine.describe(flags));
+                }
+            }
+            latest = new Verdicts(scan.getGeneration(), reasons);
+        }
+        return latest;
+    }
+
+    /** Rule hit counters and timings; safe to read from any thread. */
+    public SuspicionEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.wififinder;
+
+/**
+ * One check in the {@link SuspicionEngine}. Rules keep no state of their
+ * own; anything they need from earlier scans is kept in the
+ * {@link AccessPointState}, or in a store they are given.
+ */
+public interface SuspicionRule {
+
+    /** Short label shown next to a flagged network. */
+    String getName();
+
+    boolean matches(AccessPointState ap);
+
+    /** Called once the scan has been through every rule, e.g. to persist what was learned. */
+    default void afterScan() {
+    }
+}
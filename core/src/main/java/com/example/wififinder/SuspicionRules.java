@@ -0,0 +1,138 @@
+package com.example.wififinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** The built-in {@link SuspicionRule}s. */
+public final class SuspicionRules {
+
+    /** The original check: an access point this loud is within a few meters. */
+    public static final int STRONG_SIGNAL_LEVEL = -50;
+    public static final int HIDDEN_STRONG_LEVEL = -60;
+    public static final int RSSI_JUMP_DB = 20;
+    public static final int FLAPPING_REAPPEARANCES = 3;
+
+    private SuspicionRules() {
+    }
+
+    /** Rules the list screen runs on every scan. */
+    public static List<SuspicionRule> defaults() {
+        return Arrays.asList(
+                strongSignal(STRONG_SIGNAL_LEVEL),
+                evilTwin(),
+                rssiJump(RSSI_JUMP_DB),
+                hiddenStrong(HIDDEN_STRONG_LEVEL),
+                flapping(FLAPPING_REAPPEARANCES));
+    }
+
+    /** The defaults, plus checking every named network against its known fingerprint. */
+    public static List<SuspicionRule> defaults(FingerprintIndex fingerprints) {
+        List<SuspicionRule> rules = new ArrayList<>(defaults());
+        rules.add(rogueAccessPoint(fingerprints));
+        return rules;
+    }
+
+    public static SuspicionRule strongSignal(final int aboveLevel) {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "VERY CLOSE";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return ap.getLevel() > aboveLevel;
+            }
+        };
+    }
+
+    /**
+     * The same SSID from access points of different vendors, e.g. a phone
+     * hotspot (randomized BSSID) copying a router's name. A mesh built from
+     * one vendor's hardware is a single group and is not flagged.
+     */
+    public static SuspicionRule evilTwin() {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "EVIL TWIN";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return ap.getSsidVendorCount() > 1;
+            }
+        };
+    }
+
+    /** A level change between consecutive scans that walking cannot explain. */
+    public static SuspicionRule rssiJump(final int minJumpDb) {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "RSSI JUMP";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return ap.wasSeenInPreviousScan()
+                        && Math.abs(ap.getLevel() - ap.getPreviousLevel()) >= minJumpDb;
+            }
+        };
+    }
+
+    public static SuspicionRule hiddenStrong(final int aboveLevel) {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "HIDDEN NEARBY";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return ap.getSsid().isEmpty() && ap.getLevel() > aboveLevel;
+            }
+        };
+    }
+
+    /** A beacon that keeps vanishing and coming back, as a toggled hotspot does. */
+    public static SuspicionRule flapping(final int minReappearances) {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "APPEARS/VANISHES";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return ap.getReappearances() >= minReappearances;
+            }
+        };
+    }
+
+    /**
+     * An access point claiming a known SSID that does not fit what that SSID
+     * has been seen with before: another vendor, weaker security, or a known
+     * BSSID on another band. Unlike {@link #evilTwin()} this works when the
+     * real network is out of range.
+     */
+    public static SuspicionRule rogueAccessPoint(final FingerprintIndex fingerprints) {
+        return new SuspicionRule() {
+            @Override
+            public String getName() {
+                return "ROGUE AP";
+            }
+
+            @Override
+            public boolean matches(AccessPointState ap) {
+                return fingerprints.check(ap) != 0;
+            }
+
+            @Override
+            public void afterScan() {
+                fingerprints.saveIfDue(System.currentTimeMillis());
+            }
+        };
+    }
+}
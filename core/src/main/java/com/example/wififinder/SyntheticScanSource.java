@@ -0,0 +1,158 @@
+package com.example.wififinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A made-up neighbourhood for running the scan logic without a radio.
+ * Access points sit at fixed spots on a square area, and a listener walks
+ * across it, one step per scan. Levels follow the log-distance path loss
+ * model with Gaussian noise, and access points below the noise floor drop
+ * out. The same seed always gives the same scans.
+ *
+ * <p>The mix is meant to look like a dense building: 2.4, 5 and 6 GHz with
+ * wide channels, repeated network names (some with different security),
+ * and hidden networks.
+ */
+public final class SyntheticScanSource implements ScanSource {
+
+    public static final long SCAN_INTERVAL_MS = 5000;
+    // Start of the simulated clock, an arbitrary fixed date
+    public static final long START_TIME_MS = 1_700_000_000_000L;
+
+    private static final int NOISE_FLOOR_DBM = -95;
+    private static final float AREA_METERS = 60f;
+    private static final float STEP_METERS = 1.4f;
+    private static final double NOISE_DB = 3.0;
+    private static final String[] SECURITY = {
+            "[WPA2-PSK-CCMP][RSN-PSK-CCMP][ESS]",
+            "[RSN-SAE-CCMP][ESS]",
+            "[WPA2-EAP-CCMP][ESS]",
+            "[ESS]",
+    };
+    private static final int[] CHANNELS_24 = {2412, 2437, 2462};
+    private static final int[] PRIMARIES_5 = {5180, 5260, 5500, 5580, 5745};
+    private static final int[] PRIMARIES_6 = {5955, 6035, 6115};
+
+    private final Random random;
+    private final String[] bssids;
+    private final String[] ssids;
+    private final String[] capabilities;
+    private final int[] frequencies;
+    private final int[] widths;
+    private final int[] centers;
+    private final int[] rssiAt1m;
+    private final float[] xs;
+    private final float[] ys;
+
+    private float walkerX;
+    private float walkerY;
+    private float heading;
+    private long timeMs = START_TIME_MS;
+    private int scanCount = 0;
+    private List<AccessPoint> current = Collections.emptyList();
+
+    public SyntheticScanSource(long seed, int networkCount) {
+        random = new Random(seed);
+        bssids = new String[networkCount];
+        ssids = new String[networkCount];
+        capabilities = new String[networkCount];
+        frequencies = new int[networkCount];
+        widths = new int[networkCount];
+        centers = new int[networkCount];
+        rssiAt1m = new int[networkCount];
+        xs = new float[networkCount];
+        ys = new float[networkCount];
+
+        // About one name for every three access points, so names repeat
+        int names = Math.max(1, networkCount / 3);
+        for (int i = 0; i < networkCount; i++) {
+            bssids[i] = Bssid.format(((long) random.nextInt(1 << 24) << 24) | i);
+            int name = random.nextInt(names);
+            ssids[i] = random.nextInt(20) == 0 ? "" : String.format(Locale.US, "net-%03d", name);
+            // Most names keep one security type; a few access points differ
+            capabilities[i] = SECURITY[random.nextInt(10) == 0 ? random.nextInt(SECURITY.length)
+                    : name % SECURITY.length];
+            int band = random.nextInt(10);
+            if (band < 4) {
+                frequencies[i] = CHANNELS_24[random.nextInt(CHANNELS_24.length)];
+                widths[i] = AccessPoint.CHANNEL_WIDTH_20MHZ;
+            } else {
+                int[] primaries = band < 8 ? PRIMARIES_5 : PRIMARIES_6;
+                frequencies[i] = primaries[random.nextInt(primaries.length)];
+                widths[i] = AccessPoint.CHANNEL_WIDTH_20MHZ + random.nextInt(3);
+                // The primary is the lowest 20 MHz of the block
+                int span = 20 << widths[i];
+                centers[i] = widths[i] == AccessPoint.CHANNEL_WIDTH_20MHZ ? 0 : frequencies[i] + (span - 20) / 2;
+            }
+            rssiAt1m[i] = -35 - random.nextInt(15);
+            xs[i] = random.nextFloat() * AREA_METERS;
+            ys[i] = random.nextFloat() * AREA_METERS;
+        }
+        walkerX = AREA_METERS / 2;
+        walkerY = AREA_METERS / 2;
+        heading = random.nextFloat() * 2 * (float) Math.PI;
+    }
+
+    /** Takes one step and hears every access point from there. Never refused. */
+    @Override
+    public boolean startScan() {
+        step();
+        timeMs += SCAN_INTERVAL_MS;
+        scanCount++;
+
+        List<AccessPoint> results = new ArrayList<>(bssids.length);
+        for (int i = 0; i < bssids.length; i++) {
+            double dx = xs[i] - walkerX;
+            double dy = ys[i] - walkerY;
+            double distance = Math.max(1.0, Math.sqrt(dx * dx + dy * dy));
+            int level = (int) Math.round(rssiAt1m[i] - 10 * PathLossModel.DEFAULT.getExponent()
+                    * Math.log10(distance) + random.nextGaussian() * NOISE_DB);
+            if (level < NOISE_FLOOR_DBM) {
+                continue;
+            }
+            results.add(new AccessPoint(bssids[i], ssids[i], capabilities[i], level, frequencies[i],
+                    timeMs - random.nextInt(1000), widths[i], centers[i], 0));
+        }
+        current = Collections.unmodifiableList(results);
+        return true;
+    }
+
+    @Override
+    public List<AccessPoint> getScanResults() {
+        return current;
+    }
+
+    /** Simulated time of the latest scan. */
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    public float getWalkerX() {
+        return walkerX;
+    }
+
+    public float getWalkerY() {
+        return walkerY;
+    }
+
+    // Mostly straight ahead, turning back at the edges
+    private void step() {
+        heading += (float) (random.nextGaussian() * 0.3);
+        float x = walkerX + STEP_METERS * (float) Math.sin(heading);
+        float y = walkerY - STEP_METERS * (float) Math.cos(heading);
+        if (x < 0 || y < 0 || x > AREA_METERS || y > AREA_METERS) {
+            heading += (float) Math.PI;
+            return;
+        }
+        walkerX = x;
+        walkerY = y;
+    }
+}
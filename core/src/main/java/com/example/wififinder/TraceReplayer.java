@@ -0,0 +1,117 @@
+package com.example.wififinder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Feeds a recorded scan trace back to the app logic, either at the pace it
+ * was recorded (or a multiple of it) or as fast as the listener takes it.
+ * Every event carries its recorded time, so what the logic computes does
+ * not depend on the replay speed or the machine.
+ */
+public final class TraceReplayer {
+
+    private static final String TAG = "TraceReplayer";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    /** Speed that never waits between events. */
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+
+    /** Receives the trace's events on the thread that called {@link #run}. */
+    public interface Listener {
+        void onScanAvailable(long timeMs, boolean updated);
+
+        void onScanResults(long timeMs, List<AccessPoint> results);
+
+        void onRssiPoll(long timeMs, long bssidKey, int rssi);
+    }
+
+    public interface Clock {
+        long nowMs();
+
+        void sleepMs(long ms) throws InterruptedException;
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nowMs() {
+            return System.nanoTime() / 1_000_000;
+        }
+
+        @Override
+        public void sleepMs(long ms) throws InterruptedException {
+            Thread.sleep(ms);
+        }
+    };
+
+    private final ScanTraceReader reader;
+    private final Listener listener;
+    private final Clock clock;
+    private double speed = 1;
+    private long maxLagMs = 0;
+
+    public TraceReplayer(ScanTraceReader reader, Listener listener) {
+        this(reader, listener, SYSTEM_CLOCK);
+    }
+
+    public TraceReplayer(ScanTraceReader reader, Listener listener, Clock clock) {
+        this.reader = reader;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /** @param speed 1 for the recorded pace, 2 for twice as fast, or {@link #AS_FAST_AS_POSSIBLE} */
+    public void setSpeed(double speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Negative speed " + speed);
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * Replays the rest of the trace. At a set speed each event is due at its
+     * offset from the trace start; waits are taken against that schedule, so
+     * slow listeners do not make the replay drift.
+     *
+     * @return the number of events replayed
+     */
+    public long run() throws IOException, InterruptedException {
+        long startedAt = clock.nowMs();
+        long traceStart = reader.getStartMs();
+        long replayed = 0;
+        ScanTraceReader.Event event;
+        while ((event = reader.next()) != null) {
+            long timeMs = reader.getTimeMs();
+            if (speed != AS_FAST_AS_POSSIBLE) {
+                long dueAt = startedAt + (long) ((timeMs - traceStart) / speed);
+                long waitMs = dueAt - clock.nowMs();
+                if (waitMs > 0) {
+                    clock.sleepMs(waitMs);
+                } else {
+                    maxLagMs = Math.max(maxLagMs, -waitMs);
+                }
+            }
+            switch (event) {
+                case SCAN_AVAILABLE:
+                    listener.onScanAvailable(timeMs, reader.isUpdated());
+                    break;
+                case SCAN_RESULTS:
+                    listener.onScanResults(timeMs, reader.getResults());
+                    break;
+                case RSSI_POLL:
+                    listener.onRssiPoll(timeMs, reader.getBssidKey(), reader.getRssi());
+                    break;
+            }
+            replayed++;
+        }
+        LOG.info("run: Replayed " + replayed + " events in " + (clock.nowMs() - startedAt)
+                + " ms, at most " + maxLagMs + " ms behind");
+        return replayed;
+    }
+
+    /** How far the listener fell behind the recorded pace at worst; 0 when not paced. */
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+}
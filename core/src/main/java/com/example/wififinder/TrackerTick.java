@@ -0,0 +1,130 @@
+package com.example.wififinder;
+
+/**
+ * The tracker's per-tick work once a level is known: smoothing, the readout
+ * and vibration. Every text and color comes from the {@link SignalStyleTable},
+ * and the {@link Display} is only called for what changed since the last
+ * tick, so a warm tick allocates nothing and a steady signal touches no view.
+ */
+public final class TrackerTick {
+
+    // Readout while the target is not heard
+    static final String LOST_RSSI_TEXT = "--";
+    static final String LOST_DISTANCE_TEXT = "Out of range";
+    static final String LOST_QUALITY_TEXT = "No Signal";
+    private static final int LOST_RSSI = -100;
+
+    /** The tracker's views. Named after the views; see TrackerActivity for what goes where. */
+    public interface Display {
+        void showRssiValue(String text);
+
+        void showDistance(String text);
+
+        void showQuality(String text);
+
+        void showQualityColor(int color);
+
+        void showCircle(int fillColor, int strokeColor);
+    }
+
+    private final long targetKey;
+    private final RssiFilterBank filterBank;
+    private final HapticEngine haptics;
+    private final Display display;
+    private SignalStyleTable styleTable = SignalStyleTable.getDefault();
+    private boolean vibrationEnabled = true;
+    private int smoothedRssi = LOST_RSSI;
+
+    // What the display shows now; null or 0 until first set
+    private String rssiValue;
+    private String distance;
+    private String quality;
+    private int qualityColor;
+    private int fillColor;
+    private int strokeColor;
+
+    public TrackerTick(long targetKey, RssiFilterBank filterBank, HapticEngine haptics, Display display) {
+        this.targetKey = targetKey;
+        this.filterBank = filterBank;
+        this.haptics = haptics;
+        this.display = display;
+    }
+
+    public void setStyleTable(SignalStyleTable styleTable) {
+        this.styleTable = styleTable;
+    }
+
+    public void setVibrationEnabled(boolean enabled) {
+        vibrationEnabled = enabled;
+    }
+
+    /** Last smoothed level, or -100 while lost. */
+    public int getSmoothedRssi() {
+        return smoothedRssi;
+    }
+
+    /** A fresh reading of the target. */
+    public void onSample(int rssi, long nowMs) {
+        // Raw sample first, everything else from the smoothed level
+        setDistance(styleTable.get(rssi).getLevelText());
+
+        smoothedRssi = Math.round(filterBank.update(targetKey, rssi));
+        SignalStyle style = styleTable.get(smoothedRssi);
+        setRssiValue(style.getDistanceText());
+        setQuality(style.getQuality());
+        setQualityColor(style.getQualityColor());
+        setCircle(style.getFillColor(), style.getStrokeColor());
+
+        if (vibrationEnabled) {
+            haptics.update(smoothedRssi, nowMs);
+        }
+    }
+
+    /** The target was not heard this tick. */
+    public void onLost(long nowMs) {
+        smoothedRssi = LOST_RSSI;
+        filterBank.reset(targetKey);
+        setRssiValue(LOST_RSSI_TEXT);
+        setDistance(LOST_DISTANCE_TEXT);
+        setQuality(LOST_QUALITY_TEXT);
+        SignalStyle style = styleTable.get(LOST_RSSI);
+        setCircle(style.getFillColor(), style.getStrokeColor());
+        haptics.stop(nowMs);
+    }
+
+    private void setRssiValue(String text) {
+        if (!text.equals(rssiValue)) {
+            rssiValue = text;
+            display.showRssiValue(text);
+        }
+    }
+
+    private void setDistance(String text) {
+        if (!text.equals(distance)) {
+            distance = text;
+            display.showDistance(text);
+        }
+    }
+
+    private void setQuality(String text) {
+        if (!text.equals(quality)) {
+            quality = text;
+            display.showQuality(text);
+        }
+    }
+
+    private void setQualityColor(int color) {
+        if (color != qualityColor) {
+            qualityColor = color;
+            display.showQualityColor(color);
+        }
+    }
+
+    private void setCircle(int fill, int stroke) {
+        if (fill != fillColor || stroke != strokeColor) {
+            fillColor = fill;
+            strokeColor = stroke;
+            display.showCircle(fill, stroke);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BssidTest {
+
+    @Test
+    public void parsesLowerCase() {
+        assertEquals(0xaabbccddeeffL, Bssid.parse("aa:bb:cc:dd:ee:ff"));
+    }
+
+    @Test
+    public void caseVariantsMapToTheSameKey() {
+        long key = Bssid.parse("0a:1b:2c:3d:4e:5f");
+        assertEquals(key, Bssid.parse("0A:1B:2C:3D:4E:5F"));
+        assertEquals(key, Bssid.parse("0a:1B:2c:3D:4e:5F"));
+        assertEquals(key, Bssid.parse("0A-1B-2C-3D-4E-5F"));
+    }
+
+    @Test
+    public void parsesExtremes() {
+        assertEquals(0L, Bssid.parse("00:00:00:00:00:00"));
+        assertEquals(0xFFFFFFFFFFFFL, Bssid.parse("ff:ff:ff:ff:ff:ff"));
+        assertTrue(Bssid.isValid(Bssid.parse("ff:ff:ff:ff:ff:ff")));
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        assertEquals(Bssid.INVALID, Bssid.parse(null));
+        assertEquals(Bssid.INVALID, Bssid.parse(""));
+        assertEquals(Bssid.INVALID, Bssid.parse("aa:bb:cc:dd:ee"));
+        assertEquals(Bssid.INVALID, Bssid.parse("aa:bb:cc:dd:ee:ff:00"));
+        assertEquals(Bssid.INVALID, Bssid.parse("aa:bb:cc:dd:ee:fg"));
+        assertEquals(Bssid.INVALID, Bssid.parse("aa-bb:cc:dd:ee:ff"));
+        assertEquals(Bssid.INVALID, Bssid.parse("aa.bb.cc.dd.ee.ff"));
+        assertEquals(Bssid.INVALID, Bssid.parse("aabbccddeeff00000"));
+        assertEquals(Bssid.INVALID, Bssid.parse(" aa:bb:cc:dd:ee:f"));
+        assertFalse(Bssid.isValid(Bssid.INVALID));
+    }
+
+    @Test
+    public void formatRoundTrips() {
+        String text = "02:1a:ff:00:9c:e4";
+        assertEquals(text, Bssid.format(Bssid.parse(text)));
+        assertEquals(text, Bssid.format(Bssid.parse(text.toUpperCase())));
+        assertNull(Bssid.format(Bssid.INVALID));
+    }
+
+    @Test
+    public void extractsVendorBits() {
+        long key = Bssid.parse("02:1a:ff:00:9c:e4");
+        assertEquals(0x021aff, Bssid.oui(key));
+        assertTrue(Bssid.isLocallyAdministered(key));
+        assertFalse(Bssid.isLocallyAdministered(Bssid.parse("00:1a:ff:00:9c:e4")));
+    }
+}
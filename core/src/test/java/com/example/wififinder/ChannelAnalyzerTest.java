@@ -0,0 +1,184 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChannelAnalyzerTest {
+
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void mapsFrequenciesToChannels() {
+        assertEquals(1, ChannelAnalyzer.channelOf(2412));
+        assertEquals(13, ChannelAnalyzer.channelOf(2472));
+        assertEquals(14, ChannelAnalyzer.channelOf(2484));
+        assertEquals(36, ChannelAnalyzer.channelOf(5180));
+        assertEquals(165, ChannelAnalyzer.channelOf(5825));
+        assertEquals(1, ChannelAnalyzer.channelOf(5955));
+        assertEquals(37, ChannelAnalyzer.channelOf(6135));
+        assertEquals(0, ChannelAnalyzer.channelOf(900));
+        assertEquals(5180, ChannelAnalyzer.centerOf(5, 36));
+    }
+
+    @Test
+    public void twoGigahertzApSpillsOntoNeighbours() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+
+        analyzer.update(scan(ap(2437, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -35)));
+
+        assertEquals(1f, analyzer.getLoad(2, 6), DELTA);
+        assertEquals(0.75f, analyzer.getLoad(2, 5), DELTA);
+        assertEquals(0.75f, analyzer.getLoad(2, 7), DELTA);
+        assertEquals(0.5f, analyzer.getLoad(2, 4), DELTA);
+        assertEquals(0.25f, analyzer.getLoad(2, 9), DELTA);
+        assertEquals(0f, analyzer.getLoad(2, 10), DELTA);
+        assertEquals(0f, analyzer.getLoad(2, 1), DELTA);
+        assertEquals(1, analyzer.getAccessPointCount(2, 6));
+        assertEquals(0, analyzer.getAccessPointCount(2, 5));
+    }
+
+    @Test
+    public void weightsByLevel() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+
+        analyzer.update(scan(ap(2412, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -65),
+                ap(2462, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -95)));
+
+        assertEquals(0.5f, analyzer.getLoad(2, 1), DELTA);
+        // Heard, but too faint to interfere
+        assertEquals(0f, analyzer.getLoad(2, 11), DELTA);
+        assertEquals(1, analyzer.getAccessPointCount(2, 11));
+    }
+
+    @Test
+    public void wideChannelsLoadEverySubchannel() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+
+        // 80 MHz over 36-48, primary 36, centered on channel 42
+        analyzer.update(scan(ap(5180, AccessPoint.CHANNEL_WIDTH_80MHZ, 5210, -35),
+                ap(5500, AccessPoint.CHANNEL_WIDTH_40MHZ, 5510, -35)));
+
+        for (int channel : new int[]{36, 40, 44, 48, 100, 104}) {
+            assertEquals("channel " + channel, 1f, analyzer.getLoad(5, channel), DELTA);
+        }
+        assertEquals(0f, analyzer.getLoad(5, 52), DELTA);
+        assertEquals(0f, analyzer.getLoad(5, 108), DELTA);
+        assertEquals(52, analyzer.recommend(5));
+    }
+
+    @Test
+    public void eightyPlusEightyLoadsBothSegments() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        AccessPoint sr = new AccessPoint("00:11:22:33:44:55", "net", "", -35, 5180, 0,
+                AccessPoint.CHANNEL_WIDTH_80MHZ_PLUS_MHZ, 5210, 5530);
+
+        analyzer.update(scan(sr));
+
+        assertEquals(1f, analyzer.getLoad(5, 48), DELTA);
+        assertEquals(1f, analyzer.getLoad(5, 112), DELTA);
+        assertEquals(0f, analyzer.getLoad(5, 64), DELTA);
+    }
+
+    @Test
+    public void recommendsTheQuietChannelInADenseBand() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        List<AccessPoint> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(ap(2412, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -50));
+            results.add(ap(2437, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -50));
+        }
+        // Few, but loud, and one of them wide
+        results.add(ap(2462, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -40));
+        results.add(ap(2452, AccessPoint.CHANNEL_WIDTH_40MHZ, 2442, -40));
+
+        analyzer.update(results);
+
+        assertEquals(11, analyzer.recommend(2));
+        assertTrue(analyzer.getLoad(2, 1) > analyzer.getLoad(2, 11));
+        assertTrue(analyzer.getLoad(2, 6) > analyzer.getLoad(2, 11));
+    }
+
+    @Test
+    public void bandsNeverHeardHaveNoRecommendation() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        analyzer.update(scan(ap(2412, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -50)));
+
+        assertTrue(analyzer.hasSeen(2));
+        assertFalse(analyzer.hasSeen(6));
+        assertEquals(0, analyzer.recommend(6));
+        assertEquals(6, analyzer.recommend(2));
+    }
+
+    @Test
+    public void smoothsAcrossScans() {
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        analyzer.update(scan(ap(5180, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -35)));
+        analyzer.update(scan());
+
+        assertEquals(1f - ChannelAnalyzer.SMOOTHING, analyzer.getLoad(5, 36), DELTA);
+        assertEquals(0, analyzer.getAccessPointCount(5, 36));
+        assertEquals(2, analyzer.getScanCount());
+    }
+
+    @Test
+    public void appliesEachGenerationOnce() {
+        ScanStore store = new ScanStore();
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        ScanStore.Snapshot snapshot = store.update(
+                scan(ap(5180, AccessPoint.CHANNEL_WIDTH_20MHZ, 0, -35)), 1);
+
+        assertTrue(analyzer.update(snapshot));
+        assertFalse(analyzer.update(snapshot));
+        assertEquals(1, analyzer.getScanCount());
+    }
+
+    @Test
+    public void denseScansRecommendTheLeastLoadedCandidate() {
+        Random random = new Random(3);
+        int[] widths = {AccessPoint.CHANNEL_WIDTH_20MHZ, AccessPoint.CHANNEL_WIDTH_40MHZ,
+                AccessPoint.CHANNEL_WIDTH_80MHZ, AccessPoint.CHANNEL_WIDTH_160MHZ};
+        List<List<AccessPoint>> scans = new ArrayList<>();
+        for (int s = 0; s < 10; s++) {
+            List<AccessPoint> results = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                int band = ChannelAnalyzer.BANDS[random.nextInt(3)];
+                int candidate = ChannelAnalyzer.getCandidate(band,
+                        random.nextInt(ChannelAnalyzer.getCandidateCount(band)));
+                int width = band == 2 ? AccessPoint.CHANNEL_WIDTH_20MHZ : widths[random.nextInt(widths.length)];
+                int center = ChannelAnalyzer.centerOf(band, candidate);
+                results.add(ap(center, width, center, -30 - random.nextInt(65)));
+            }
+            scans.add(results);
+        }
+        ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        for (int i = 0; i < 1000; i++) {
+            analyzer.update(scans.get(i % scans.size()));
+        }
+
+        assertEquals(1000, analyzer.getScanCount());
+        for (int band : ChannelAnalyzer.BANDS) {
+            int recommended = analyzer.recommend(band);
+            boolean candidate = false;
+            for (int i = 0; i < ChannelAnalyzer.getCandidateCount(band); i++) {
+                int channel = ChannelAnalyzer.getCandidate(band, i);
+                candidate |= channel == recommended;
+                assertTrue(analyzer.getLoad(band, recommended) <= analyzer.getLoad(band, channel));
+            }
+            assertTrue(band + " GHz: " + recommended, candidate);
+        }
+    }
+
+    private static AccessPoint ap(int frequency, int width, int centerFreq0, int level) {
+        return new AccessPoint("00:11:22:33:44:55", "net", "", level, frequency, 0, width, centerFreq0, 0);
+    }
+
+    private static List<AccessPoint> scan(AccessPoint... results) {
+        return Arrays.asList(results);
+    }
+}
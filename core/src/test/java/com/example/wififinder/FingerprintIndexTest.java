@@ -0,0 +1,199 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FingerprintIndexTest {
+
+    private static final String WPA2 = "[WPA2-PSK-CCMP][RSN-PSK-CCMP][ESS]";
+    private static final String WPA3 = "[RSN-SAE-CCMP][ESS]";
+    private static final String TRANSITION = "[RSN-PSK+SAE-CCMP][ESS]";
+    private static final String OPEN = "[ESS]";
+
+    private static final String ROUTER_1 = "00:11:22:00:00:01";
+    private static final String ROUTER_2 = "00:11:22:00:00:02";
+    private static final String OTHER_VENDOR = "00:33:44:00:00:01";
+    private static final String RANDOMIZED = "02:aa:bb:00:00:01";
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fingerprints").toFile();
+        file = new File(directory, FingerprintIndex.FILE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void parsesSecurityFromCapabilities() {
+        assertEquals(FingerprintIndex.SECURITY_PSK, FingerprintIndex.securityOf(WPA2));
+        assertEquals(FingerprintIndex.SECURITY_SAE, FingerprintIndex.securityOf(WPA3));
+        assertEquals(FingerprintIndex.SECURITY_PSK | FingerprintIndex.SECURITY_SAE,
+                FingerprintIndex.securityOf(TRANSITION));
+        assertEquals(FingerprintIndex.SECURITY_OPEN, FingerprintIndex.securityOf(OPEN));
+        assertEquals(FingerprintIndex.SECURITY_EAP,
+                FingerprintIndex.securityOf("[WPA2-EAP/SHA1-CCMP][RSN-EAP/SHA1-CCMP][ESS]"));
+        assertEquals(FingerprintIndex.SECURITY_OPEN, FingerprintIndex.securityOf(null));
+    }
+
+    @Test
+    public void sameVendorAndSecurityIsLearned() {
+        FingerprintIndex index = new FingerprintIndex(file);
+
+        assertEquals(0, index.check(state(ROUTER_1, "home", WPA2, 2437)));
+        // A second mesh node of the same make
+        assertEquals(0, index.check(state(ROUTER_2, "home", WPA2, 5180)));
+
+        assertEquals(1, index.getNetworkCount());
+        assertEquals(2, index.getAccessPointCount());
+    }
+
+    @Test
+    public void impostorIsReportedAndNeverLearned() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        index.check(state(ROUTER_1, "home", WPA2, 2437));
+
+        int mismatch = index.check(state(RANDOMIZED, "home", OPEN, 2437));
+        assertEquals(FingerprintIndex.MISMATCH_VENDOR | FingerprintIndex.MISMATCH_SECURITY, mismatch);
+        assertEquals(mismatch, index.check(state(RANDOMIZED, "home", OPEN, 2437)));
+
+        assertEquals(FingerprintIndex.MISMATCH_VENDOR,
+                index.check(state(OTHER_VENDOR, "home", WPA2, 2437)));
+        assertEquals(1, index.getAccessPointCount());
+    }
+
+    @Test
+    public void knownAccessPointMayUpgradeButNotDowngrade() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        index.check(state(ROUTER_1, "home", WPA2, 2437));
+
+        assertEquals(0, index.check(state(ROUTER_1, "home", TRANSITION, 2437)));
+        assertEquals(0, index.check(state(ROUTER_1, "home", WPA3, 2437)));
+        assertEquals(FingerprintIndex.MISMATCH_SECURITY,
+                index.check(state(ROUTER_1, "home", OPEN, 2437)));
+        assertEquals(FingerprintIndex.MISMATCH_BAND,
+                index.check(state(ROUTER_1, "home", WPA3, 5180)));
+    }
+
+    @Test
+    public void hiddenNetworksAreSkipped() {
+        FingerprintIndex index = new FingerprintIndex(file);
+
+        assertEquals(0, index.check(state(ROUTER_1, "", WPA2, 2437)));
+        assertEquals(0, index.getAccessPointCount());
+    }
+
+    @Test
+    public void loadsLazilyAndSurvivesARestart() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        index.check(state(ROUTER_1, "home", WPA2, 2437));
+        index.check(state(OTHER_VENDOR, "cafe", OPEN, 5180));
+        index.saveIfDue(FingerprintIndex.SAVE_INTERVAL_MS);
+        assertTrue(file.exists());
+
+        FingerprintIndex reopened = new FingerprintIndex(file);
+        assertFalse(reopened.isLoaded());
+        assertEquals(FingerprintIndex.MISMATCH_VENDOR | FingerprintIndex.MISMATCH_SECURITY,
+                reopened.check(state(RANDOMIZED, "home", OPEN, 2437)));
+        assertTrue(reopened.isLoaded());
+        assertEquals(2, reopened.getNetworkCount());
+        assertEquals(FingerprintIndex.MISMATCH_BAND,
+                reopened.check(state(OTHER_VENDOR, "cafe", OPEN, 2437)));
+    }
+
+    @Test
+    public void savesAreThrottled() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        index.check(state(ROUTER_1, "home", WPA2, 2437));
+        index.saveIfDue(FingerprintIndex.SAVE_INTERVAL_MS);
+        long length = file.length();
+
+        index.check(state(ROUTER_2, "home", WPA2, 2437));
+        index.saveIfDue(FingerprintIndex.SAVE_INTERVAL_MS + 1000);
+        assertEquals(length, file.length());
+
+        index.saveIfDue(FingerprintIndex.SAVE_INTERVAL_MS * 2);
+        assertTrue(file.length() > length);
+    }
+
+    @Test
+    public void unreadableFileStartsEmpty() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{'j', 'u', 'n', 'k'});
+        }
+        FingerprintIndex index = new FingerprintIndex(file);
+
+        assertEquals(0, index.check(state(ROUTER_1, "home", WPA2, 2437)));
+        assertEquals(1, index.getAccessPointCount());
+    }
+
+    @Test
+    public void ruleFlagsThroughTheEngine() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        SuspicionEngine engine = new SuspicionEngine(
+                Arrays.asList(SuspicionRules.rogueAccessPoint(index)));
+
+        engine.evaluate(Arrays.asList(ap(ROUTER_1, "home", WPA2, 2437)));
+        // The real router is out of range; only the copy is heard
+        engine.evaluate(Arrays.asList(ap(RANDOMIZED, "home", OPEN, 2437)));
+
+        assertEquals(1, engine.flagsFor(Bssid.parse(RANDOMIZED)));
+        assertEquals("ROGUE AP", engine.describe(1));
+    }
+
+    @Test
+    public void checksFiveHundredAccessPoints() {
+        FingerprintIndex index = new FingerprintIndex(file);
+        List<AccessPointState> scan = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String bssid = String.format("%02x:11:22:00:%02x:%02x", (i % 8) * 4, i >> 8, i & 0xff);
+            scan.add(state(bssid, "net-" + (i % 150), i % 3 == 0 ? OPEN : WPA2, 2412 + (i % 13) * 5));
+        }
+
+        int[] mismatches = new int[3];
+        for (int r = 0; r < mismatches.length; r++) {
+            for (int i = 0; i < scan.size(); i++) {
+                mismatches[r] += index.check(scan.get(i)) != 0 ? 1 : 0;
+            }
+        }
+
+        // The first AP heard per SSID is learned; the rest differ from it and are never learned
+        assertEquals(150, index.getNetworkCount());
+        assertEquals(150, index.getAccessPointCount());
+        assertEquals(scan.size() - 150, mismatches[0]);
+        assertEquals(mismatches[0], mismatches[1]);
+        assertEquals(mismatches[0], mismatches[2]);
+    }
+
+    private static AccessPointState state(String bssid, String ssid, String capabilities, int frequency) {
+        AccessPointState state = new AccessPointState(Bssid.parse(bssid));
+        state.observe(ap(bssid, ssid, capabilities, frequency), 1);
+        return state;
+    }
+
+    private static AccessPoint ap(String bssid, String ssid, String capabilities, int frequency) {
+        return new AccessPoint(bssid, ssid, capabilities, -60, frequency, 0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HapticEngineTest {
+
+    /** Records every call instead of vibrating. */
+    private static final class RecordingOutput implements HapticEngine.Output {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void play(HapticEngine.Mode mode, int level) {
+            calls.add(mode + ":" + level);
+        }
+
+        @Override
+        public void stop() {
+            calls.add("stop");
+        }
+    }
+
+    @Test
+    public void quantizesLevels() {
+        assertEquals(0, HapticEngine.levelOf(-95));
+        assertEquals(0, HapticEngine.levelOf(-89));
+        assertEquals(1, HapticEngine.levelOf(-88));
+        assertEquals(2, HapticEngine.levelOf(-70));
+        assertEquals(3, HapticEngine.levelOf(-60));
+        assertEquals(HapticEngine.LEVEL_COUNT, HapticEngine.levelOf(-40));
+        assertEquals(HapticEngine.LEVEL_COUNT, HapticEngine.levelOf(-20));
+    }
+
+    @Test
+    public void steadyLevelIsIssuedOnce() {
+        RecordingOutput output = new RecordingOutput();
+        HapticEngine engine = new HapticEngine(output, HapticEngine.Mode.AMPLITUDE);
+
+        for (int i = 0; i < 100; i++) {
+            engine.update(-60, i * 500L);
+        }
+
+        assertEquals(1, output.calls.size());
+        assertEquals("AMPLITUDE:3", output.calls.get(0));
+        assertEquals(1, engine.getCallCount());
+        assertEquals(100, engine.getRequestCount());
+    }
+
+    @Test
+    public void hysteresisHoldsTheStepAtABoundary() {
+        RecordingOutput output = new RecordingOutput();
+        HapticEngine engine = new HapticEngine(output, HapticEngine.Mode.AMPLITUDE);
+        engine.update(-70, 0);
+        assertEquals(2, engine.getLevel());
+
+        // Flickering across -64 does nothing
+        for (int i = 0; i < 20; i++) {
+            engine.update(i % 2 == 0 ? -65 : -63, i);
+        }
+        assertEquals(2, engine.getLevel());
+        assertEquals(1, output.calls.size());
+
+        // Clearly past it moves, and coming back needs the same margin
+        engine.update(-61, 100);
+        assertEquals(3, engine.getLevel());
+        engine.update(-67, 101);
+        assertEquals(3, engine.getLevel());
+        engine.update(-68, 102);
+        assertEquals(2, engine.getLevel());
+        assertEquals(3, output.calls.size());
+    }
+
+    @Test
+    public void fadingOutStopsOnce() {
+        RecordingOutput output = new RecordingOutput();
+        HapticEngine engine = new HapticEngine(output, HapticEngine.Mode.PULSE);
+        engine.update(-45, 0);
+        engine.update(-95, 1);
+        engine.update(-95, 2);
+        engine.stop(3);
+        engine.stop(4);
+
+        assertEquals("PULSE:" + HapticEngine.LEVEL_COUNT, output.calls.get(0));
+        assertEquals("stop", output.calls.get(1));
+        assertEquals(2, output.calls.size());
+    }
+
+    @Test
+    public void changingModeReplaysTheCurrentStep() {
+        RecordingOutput output = new RecordingOutput();
+        HapticEngine engine = new HapticEngine(output, HapticEngine.Mode.AMPLITUDE);
+        engine.setMode(HapticEngine.Mode.PULSE);
+        assertTrue(output.calls.isEmpty());
+
+        engine.update(-80, 0);
+        engine.setMode(HapticEngine.Mode.AMPLITUDE);
+        engine.setMode(HapticEngine.Mode.AMPLITUDE);
+
+        assertEquals("PULSE:1", output.calls.get(0));
+        assertEquals("AMPLITUDE:1", output.calls.get(1));
+        assertEquals(2, output.calls.size());
+    }
+
+    @Test
+    public void walkCostsFarFewerCallsThanEveryTick() {
+        // Ten minutes of 500 ms ticks on a noisy approach and retreat
+        RecordingOutput output = new RecordingOutput();
+        HapticEngine engine = new HapticEngine(output, HapticEngine.Mode.AMPLITUDE);
+        Random random = new Random(2);
+        KalmanFilter filter = new KalmanFilter(0.5f, 16f);
+        int ticks = 1200;
+        for (int i = 0; i < ticks; i++) {
+            double phase = Math.sin(Math.PI * i / ticks);
+            int raw = (int) Math.round(-90 + 50 * phase + random.nextGaussian() * 4);
+            engine.update(Math.round(filter.update(raw)), i * 500L);
+        }
+        long now = ticks * 500L;
+
+        assertEquals(120f, engine.getRequestsPerMinute(now), 0.5f);
+        assertTrue(engine.getCallsPerMinute(now) < 5f);
+        assertEquals(output.calls.size(), engine.getCallCount());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongLruCacheTest {
+
+    @Test
+    public void evictsTheLeastRecentlyUsed() {
+        LongLruCache<String> cache = new LongLruCache<>(2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        assertEquals("a", cache.get(1L));
+
+        cache.put(3L, "c");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2L));
+        assertEquals("a", cache.get(1L));
+        assertEquals("c", cache.get(3L));
+    }
+
+    @Test
+    public void putReplacesAndRefreshes() {
+        LongLruCache<String> cache = new LongLruCache<>(2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.put(1L, "A");
+        cache.put(3L, "c");
+
+        assertEquals("A", cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    public void matchesAnAccessOrderedLinkedHashMap() {
+        final int capacity = 64;
+        LongLruCache<Long> cache = new LongLruCache<>(capacity);
+        Map<Long, Long> reference = new LinkedHashMap<Long, Long>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50000; i++) {
+            // Narrow key range so evictions hit live probe chains
+            long key = random.nextInt(200) * 0x10000L;
+            if (random.nextBoolean()) {
+                assertEquals(reference.get(key), cache.get(key));
+            } else {
+                reference.put(key, (long) i);
+                cache.put(key, (long) i);
+            }
+            assertEquals(reference.size(), cache.size());
+        }
+        for (long key = 0; key < 200; key++) {
+            assertEquals(reference.containsKey(key * 0x10000L), cache.get(key * 0x10000L) != null);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullValues() {
+        new LongLruCache<String>(4).put(1L, null);
+    }
+}
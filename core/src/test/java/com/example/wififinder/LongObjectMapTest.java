@@ -0,0 +1,60 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void putGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(1L, "a"));
+        assertEquals("a", map.put(1L, "b"));
+        assertEquals("b", map.get(1L));
+        assertTrue(map.containsKey(1L));
+        assertEquals(1, map.size());
+
+        assertEquals("b", map.remove(1L));
+        assertNull(map.get(1L));
+        assertNull(map.remove(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50000; i++) {
+            // Narrow key range so removals hit live probe chains
+            long key = random.nextInt(2000) * 0x10000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                assertEquals(reference.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        final int[] visited = {0};
+        map.forEach((key, value) -> {
+            assertEquals(reference.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(reference.size(), visited[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullValues() {
+        new LongObjectMap<String>().put(1L, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiTargetTrackerTest {
+
+    private static final long A = Bssid.parse("02:00:00:00:00:0a");
+    private static final long B = Bssid.parse("02:00:00:00:00:0b");
+    private static final long C = Bssid.parse("02:00:00:00:00:0c");
+
+    private final ScanStore store = new ScanStore();
+    private long timestamp = 0;
+
+    @Test
+    public void ranksTargetsClosestFirst() {
+        MultiTargetTracker tracker = newTracker(A, B, C);
+
+        assertTrue(tracker.update(scan(A, -80, B, -50, C, -65)));
+
+        assertEquals(B, tracker.getRanked(0).getBssidKey());
+        assertEquals(C, tracker.getRanked(1).getBssidKey());
+        assertEquals(A, tracker.getRanked(2).getBssidKey());
+        assertEquals(-50, tracker.getRanked(0).getLevel());
+    }
+
+    @Test
+    public void sameGenerationIsSkipped() {
+        MultiTargetTracker tracker = newTracker(A, B);
+        ScanStore.Snapshot scan = scan(A, -60);
+
+        assertTrue(tracker.update(scan));
+        assertFalse(tracker.update(scan));
+    }
+
+    @Test
+    public void missingTargetDropsOutOfRangeAfterGracePeriod() {
+        MultiTargetTracker tracker = newTracker(A, B);
+        tracker.update(scan(A, -40, B, -70));
+
+        for (int i = 0; i < MultiTargetTracker.MAX_MISSED_SCANS; i++) {
+            tracker.update(scan(B, -70));
+            assertTrue(tracker.getRanked(0).isInRange());
+        }
+        tracker.update(scan(B, -70));
+
+        assertEquals(B, tracker.getRanked(0).getBssidKey());
+        assertFalse(tracker.getRanked(1).isInRange());
+    }
+
+    @Test
+    public void ignoresInvalidDuplicateAndExtraTargets() {
+        long[] keys = new long[MultiTargetTracker.MAX_TARGETS + 5];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        keys[1] = Bssid.INVALID;
+        keys[2] = keys[0];
+
+        MultiTargetTracker tracker = new MultiTargetTracker(keys, null,
+                new RssiFilterBank(RssiFilterBank.Type.NONE));
+
+        assertEquals(MultiTargetTracker.MAX_TARGETS, tracker.size());
+        assertEquals(Bssid.format(1), tracker.getRanked(0).getSsid());
+    }
+
+    private MultiTargetTracker newTracker(long... keys) {
+        return new MultiTargetTracker(keys, null, new RssiFilterBank(RssiFilterBank.Type.NONE));
+    }
+
+    // Pairs of BSSID key and level
+    private ScanStore.Snapshot scan(long... keysAndLevels) {
+        timestamp++;
+        List<AccessPoint> results = new ArrayList<>();
+        for (int i = 0; i < keysAndLevels.length; i += 2) {
+            results.add(new AccessPoint(Bssid.format(keysAndLevels[i]), "net", "",
+                    (int) keysAndLevels[i + 1], 2412, timestamp));
+        }
+        return store.update(results, timestamp);
+    }
+}
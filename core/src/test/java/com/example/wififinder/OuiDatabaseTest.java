@@ -0,0 +1,151 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class OuiDatabaseTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("oui").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void findsRegisteredPrefixes() throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x002272, "American Micro-Fuel Device Corp.");
+        vendors.put(0x086195, "Rockwell Automation, Inc.");
+        vendors.put(0x3C0754, "Apple, Inc.");
+        vendors.put(0xF0D1A9, "Apple, Inc.");
+        OuiDatabase db = new OuiDatabase(ByteBuffer.wrap(OuiDatabaseBuilder.build(vendors)));
+
+        assertEquals(4, db.size());
+        assertEquals("American Micro-Fuel Device Corp.", db.lookup(0x002272));
+        assertEquals("Apple, Inc.", db.lookup(0xF0D1A9));
+        assertEquals("Rockwell Automation, Inc.", db.lookup(0x086195));
+        assertNull(db.lookup(0x000000));
+        assertNull(db.lookup(0x3C0755));
+        assertNull(db.lookup(0xFFFFFF));
+    }
+
+    @Test
+    public void resolvesBssidsAndCachesThem() throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x3C0754, "Apple, Inc.");
+        OuiDatabase db = new OuiDatabase(ByteBuffer.wrap(OuiDatabaseBuilder.build(vendors)));
+        long apple = Bssid.parse("3c:07:54:12:34:56");
+
+        String first = db.vendorOf(apple);
+        assertEquals("Apple, Inc.", first);
+        assertSame(first, db.vendorOf(apple));
+        assertNull(db.vendorOf(Bssid.parse("00:11:22:33:44:55")));
+        assertNull(db.vendorOf(Bssid.parse("00:11:22:33:44:55")));
+        assertEquals(4, db.getLookups());
+        assertEquals(2, db.getCacheHits());
+    }
+
+    @Test
+    public void randomizedBssidsHaveNoVendor() throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x3E0754, "Not a vendor prefix");
+        OuiDatabase db = new OuiDatabase(ByteBuffer.wrap(OuiDatabaseBuilder.build(vendors)));
+
+        assertNull(db.vendorOf(Bssid.parse("3e:07:54:12:34:56")));
+        assertEquals(0, db.getLookups());
+    }
+
+    @Test
+    public void emptyDatabaseKnowsNothing() {
+        assertEquals(0, OuiDatabase.EMPTY.size());
+        assertNull(OuiDatabase.EMPTY.vendorOf(Bssid.parse("3c:07:54:12:34:56")));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        new OuiDatabase(ByteBuffer.wrap("Registry,Assignment".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFiles() throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x3C0754, "Apple, Inc.");
+        byte[] bytes = OuiDatabaseBuilder.build(vendors);
+        new OuiDatabase(ByteBuffer.wrap(bytes, 0, OuiDatabase.HEADER_SIZE + 4).slice());
+    }
+
+    @Test
+    public void readsAMappedFile() throws IOException {
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x3C0754, "Apple, Inc.");
+        File file = new File(directory, "oui.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(OuiDatabaseBuilder.build(vendors));
+        }
+
+        OuiDatabase db;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            db = new OuiDatabase(in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length()));
+        }
+        assertEquals("Apple, Inc.", db.vendorOf(Bssid.parse("3c:07:54:12:34:56")));
+    }
+
+    @Test
+    public void parsesTheRegistryCsv() throws IOException {
+        String csv = "Registry,Assignment,Organization Name,Organization Address\r\n"
+                + "MA-L,002272,American Micro-Fuel Device Corp.,2181 Buchanan Loop Ferndale WA US 98248 \r\n"
+                + "MA-L,086195,\"Rockwell Automation, Inc.\",\"1 Allen-Bradley Dr.\nMayfield Heights OH US \"\r\n"
+                + "MA-M,70B3D5,Not a MA-L block,Somewhere\r\n"
+                + "MA-L,3c0754,\"The \"\"Quoted\"\" Company \",Elsewhere";
+
+        TreeMap<Integer, String> vendors = OuiDatabaseBuilder.parseCsv(new StringReader(csv));
+
+        assertEquals(3, vendors.size());
+        assertEquals("American Micro-Fuel Device Corp.", vendors.get(0x002272));
+        assertEquals("Rockwell Automation, Inc.", vendors.get(0x086195));
+        assertEquals("The \"Quoted\" Company", vendors.get(0x3C0754));
+    }
+
+    @Test
+    public void longNamesAreCutAtACharacterBoundary() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 254; i++) {
+            name.append('x');
+        }
+        // A two-byte character across the 255-byte limit is left out whole
+        name.append("\u00e9 and the rest");
+        TreeMap<Integer, String> vendors = new TreeMap<>();
+        vendors.put(0x3C0754, name.toString());
+        vendors.put(0x3C0755, "Short");
+        OuiDatabase db = new OuiDatabase(ByteBuffer.wrap(OuiDatabaseBuilder.build(vendors)));
+
+        assertEquals(name.substring(0, 254), db.lookup(0x3C0754));
+        assertEquals("Short", db.lookup(0x3C0755));
+    }
+}
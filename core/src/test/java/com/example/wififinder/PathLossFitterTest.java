@@ -0,0 +1,103 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathLossFitterTest {
+
+    @Test
+    public void recoversModelFromNoiselessTrace() {
+        PathLossModel truth = new PathLossModel(-38, 3.1);
+        PathLossFitter fitter = new PathLossFitter();
+        for (double d : new double[]{1, 2, 4, 8}) {
+            fitter.addSample(d, truth.rssiAt(d));
+        }
+
+        PathLossModel fitted = fitter.fit(2.5);
+
+        assertEquals(-38, fitted.getRssiAt1m(), 1e-9);
+        assertEquals(3.1, fitted.getExponent(), 1e-9);
+    }
+
+    @Test
+    public void recoversModelFromNoisyWalk() {
+        PathLossModel truth = new PathLossModel(-44, 2.2);
+        Random random = new Random(11);
+        CalibrationSession session = new CalibrationSession();
+
+        while (true) {
+            for (int i = 0; i < 40; i++) {
+                double rssi = truth.rssiAt(session.getCurrentDistance()) + random.nextGaussian() * 3;
+                session.addSample((int) Math.round(rssi));
+            }
+            assertTrue(session.isStepComplete());
+            if (session.isLastStep()) {
+                break;
+            }
+            session.advance();
+        }
+
+        PathLossModel fitted = session.fit();
+
+        assertEquals(-44, fitted.getRssiAt1m(), 1.5);
+        assertEquals(2.2, fitted.getExponent(), 0.25);
+    }
+
+    @Test
+    public void singleDistanceKeepsFallbackExponent() {
+        PathLossFitter fitter = new PathLossFitter();
+        fitter.addSample(1, -45);
+        fitter.addSample(1, -47);
+
+        PathLossModel fitted = fitter.fit(2.5);
+
+        assertEquals(-46, fitted.getRssiAt1m(), 1e-9);
+        assertEquals(2.5, fitted.getExponent(), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsImplausibleExponent() {
+        PathLossFitter fitter = new PathLossFitter();
+        // Signal getting stronger while walking away
+        fitter.addSample(1, -70);
+        fitter.addSample(8, -50);
+        fitter.fit(2.5);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsEmptyCapture() {
+        new PathLossFitter().fit(2.5);
+    }
+
+    @Test
+    public void modelEncodingRoundTrips() {
+        PathLossModel model = new PathLossModel(-41.25, 2.75);
+
+        assertEquals(model, PathLossModel.decode(model.encode()));
+        assertNull(PathLossModel.decode("garbage"));
+        assertNull(PathLossModel.decode("-40,-1"));
+        assertNull(PathLossModel.decode(null));
+    }
+
+    @Test
+    public void meanAveragesEachParameter() {
+        PathLossModel mean = PathLossModel.mean(Arrays.asList(
+                new PathLossModel(-40, 2.0), new PathLossModel(-44, 3.0), new PathLossModel(-42, 2.5)));
+
+        assertEquals(-42, mean.getRssiAt1m(), 1e-9);
+        assertEquals(2.5, mean.getExponent(), 1e-9);
+        assertNull(PathLossModel.mean(Collections.<PathLossModel>emptyList()));
+    }
+
+    @Test
+    public void distanceInvertsRssi() {
+        PathLossModel model = new PathLossModel(-40, 2.5);
+        assertEquals(6.0, model.distanceMeters(model.rssiAt(6.0)), 1e-9);
+        assertEquals(1.0, model.distanceMeters(-40), 1e-9);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RefreshBackoffTest {
+
+    @Test
+    public void doublesUpToTheCeilingAndResetsOnChange() {
+        RefreshBackoff backoff = new RefreshBackoff(1000, 16000);
+        assertEquals(1000, backoff.getIntervalMs());
+
+        long[] expected = {2000, 4000, 8000, 16000, 16000};
+        for (long interval : expected) {
+            backoff.onUnchanged();
+            assertEquals(interval, backoff.getIntervalMs());
+        }
+
+        backoff.onChanged();
+        assertEquals(1000, backoff.getIntervalMs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvertedRange() {
+        new RefreshBackoff(2000, 1000);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays RSSI traces through each filter and reports lag and steady-state
+ * variance. The traces are synthetic walks (a step toward the AP with
+ * Gaussian fading and occasional deep drops) so the test is reproducible.
+ */
+public class RssiFilterReplayTest {
+
+    private static final int STEP_AT = 100;
+    private static final int LENGTH = 300;
+    private static final float FAR = -75f;
+    private static final float NEAR = -55f;
+
+    @Test
+    public void everyFilterReducesVarianceWithBoundedLag() {
+        float[] trace = stepTrace(new Random(7), 4f);
+        Result raw = replay(new EwmaFilter(1f), trace);
+
+        for (RssiFilterBank.Type type : RssiFilterBank.Type.values()) {
+            if (type == RssiFilterBank.Type.NONE) {
+                continue;
+            }
+            Result result = replay(type.create(), trace);
+            assertTrue(type + " variance", result.variance < raw.variance / 2);
+            assertTrue(type + " lag", result.lag <= 20);
+        }
+    }
+
+    @Test
+    public void medianRejectsSingleSpikes() {
+        MedianFilter median = new MedianFilter(5);
+        for (int i = 0; i < 10; i++) {
+            median.update(-60f);
+        }
+        assertEquals(-60f, median.update(-95f), 0f);
+        assertEquals(-60f, median.update(-60f), 0f);
+    }
+
+    @Test
+    public void filtersStartAtTheFirstSample() {
+        for (RssiFilterBank.Type type : RssiFilterBank.Type.values()) {
+            RssiFilter filter = type.create();
+            assertTrue(Float.isNaN(filter.value()));
+            assertEquals(-42f, filter.update(-42f), 0f);
+            filter.reset();
+            assertTrue(Float.isNaN(filter.value()));
+        }
+    }
+
+    @Test
+    public void bankKeepsStatePerAccessPoint() {
+        RssiFilterBank bank = new RssiFilterBank(RssiFilterBank.Type.EWMA);
+        bank.update(1L, -40);
+        bank.update(2L, -80);
+
+        assertTrue(bank.update(1L, -40) > -41f);
+        assertTrue(bank.update(2L, -80) < -79f);
+
+        bank.setType(RssiFilterBank.Type.MEDIAN);
+        assertEquals(-60f, bank.update(1L, -60), 0f);
+    }
+
+    private static float[] stepTrace(Random random, float sigma) {
+        float[] trace = new float[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            float level = i < STEP_AT ? FAR : NEAR;
+            float sample = level + (float) random.nextGaussian() * sigma;
+            if (random.nextInt(25) == 0) {
+                sample -= 15f;
+            }
+            trace[i] = Math.round(sample);
+        }
+        return trace;
+    }
+
+    private static Result replay(RssiFilter filter, float[] trace) {
+        float[] out = new float[trace.length];
+        for (int i = 0; i < trace.length; i++) {
+            out[i] = filter.update(trace[i]);
+        }
+
+        // Lag: samples after the step until the estimate is within 3 dB of the new level
+        int lag = trace.length;
+        for (int i = STEP_AT; i < trace.length; i++) {
+            if (Math.abs(out[i] - NEAR) <= 3f) {
+                lag = i - STEP_AT;
+                break;
+            }
+        }
+
+        // Variance around the true level once settled
+        double sum = 0;
+        int n = 0;
+        for (int i = STEP_AT + 50; i < trace.length; i++) {
+            double d = out[i] - NEAR;
+            sum += d * d;
+            n++;
+        }
+        return new Result(lag, sum / n);
+    }
+
+    private static final class Result {
+        final int lag;
+        final double variance;
+
+        Result(int lag, double variance) {
+            this.lag = lag;
+            this.variance = variance;
+        }
+    }
+}
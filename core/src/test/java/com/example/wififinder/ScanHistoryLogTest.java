@@ -0,0 +1,131 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ScanHistoryLogTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void recordsRoundTrip() throws IOException {
+        long bssid = Bssid.parse("aa:bb:cc:dd:ee:ff");
+        ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+        writer.append(1700000000000L, bssid, "Café ☕", -42, 5180, 2);
+        writer.append(1700000000500L, Bssid.parse("02:00:00:00:00:01"), null, -90, 2412, 0);
+        writer.append(1700000001000L, bssid, "Café ☕", -127, 6115, 5);
+        writer.close();
+
+        ScanHistoryReader reader = ScanHistoryReader.open(directory);
+        assertEquals(3, reader.size());
+
+        assertEquals(1700000000000L, reader.timestampAt(0));
+        assertEquals(bssid, reader.bssidAt(0));
+        assertEquals("Café ☕", reader.ssidAt(0));
+        assertEquals(-42, reader.levelAt(0));
+        assertEquals(5180, reader.frequencyAt(0));
+        assertEquals(2, reader.channelWidthAt(0));
+
+        assertEquals("", reader.ssidAt(1));
+        assertEquals(2412, reader.frequencyAt(1));
+
+        assertEquals("Café ☕", reader.ssidAt(2));
+        assertEquals(-127, reader.levelAt(2));
+        assertEquals(6115, reader.frequencyAt(2));
+    }
+
+    @Test
+    public void reopeningAppendsAndReusesDictionary() throws IOException {
+        ScanHistoryWriter first = new ScanHistoryWriter(directory);
+        first.append(1, 1, "home", -50, 2437, 0);
+        first.close();
+
+        ScanHistoryWriter second = new ScanHistoryWriter(directory);
+        second.append(2, 2, "home", -60, 2437, 0);
+        second.append(3, 3, "office", -70, 2437, 0);
+        second.close();
+
+        ScanHistoryReader reader = ScanHistoryReader.open(directory);
+        assertEquals(3, reader.size());
+        assertEquals("home", reader.ssidAt(1));
+        assertEquals("office", reader.ssidAt(2));
+        assertEquals(2, ScanHistoryReader.readDictionary(
+                new File(directory, ScanHistoryFormat.DICTIONARY_FILE)).size());
+    }
+
+    @Test
+    public void tornTailRecordIsDropped() throws IOException {
+        ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+        writer.append(1, 1, "a", -50, 2412, 0);
+        writer.close();
+
+        File log = new File(directory, ScanHistoryFormat.LOG_FILE);
+        try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+            file.setLength(file.length() + 10);
+        }
+        assertEquals(1, ScanHistoryReader.open(directory).size());
+
+        writer = new ScanHistoryWriter(directory);
+        writer.append(2, 2, "a", -60, 2412, 0);
+        writer.close();
+
+        ScanHistoryReader reader = ScanHistoryReader.open(directory);
+        assertEquals(2, reader.size());
+        assertEquals(2, reader.timestampAt(1));
+    }
+
+    @Test
+    public void sustainsThousandsOfRecordsPerSecond() throws IOException {
+        final int count = 200_000;
+        String[] ssids = new String[64];
+        for (int i = 0; i < ssids.length; i++) {
+            ssids[i] = "net-" + i;
+        }
+
+        long start = System.nanoTime();
+        ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+        for (int i = 0; i < count; i++) {
+            writer.append(i, i % 500, ssids[i % ssids.length], -30 - i % 70, 2412, 0);
+        }
+        writer.close();
+        long elapsedNs = System.nanoTime() - start;
+
+        double perSecond = count * 1e9 / elapsedNs;
+        assertEquals(count, writer.getRecordsWritten());
+        // Scans arrive at a few hundred results every few seconds
+        assertTrue("only " + (long) perSecond + " records/s", perSecond > 10_000);
+
+        ScanHistoryReader reader = ScanHistoryReader.open(directory);
+        assertEquals(count, reader.size());
+        long levels = 0;
+        for (int i = 0; i < reader.size(); i++) {
+            levels += reader.levelAt(i);
+        }
+        assertTrue(levels < 0);
+        assertEquals(count - 1, reader.timestampAt(count - 1));
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the pipeline against synthetic scan results. The test thread plays the
+ * UI thread: it only sees work that the pipeline posts to {@link #uiExecutor}.
+ */
+public class ScanPipelineTest {
+
+    private final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+    private final Executor uiExecutor = uiQueue::add;
+
+    private FakeEnvironment environment;
+    private ScanPipeline pipeline;
+    private final List<ScanSnapshot> delivered = new ArrayList<>();
+    private final List<Thread> deliveryThreads = new ArrayList<>();
+    private int unchangedCalls;
+
+    @Before
+    public void setUp() {
+        environment = new FakeEnvironment();
+        pipeline = new ScanPipeline(environment, uiExecutor, new ScanPipeline.Listener() {
+            @Override
+            public void onSnapshot(ScanSnapshot snapshot) {
+                delivered.add(snapshot);
+                deliveryThreads.add(Thread.currentThread());
+            }
+
+            @Override
+            public void onUnchanged() {
+                unchangedCalls++;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void classifiesAndSortsOffTheUiThread() throws Exception {
+        environment.results = syntheticScan(150);
+
+        pipeline.requestRefresh();
+        ScanSnapshot snapshot = drainOneHandOff();
+
+        assertNotNull(environment.fetchThread);
+        assertNotSame(Thread.currentThread(), environment.fetchThread);
+        assertEquals(1, deliveryThreads.size());
+        assertSame(Thread.currentThread(), deliveryThreads.get(0));
+
+        assertEquals(ScanSnapshot.Status.OK, snapshot.getStatus());
+        assertEquals(150, snapshot.getNetworks().size());
+        int suspicious = 0;
+        for (int i = 0; i < snapshot.getNetworks().size(); i++) {
+            NetworkRow row = snapshot.getNetworks().get(i);
+            if (i > 0) {
+                assertTrue(snapshot.getNetworks().get(i - 1).getLevel() >= row.getLevel());
+            }
+            // First scan, unique SSIDs: only the level rules can fire
+            assertEquals(expectSuspicious(row), row.isSuspicious());
+            assertEquals(row.isSuspicious(), snapshot.isSuspicious(row.getBssidKey()));
+            if (row.isSuspicious()) {
+                suspicious++;
+            }
+        }
+        assertEquals(countExpected(environment.results), suspicious);
+        assertEquals(suspicious, snapshot.getSuspiciousCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotIsImmutable() throws Exception {
+        environment.results = syntheticScan(10);
+
+        pipeline.requestRefresh();
+        drainOneHandOff().getNetworks().clear();
+    }
+
+    @Test
+    public void reportsPlatformStateWithoutFetching() throws Exception {
+        environment.wifiEnabled = false;
+
+        pipeline.requestRefresh();
+        ScanSnapshot snapshot = drainOneHandOff();
+
+        assertEquals(ScanSnapshot.Status.WIFI_DISABLED, snapshot.getStatus());
+        assertNull(environment.fetchThread);
+        assertTrue(snapshot.getNetworks().isEmpty());
+    }
+
+    @Test
+    public void reportsEmptyScan() throws Exception {
+        environment.results = new ArrayList<>();
+
+        pipeline.requestRefresh();
+
+        assertEquals(ScanSnapshot.Status.NO_NETWORKS, drainOneHandOff().getStatus());
+    }
+
+    @Test
+    public void unchangedScanSkipsProcessing() throws Exception {
+        environment.results = syntheticScan(20);
+        pipeline.requestRefresh();
+        drainOneHandOff();
+
+        pipeline.requestRefresh();
+        Runnable handOff = uiQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(handOff);
+        handOff.run();
+
+        assertEquals(1, delivered.size());
+        assertEquals(1, unchangedCalls);
+        assertEquals(2, pipeline.getRefreshCount());
+        assertEquals(1, pipeline.getUnchangedCount());
+    }
+
+    @Test
+    public void malformedBssidsStayDistinctRows() throws Exception {
+        environment.results = new ArrayList<>();
+        environment.results.add(new AccessPoint("02:00:00:00:00:01", "valid", "", -60, 2412, 0));
+        environment.results.add(new AccessPoint("not-a-bssid", "first", "", -61, 2412, 0));
+        environment.results.add(new AccessPoint("also-not-one", "second", "", -62, 2412, 0));
+
+        pipeline.requestRefresh();
+        List<NetworkRow> rows = drainOneHandOff().getNetworks();
+
+        assertEquals(Bssid.parse("02:00:00:00:00:01"), rows.get(0).getBssidKey());
+        assertEquals(Bssid.INVALID, rows.get(1).getBssidKey());
+        assertEquals(Bssid.INVALID, rows.get(2).getBssidKey());
+        assertFalse(rows.get(1).isSameNetwork(rows.get(2)));
+        assertTrue(rows.get(1).isSameNetwork(new NetworkRow("not-a-bssid", "first", -70, "")));
+        assertFalse(rows.get(0).isSameNetwork(rows.get(1)));
+    }
+
+    private ScanSnapshot drainOneHandOff() throws InterruptedException {
+        Runnable handOff = uiQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull("pipeline did not publish a snapshot", handOff);
+        assertTrue(delivered.isEmpty());
+        handOff.run();
+        assertEquals(1, delivered.size());
+        return delivered.get(0);
+    }
+
+    private static List<AccessPoint> syntheticScan(int count) {
+        List<AccessPoint> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new AccessPoint(String.format("02:00:00:00:%02x:%02x", i >> 8, i & 0xff),
+                    (i % 7 == 0) ? "" : "net-" + i, "", -30 - (i * 37) % 65, 2412, 0));
+        }
+        return results;
+    }
+
+    private static boolean expectSuspicious(NetworkRow row) {
+        boolean hidden = row.getSsid().equals("<Hidden Network>");
+        return row.getLevel() > SuspicionRules.STRONG_SIGNAL_LEVEL
+                || (hidden && row.getLevel() > SuspicionRules.HIDDEN_STRONG_LEVEL);
+    }
+
+    private static int countExpected(List<AccessPoint> results) {
+        int count = 0;
+        for (AccessPoint sr : results) {
+            if (sr.getLevel() > SuspicionRules.STRONG_SIGNAL_LEVEL
+                    || (sr.isHidden() && sr.getLevel() > SuspicionRules.HIDDEN_STRONG_LEVEL)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class FakeEnvironment implements ScanPipeline.Environment {
+        final ScanStore store = new ScanStore();
+        volatile boolean wifiEnabled = true;
+        volatile List<AccessPoint> results;
+        volatile Thread fetchThread;
+
+        @Override
+        public boolean isWifiEnabled() {
+            return wifiEnabled;
+        }
+
+        @Override
+        public boolean hasLocationPermission() {
+            return true;
+        }
+
+        @Override
+        public boolean isLocationEnabled() {
+            return true;
+        }
+
+        @Override
+        public ScanStore.Snapshot fetchScan() {
+            fetchThread = Thread.currentThread();
+            return store.update(results, 0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.wififinder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScanSchedulerTest {
+
+    private long now;
+    private ScanScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        scheduler = new ScanScheduler(() -> now);
+    }
+
+    @Test
+    public void grantsFourScansPerRollingWindow() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+            scheduler.recordScan();
+            now += 10_000;
+        }
+
+        assertFalse(scheduler.canScan(ScanScheduler.Priority.USER));
+        assertEquals(4, scheduler.getUsedSlots());
+        // First scan went out at 1_000_000, it leaves the window 120 s later
+        assertEquals(1_120_000, scheduler.nextSlotMs(ScanScheduler.Priority.USER));
+        assertEquals(80_000, scheduler.millisUntilNextSlot(ScanScheduler.Priority.USER));
+
+        now = 1_120_000;
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+        assertEquals(3, scheduler.getUsedSlots());
+    }
+
+    @Test
+    public void rollingWindowFreesSlotsOneByOne() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.recordScan();
+            now += 30_000;
+        }
+        // The old fixed window waited for all four to expire; here the
+        // oldest frees its slot exactly 120 s after it was issued
+        assertEquals(1_120_000, now);
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+        scheduler.recordScan();
+        assertEquals(1_150_000, scheduler.nextSlotMs(ScanScheduler.Priority.USER));
+    }
+
+    @Test
+    public void activeTrackerKeepsAReservedToken() {
+        scheduler.onTrackerStarted();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+            scheduler.recordScan();
+        }
+
+        assertFalse(scheduler.canScan(ScanScheduler.Priority.USER));
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.TRACKER));
+
+        scheduler.onTrackerStopped();
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+    }
+
+    @Test
+    public void periodicScansAreEvenlySpaced() {
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.PERIODIC));
+        scheduler.recordScan();
+
+        now += 29_999;
+        assertFalse(scheduler.canScan(ScanScheduler.Priority.PERIODIC));
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+
+        now += 1;
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.PERIODIC));
+    }
+
+    @Test
+    public void periodicScansLeaveATokenForTaps() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.recordScan();
+            now += ScanScheduler.PERIODIC_SPACING_MS;
+        }
+
+        assertFalse(scheduler.canScan(ScanScheduler.Priority.PERIODIC));
+        assertTrue(scheduler.canScan(ScanScheduler.Priority.USER));
+    }
+}
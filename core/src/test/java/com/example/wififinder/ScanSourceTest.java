@@ -0,0 +1,181 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/** The scan logic end to end on a plain JVM, fed by synthetic and replayed scans. */
+public class ScanSourceTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replay").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void syntheticScansAreRepeatableForASeed() {
+        SyntheticScanSource a = new SyntheticScanSource(7, 50);
+        SyntheticScanSource b = new SyntheticScanSource(7, 50);
+        for (int scan = 0; scan < 20; scan++) {
+            assertTrue(a.startScan());
+            assertTrue(b.startScan());
+            assertEquals(a.getTimeMs(), b.getTimeMs());
+            assertEquals(a.getScanResults().toString(), b.getScanResults().toString());
+        }
+        assertEquals(SyntheticScanSource.START_TIME_MS + 20 * SyntheticScanSource.SCAN_INTERVAL_MS,
+                a.getTimeMs());
+        assertEquals(20, a.getScanCount());
+    }
+
+    @Test
+    public void syntheticScansLookLikeARealNeighbourhood() {
+        SyntheticScanSource source = new SyntheticScanSource(3, 200);
+        Set<Integer> bands = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        int hidden = 0;
+        int heard = 0;
+        boolean repeatedName = false;
+        for (int scan = 0; scan < 10; scan++) {
+            source.startScan();
+            for (AccessPoint ap : source.getScanResults()) {
+                assertTrue(Bssid.isValid(ap.getBssidKey()));
+                assertTrue(ap.getLevel() >= -95);
+                assertTrue(ap.getTimestampMs() <= source.getTimeMs());
+                assertTrue(ap.getTimestampMs() > source.getTimeMs() - SyntheticScanSource.SCAN_INTERVAL_MS);
+                bands.add(ap.getBand());
+                heard++;
+                if (ap.isHidden()) {
+                    hidden++;
+                } else if (scan == 0 && !names.add(ap.getSsid())) {
+                    repeatedName = true;
+                }
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(2, 5, 6)), bands);
+        assertTrue(repeatedName);
+        assertTrue(hidden > 0);
+        assertTrue(hidden < heard / 5);
+    }
+
+    @Test
+    public void pipelineRunsHeadlessOnSyntheticScans() {
+        final SyntheticScanSource source = new SyntheticScanSource(11, 120);
+        final ScanStore store = new ScanStore();
+        SignalHistory history = new SignalHistory();
+        store.addListener(history);
+        final ChannelAnalyzer analyzer = new ChannelAnalyzer();
+        store.addListener(new ScanStore.Listener() {
+            @Override
+            public void onNewGeneration(ScanStore.Snapshot snapshot) {
+                analyzer.update(snapshot);
+            }
+        });
+
+        ScanPipeline pipeline = new ScanPipeline(ScanPipeline.Environment.alwaysOn(() -> {
+            source.startScan();
+            return store.update(source.getScanResults(), source.getTimeMs());
+        }), Runnable::run, new ScanPipeline.Listener() {
+            @Override
+            public void onSnapshot(ScanSnapshot snapshot) {
+            }
+        });
+        try {
+            long samples = 0;
+            for (int scan = 0; scan < 30; scan++) {
+                ScanSnapshot snapshot = pipeline.process();
+                assertNotNull(snapshot);
+                assertEquals(ScanSnapshot.Status.OK, snapshot.getStatus());
+                assertEquals(source.getScanResults().size(), snapshot.getNetworks().size());
+                samples += snapshot.getNetworks().size();
+            }
+            assertEquals(30, store.getFetches());
+            assertEquals(samples, history.getSampleCount());
+            assertEquals(30, analyzer.getScanCount());
+            for (int band : ChannelAnalyzer.BANDS) {
+                assertTrue(analyzer.hasSeen(band));
+                assertTrue(analyzer.recommend(band) > 0);
+            }
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    public void replayPlaysBackRecordedScans() throws IOException {
+        SyntheticScanSource source = new SyntheticScanSource(5, 40);
+        ScanStore store = new ScanStore();
+        ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+        store.addListener(new ScanHistoryRecorder(writer));
+        List<List<AccessPoint>> recorded = new ArrayList<>();
+        for (int scan = 0; scan < 25; scan++) {
+            source.startScan();
+            assertFalse(source.getScanResults().isEmpty());
+            store.update(source.getScanResults(), source.getTimeMs());
+            recorded.add(source.getScanResults());
+        }
+        writer.close();
+
+        ReplayScanSource replay = new ReplayScanSource(ScanHistoryReader.open(directory));
+        for (List<AccessPoint> expected : recorded) {
+            assertTrue(replay.hasNext());
+            assertTrue(replay.startScan());
+            List<AccessPoint> actual = replay.getScanResults();
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getBssidKey(), actual.get(i).getBssidKey());
+                assertEquals(expected.get(i).getSsid(), actual.get(i).getSsid());
+                assertEquals(expected.get(i).getLevel(), actual.get(i).getLevel());
+                assertEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+                assertEquals(expected.get(i).getTimestampMs(), actual.get(i).getTimestampMs());
+                assertEquals(expected.get(i).getChannelWidth(), actual.get(i).getChannelWidth());
+            }
+        }
+        assertFalse(replay.hasNext());
+        assertFalse(replay.startScan());
+        assertEquals(recorded.size(), replay.getScanCount());
+    }
+
+    @Test
+    public void replaySplitsUnmarkedLogsOnRepeatedBssids() throws IOException {
+        long a = Bssid.parse("02:00:00:00:00:01");
+        long b = Bssid.parse("02:00:00:00:00:02");
+        ScanHistoryWriter writer = new ScanHistoryWriter(directory);
+        writer.append(1000, a, "a", -50, 2412, 0);
+        writer.append(1000, b, "b", -60, 2437, 0);
+        writer.append(6000, a, "a", -55, 2412, 0);
+        writer.close();
+
+        ReplayScanSource replay = new ReplayScanSource(ScanHistoryReader.open(directory));
+        assertTrue(replay.startScan());
+        assertEquals(2, replay.getScanResults().size());
+        assertEquals(1000, replay.getTimeMs());
+        assertTrue(replay.startScan());
+        assertEquals(1, replay.getScanResults().size());
+        assertEquals(-55, replay.getScanResults().get(0).getLevel());
+        assertFalse(replay.startScan());
+    }
+}
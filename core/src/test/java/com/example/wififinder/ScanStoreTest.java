@@ -0,0 +1,93 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanStoreTest {
+
+    @Test
+    public void identicalResultsKeepTheGeneration() {
+        ScanStore store = new ScanStore();
+
+        ScanStore.Snapshot first = store.update(scan(1000L, -60, -70), 10);
+        ScanStore.Snapshot second = store.update(scan(1000L, -60, -70), 20);
+
+        assertEquals(1, first.getGeneration());
+        assertSame(first, second);
+        assertEquals(10, second.getUpdatedAtMs());
+    }
+
+    @Test
+    public void newTimestampsStartANewGeneration() {
+        ScanStore store = new ScanStore();
+
+        store.update(scan(1000L, -60, -70), 10);
+        ScanStore.Snapshot next = store.update(scan(2000L, -60, -70), 20);
+
+        assertEquals(2, next.getGeneration());
+        assertSame(next, store.current());
+    }
+
+    @Test
+    public void indexesResultsByBssidKey() {
+        ScanStore store = new ScanStore();
+
+        ScanStore.Snapshot snapshot = store.update(scan(1000L, -60, -70), 10);
+
+        AccessPoint hit = snapshot.find(Bssid.parse("02:00:00:00:00:01"));
+        assertNotNull(hit);
+        assertEquals(-70, hit.getLevel());
+        assertNull(snapshot.find(Bssid.parse("02:00:00:00:00:09")));
+    }
+
+    @Test
+    public void emptyScanIsAGeneration() {
+        ScanStore store = new ScanStore();
+
+        ScanStore.Snapshot snapshot = store.update(null, 10);
+
+        assertEquals(1, snapshot.getGeneration());
+        assertTrue(snapshot.getResults().isEmpty());
+    }
+
+    @Test
+    public void stalenessFollowsLastFetchNotLastChange() {
+        ScanStore store = new ScanStore();
+        assertTrue(store.isStale(0, 1000));
+
+        store.update(scan(1000L, -60), 10_000);
+        assertFalse(store.isStale(10_500, 1000));
+        assertTrue(store.isStale(11_000, 1000));
+
+        // Same scan again: no new generation, but the cache is fresh
+        store.update(scan(1000L, -60), 11_000);
+        assertFalse(store.isStale(11_500, 1000));
+    }
+
+    @Test
+    public void countsCachedReadsAndFetches() {
+        ScanStore store = new ScanStore();
+        store.update(scan(1000L, -60), 10);
+        store.update(scan(1000L, -60), 20);
+        for (int i = 0; i < 5; i++) {
+            store.readCached();
+        }
+        // Plain reads never stood in for a binder call
+        store.current();
+
+        assertEquals(2, store.getFetches());
+        assertEquals(5, store.getCacheReads());
+    }
+
+    private static List<AccessPoint> scan(long timestamp, int... levels) {
+        List<AccessPoint> results = new ArrayList<>();
+        for (int i = 0; i < levels.length; i++) {
+            results.add(new AccessPoint("02:00:00:00:00:0" + i, "net-" + i, "", levels[i], 2412, timestamp));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.wififinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanTraceTest {
+
+    private static final long START_MS = SyntheticScanSource.START_TIME_MS;
+    private static final long TARGET = Bssid.parse("5e:00:00:00:00:2a");
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("trace").toFile();
+        file = new File(directory, "trace.wft");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void eventsRoundTrip() throws IOException {
+        AccessPoint wide = new AccessPoint("aa:bb:cc:dd:ee:ff", "Café ☕", "[WPA2-PSK-CCMP][ESS]", -42, 5180,
+                START_MS + 900, AccessPoint.CHANNEL_WIDTH_80MHZ, 5210, 0);
+        AccessPoint hidden = new AccessPoint("02:00:00:00:00:01", null, "[ESS]", -91, 2412, START_MS - 30_000);
+        // Same BSSID, new SSID: a second definition
+        AccessPoint renamed = new AccessPoint("aa:bb:cc:dd:ee:ff", "Other", "[WPA2-PSK-CCMP][ESS]", -50, 5180,
+                START_MS + 6000, AccessPoint.CHANNEL_WIDTH_80MHZ, 5210, 0);
+
+        ScanTraceWriter writer = new ScanTraceWriter(file, START_MS);
+        writer.scanAvailable(START_MS + 1000, true);
+        writer.scanResults(START_MS + 1200, Arrays.asList(wide, hidden));
+        writer.rssiPoll(START_MS + 1500, wide.getBssidKey(), -40);
+        writer.rssiPoll(START_MS + 1700, Bssid.INVALID, -127);
+        // Clock went back: recorded at the previous time
+        writer.scanAvailable(START_MS + 1600, false);
+        writer.scanResults(START_MS + 6500, Arrays.asList(wide.withLevel(-45, START_MS + 6400), renamed));
+        writer.close();
+        assertEquals(6, writer.getEventCount());
+        assertEquals(file.length(), writer.getByteCount());
+
+        try (ScanTraceReader reader = new ScanTraceReader(file)) {
+            assertEquals(START_MS, reader.getStartMs());
+
+            assertEquals(ScanTraceReader.Event.SCAN_AVAILABLE, reader.next());
+            assertEquals(START_MS + 1000, reader.getTimeMs());
+            assertTrue(reader.isUpdated());
+
+            assertEquals(ScanTraceReader.Event.SCAN_RESULTS, reader.next());
+            assertEquals(START_MS + 1200, reader.getTimeMs());
+            assertResults(wide, hidden, reader.getResults());
+
+            assertEquals(ScanTraceReader.Event.RSSI_POLL, reader.next());
+            assertEquals(wide.getBssidKey(), reader.getBssidKey());
+            assertEquals(-40, reader.getRssi());
+
+            assertEquals(ScanTraceReader.Event.RSSI_POLL, reader.next());
+            assertEquals(START_MS + 1700, reader.getTimeMs());
+            assertEquals(Bssid.INVALID, reader.getBssidKey());
+            assertEquals(-127, reader.getRssi());
+
+            assertEquals(ScanTraceReader.Event.SCAN_AVAILABLE, reader.next());
+            assertEquals(START_MS + 1700, reader.getTimeMs());
+            assertFalse(reader.isUpdated());
+
+            assertEquals(ScanTraceReader.Event.SCAN_RESULTS, reader.next());
+            assertResults(wide.withLevel(-45, START_MS + 6400), renamed, reader.getResults());
+
+            assertNull(reader.next());
+            assertEquals(6, reader.getEventCount());
+        }
+    }
+
+    @Test
+    public void scansCostAFewBytesPerAccessPoint() throws IOException {
+        SyntheticScanSource source = new SyntheticScanSource(9, 200);
+        ScanTraceWriter writer = new ScanTraceWriter(file, START_MS);
+        long heard = 0;
+        for (int scan = 0; scan < 500; scan++) {
+            source.startScan();
+            writer.scanAvailable(source.getTimeMs(), true);
+            writer.scanResults(source.getTimeMs() + 20, source.getScanResults());
+            heard += source.getScanResults().size();
+        }
+        writer.close();
+
+        double perAccessPoint = (double) file.length() / heard;
+        // The history log takes 24
+        assertTrue("bytes per access point " + perAccessPoint, perAccessPoint < 5);
+    }
+
+    @Test
+    public void tornTailEndsBeforeTheTornEvent() throws IOException {
+        SyntheticScanSource source = new SyntheticScanSource(4, 30);
+        ScanTraceWriter writer = new ScanTraceWriter(file, START_MS);
+        for (int scan = 0; scan < 10; scan++) {
+            source.startScan();
+            writer.scanResults(source.getTimeMs(), source.getScanResults());
+        }
+        writer.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        try (ScanTraceReader reader = new ScanTraceReader(file)) {
+            int scans = 0;
+            while (reader.next() != null) {
+                scans++;
+            }
+            assertEquals(9, scans);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Files.write(file.toPath(), "bssid,ssid,level\n".getBytes());
+        new ScanTraceReader(file);
+    }
+
+    @Test
+    public void replayIsDeterministicAndMatchesTheLiveRun() throws Exception {
+        SyntheticScanSource source = new SyntheticScanSource(21, 100);
+        Trail live = new Trail();
+        ScanTraceWriter writer = new ScanTraceWriter(file, START_MS);
+        for (int scan = 0; scan < 2000; scan++) {
+            source.startScan();
+            long timeMs = source.getTimeMs();
+            writer.scanAvailable(timeMs, true);
+            live.logic.onScanAvailable(timeMs, true);
+            writer.scanResults(timeMs + 15, source.getScanResults());
+            live.logic.onScanResults(timeMs + 15, source.getScanResults());
+            // The tracker polls the connection between scans
+            for (int poll = 1; poll < 5; poll++) {
+                int rssi = -60 - (scan + poll) % 13;
+                writer.rssiPoll(timeMs + poll * 1000, TARGET, rssi);
+                live.logic.onRssiPoll(timeMs + poll * 1000, TARGET, rssi);
+            }
+        }
+        writer.close();
+        live.logic.close();
+
+        Trail first = replay(TraceReplayer.AS_FAST_AS_POSSIBLE);
+        Trail second = replay(TraceReplayer.AS_FAST_AS_POSSIBLE);
+        assertEquals(2000, first.logic.getSnapshotCount());
+        assertEquals(live.text.toString(), first.text.toString());
+        assertEquals(first.text.toString(), second.text.toString());
+        assertEquals(live.logic.getStore().getFetches(), first.logic.getStore().getFetches());
+        assertEquals(live.logic.getHistory().getSampleCount(), first.logic.getHistory().getSampleCount());
+        assertEquals(live.logic.getTick().getSmoothedRssi(), first.logic.getTick().getSmoothedRssi());
+    }
+
+    @Test
+    public void pacedReplayKeepsTheRecordedSchedule() throws Exception {
+        ScanTraceWriter writer = new ScanTraceWriter(file, START_MS);
+        writer.scanAvailable(START_MS + 1000, true);
+        writer.scanAvailable(START_MS + 3000, true);
+        writer.scanAvailable(START_MS + 9000, true);
+        writer.close();
+
+        FakeClock clock = new FakeClock();
+        final List<Long> deliveredAt = new ArrayList<>();
+        final List<Long> traceTimes = new ArrayList<>();
+        try (ScanTraceReader reader = new ScanTraceReader(file)) {
+            TraceReplayer replayer = new TraceReplayer(reader, new TraceReplayer.Listener() {
+                @Override
+                public void onScanAvailable(long timeMs, boolean updated) {
+                    deliveredAt.add(clock.nowMs);
+                    traceTimes.add(timeMs);
+                    // A slow listener: the next event is due before this returns
+                    clock.nowMs += 1500;
+                }
+
+                @Override
+                public void onScanResults(long timeMs, List<AccessPoint> results) {
+                }
+
+                @Override
+                public void onRssiPoll(long timeMs, long bssidKey, int rssi) {
+                }
+            }, clock);
+            replayer.setSpeed(2);
+            assertEquals(3, replayer.run());
+            // Due at 500, 1500 and 4500 ms; the second runs 500 ms late, without drift
+            assertEquals(Arrays.asList(500L, 2000L, 4500L), deliveredAt);
+            assertEquals(Arrays.asList(START_MS + 1000, START_MS + 3000, START_MS + 9000), traceTimes);
+            assertEquals(500, replayer.getMaxLagMs());
+        }
+    }
+
+    private Trail replay(double speed) throws Exception {
+        Trail trail = new Trail();
+        try (ScanTraceReader reader = new ScanTraceReader(file);
+             ReplayedAppLogic logic = trail.logic) {
+            TraceReplayer replayer = new TraceReplayer(reader, logic);
+            replayer.setSpeed(speed);
+            replayer.run();
+        }
+        return trail;
+    }
+
+    private static void assertResults(AccessPoint a, AccessPoint b, List<AccessPoint> actual) {
+        assertEquals(2, actual.size());
+        assertAccessPoint(a, actual.get(0));
+        assertAccessPoint(b, actual.get(1));
+    }
+
+    private static void assertAccessPoint(AccessPoint expected, AccessPoint actual) {
+        assertEquals(expected.getBssid(), actual.getBssid());
+        assertEquals(expected.getBssidKey(), actual.getBssidKey());
+        assertEquals(expected.getSsid(), actual.getSsid());
+        assertEquals(expected.getCapabilities(), actual.getCapabilities());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getFrequency(), actual.getFrequency());
+        assertEquals(expected.getTimestampMs(), actual.getTimestampMs());
+        assertEquals(expected.getChannelWidth(), actual.getChannelWidth());
+        assertEquals(expected.getCenterFreq0(), actual.getCenterFreq0());
+        assertEquals(expected.getCenterFreq1(), actual.getCenterFreq1());
+    }
+
+    /** The app logic, keeping a trail of what the list, the tracker and the vibrator showed. */
+    private static final class Trail {
+        final StringBuilder text = new StringBuilder();
+        final ReplayedAppLogic logic;
+
+        Trail() {
+            logic = new ReplayedAppLogic(TARGET, new HapticEngine(new HapticEngine.Output() {
+                @Override
+                public void play(HapticEngine.Mode mode, int level) {
+                    text.append("play ").append(level).append('\n');
+                }
+
+                @Override
+                public void stop() {
+                    text.append("stop\n");
+                }
+            }, HapticEngine.Mode.PULSE), new TrackerTick.Display() {
+                @Override
+                public void showRssiValue(String value) {
+                    text.append(value).append('\n');
+                }
+
+                @Override
+                public void showDistance(String value) {
+                    text.append(value).append('\n');
+                }
+
+                @Override
+                public void showQuality(String value) {
+                }
+
+                @Override
+                public void showQualityColor(int color) {
+                }
+
+                @Override
+                public void showCircle(int fillColor, int strokeColor) {
+                }
+            }, this::onSnapshot);
+        }
+
+        private void onSnapshot(ScanSnapshot snapshot) {
+            text.append(snapshot.getNetworks().size()).append(" rows, ")
+                    .append(snapshot.getSuspiciousCount()).append(" suspicious, best ")
+                    .append(snapshot.getNetworks().get(0).getBssid()).append('\n');
+            for (int band : ChannelAnalyzer.BANDS) {
+                text.append(logic.getAnalyzer().recommend(band)).append(' ');
+            }
+            text.append('\n');
+        }
+    }
+
+    private static final class FakeClock implements TraceReplayer.Clock {
+        long nowMs = 0;
+
+        @Override
+        public long nowMs() {
+            return nowMs;
+        }
+
+        @Override
+        public void sleepMs(long ms) {
+            nowMs += ms;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SignalHistoryTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    public void seriesReturnsHalfOpenRange() {
+        SignalHistory history = new SignalHistory();
+        for (int i = 0; i < 10; i++) {
+            history.add(1, T0 + i * 1000, -40 - i);
+        }
+
+        SignalHistory.TimeSeries s = history.series(1, T0 + 2000, T0 + 5000);
+
+        assertEquals(3, s.size());
+        assertEquals(T0 + 2000, s.timeAt(0));
+        assertEquals(-42, s.levelAt(0));
+        assertEquals(-44, s.levelAt(2));
+        assertEquals(0, history.series(2, T0, T0 + 10000).size());
+    }
+
+    @Test
+    public void repeatedAndOutOfOrderSamples() {
+        SignalHistory history = new SignalHistory();
+        history.add(1, T0 + 3000, -60);
+        history.add(1, T0 + 1000, -50);
+        history.add(1, T0 + 3000, -60);
+        history.add(1, T0 + 2000, -55);
+
+        SignalHistory.TimeSeries s = history.series(1, T0, T0 + 10000);
+
+        assertEquals(3, history.getSampleCount());
+        assertEquals(3, s.size());
+        assertEquals(-50, s.levelAt(0));
+        assertEquals(-55, s.levelAt(1));
+        assertEquals(-60, s.levelAt(2));
+    }
+
+    @Test
+    public void rollupsAggregatePerBucket() {
+        SignalHistory history = new SignalHistory();
+        // Two minutes at one sample every 5 s
+        for (int i = 0; i < 24; i++) {
+            history.add(7, T0 + i * 5000, i < 12 ? -70 + i : -40 - i);
+        }
+
+        SignalHistory.Rollup minutes = history.rollup(7, SignalHistory.Resolution.MINUTE,
+                0, Long.MAX_VALUE);
+        SignalHistory.Rollup tens = history.rollup(7, SignalHistory.Resolution.TEN_SECONDS,
+                0, Long.MAX_VALUE);
+
+        long firstMinute = Math.floorDiv(T0, 60000) * 60000;
+        assertEquals(firstMinute, minutes.startAt(0));
+        int total = 0;
+        for (int i = 0; i < minutes.size(); i++) {
+            total += minutes.countAt(i);
+        }
+        assertEquals(24, total);
+        assertEquals(12, tens.size());
+        assertEquals(2, tens.countAt(0));
+        assertEquals(-70, tens.minAt(0));
+        assertEquals(-69, tens.maxAt(0));
+        assertEquals(-69.5, tens.meanAt(0), 1e-9);
+    }
+
+    @Test
+    public void seenSinceAndMaxPerMinute() {
+        SignalHistory history = new SignalHistory();
+        history.add(1, T0, -80);
+        history.add(2, T0 + 120_000, -60);
+        history.add(2, T0 + 121_000, -50);
+        history.add(3, T0 + 150_000, -70);
+
+        long[] seen = history.seenSince(T0 + 60_000);
+        Arrays.sort(seen);
+        assertArrayEquals(new long[]{2, 3}, seen);
+
+        LongObjectMap<SignalHistory.Rollup> max = history.maxPerMinute(T0 + 60_000, T0 + 200_000);
+        assertEquals(2, max.size());
+        assertNull(max.get(1));
+        assertEquals(-50, max.get(2).maxAt(0));
+    }
+
+    @Test
+    public void queriesCopyOnlyTheirWindow() {
+        // 20 APs every 3 s: about 8 hours in the long history, 50 minutes in the short one
+        final int aps = 20;
+        SignalHistory shortHistory = history(aps, 1_000);
+        SignalHistory longHistory = history(aps, 10_000);
+        assertEquals((long) aps * 10_000, longHistory.getSampleCount());
+
+        // Windows inside both histories come back the same size, however long the history
+        Random random = new Random(7);
+        for (int q = 0; q < 100; q++) {
+            long from = T0 + random.nextInt(1_000 - 200) * 3000L;
+            int ap = q % aps;
+
+            // One minute of one AP: one sample per scan
+            assertEquals(20, longHistory.series(ap, from, from + 60_000).size());
+            assertEquals(20, shortHistory.series(ap, from, from + 60_000).size());
+
+            // Ten minutes of every AP: ten or eleven minute buckets each
+            LongObjectMap<SignalHistory.Rollup> max = longHistory.maxPerMinute(from, from + 600_000);
+            assertEquals(aps, max.size());
+            int buckets = max.get(ap).size();
+            assertTrue(buckets + " buckets", buckets == 10 || buckets == 11);
+            assertEquals(buckets, shortHistory.maxPerMinute(from, from + 600_000).get(ap).size());
+        }
+    }
+
+    private static SignalHistory history(int aps, int scans) {
+        SignalHistory history = new SignalHistory();
+        Random random = new Random(42);
+        for (int scan = 0; scan < scans; scan++) {
+            long t = T0 + scan * 3000L;
+            for (int ap = 0; ap < aps; ap++) {
+                history.add(ap, t + ap, -30 - random.nextInt(60));
+            }
+        }
+        return history;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class SignalStyleTableTest {
+
+    private final SignalStyleTable table = SignalStyleTable.getDefault();
+
+    @Test
+    public void distanceMatchesPathLossFormula() {
+        for (int rssi = -100; rssi <= 0; rssi++) {
+            double expected = Math.pow(10, (-40 - rssi) / 25.0);
+            assertEquals(expected, table.get(rssi).getDistanceMeters(), 1e-9);
+        }
+        assertEquals("< 1 meter", table.get(-35).getDistanceText());
+        assertEquals(String.format("~%.1f meters", Math.pow(10, 20 / 25.0)),
+                table.get(-60).getDistanceText());
+        assertEquals(String.format("~%.0f meters", Math.pow(10, 45 / 25.0)),
+                table.get(-85).getDistanceText());
+    }
+
+    @Test
+    public void bandsMatchTrackerThresholds() {
+        assertEquals("Excellent - Very Close!", table.get(-49).getQuality());
+        assertEquals("Good - Close", table.get(-50).getQuality());
+        assertEquals("Fair - Medium Distance", table.get(-60).getQuality());
+        assertEquals("Weak - Far", table.get(-70).getQuality());
+        assertEquals("Very Weak - Very Far", table.get(-80).getQuality());
+        assertEquals(0xFF4CAF50, table.get(-49).getFillColor());
+        assertEquals(0xFFB71C1C, table.get(-80).getStrokeColor());
+    }
+
+    @Test
+    public void listColorsUseFourBands() {
+        assertEquals(0xFF4CAF50, table.get(-45).getListColor());
+        assertEquals(0xFF8BC34A, table.get(-55).getListColor());
+        assertEquals(0xFFFF9800, table.get(-65).getListColor());
+        assertEquals(0xFFF44336, table.get(-75).getListColor());
+        assertEquals(0xFFF44336, table.get(-95).getListColor());
+    }
+
+    @Test
+    public void clampsOutOfRangeLevels() {
+        assertSame(table.get(SignalStyleTable.MIN_RSSI), table.get(-200));
+        assertSame(table.get(SignalStyleTable.MAX_RSSI), table.get(15));
+        assertEquals("-67", table.get(-67).getLevelText());
+    }
+
+    @Test
+    public void lookupDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int checksum = 0;
+        for (int i = 0; i < 100_000; i++) {
+            checksum += table.get(-(i % 100)).getFillColor();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            SignalStyle style = table.get(-(i % 100));
+            checksum += style.getFillColor() ^ style.getStrokeColor() ^ style.getQualityColor();
+            checksum += style.getDistanceText().length() + style.getLevelText().length();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum != 0);
+        assertEquals("bytes allocated by 1M lookups", 0, allocated);
+    }
+}
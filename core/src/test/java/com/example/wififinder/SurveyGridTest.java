@@ -0,0 +1,198 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SurveyGridTest {
+
+    private static final long BSSID = Bssid.parse("00:11:22:33:44:55");
+    private static final float DELTA = 1e-3f;
+
+    @Test
+    public void estimateAtASampleIsItsLevel() {
+        SurveyGrid.Layer layer = new SurveyGrid().layer(BSSID);
+        layer.add(1.2f, 1.2f, -60, null);
+
+        assertEquals(-60f, layer.estimate(2, 2), DELTA);
+        assertEquals(-60f, layer.mean(2, 2), DELTA);
+        // A lone sample colours its whole neighbourhood the same
+        assertEquals(-60f, layer.estimate(5, 2), DELTA);
+        assertTrue(Float.isNaN(layer.mean(5, 2)));
+    }
+
+    @Test
+    public void interpolatesBetweenSamples() {
+        SurveyGrid.Layer layer = new SurveyGrid().layer(BSSID);
+        layer.add(0.25f, 0.25f, -40, null);
+        layer.add(2.25f, 0.25f, -80, null);
+
+        // Halfway between the two cells (0 and 4)
+        assertEquals(-60f, layer.estimate(2, 0), DELTA);
+        // Closer to the strong one: weights 1/2 and 1/10
+        float expected = (-40f / 2 + -80f / 10) / (1f / 2 + 1f / 10);
+        assertEquals(expected, layer.estimate(1, 0), DELTA);
+        assertEquals(2, layer.getSurveyedCellCount());
+    }
+
+    @Test
+    public void repeatedSamplesUpdateTheMean() {
+        SurveyGrid.Layer layer = new SurveyGrid().layer(BSSID);
+        layer.add(0.1f, 0.1f, -50, null);
+        layer.add(0.2f, 0.3f, -70, null);
+        layer.add(3.1f, 0.1f, -90, null);
+
+        assertEquals(-60f, layer.mean(0, 0), DELTA);
+        assertEquals(3, layer.getSampleCount());
+        assertEquals(2, layer.getSurveyedCellCount());
+        // The incremental estimate matches one computed from scratch
+        float w0 = 1f / (1 + 9);
+        float w1 = 1f / (1 + 9);
+        assertEquals((-60f * w0 + -90f * w1) / (w0 + w1), layer.estimate(3, 0), DELTA);
+    }
+
+    @Test
+    public void estimatesStopAtTheRadius() {
+        SurveyGrid.Layer layer = new SurveyGrid().layer(BSSID);
+        layer.add(0.1f, 0.1f, -50, null);
+
+        assertFalse(Float.isNaN(layer.estimate(SurveyGrid.RADIUS_CELLS, 0)));
+        assertTrue(Float.isNaN(layer.estimate(SurveyGrid.RADIUS_CELLS + 1, 0)));
+        assertTrue(Float.isNaN(layer.estimate(SurveyGrid.RADIUS_CELLS, SurveyGrid.RADIUS_CELLS)));
+        assertTrue(Float.isNaN(layer.estimate(-20, 40)));
+    }
+
+    @Test
+    public void listenerOnlyHearsAboutCellsInRadius() {
+        SurveyGrid.Layer layer = new SurveyGrid().layer(BSSID);
+        Set<Long> changed = new HashSet<>();
+        layer.add(-3f, 5f, -55, (cx, cy, estimate) -> {
+            int dx = cx - SurveyGrid.cellOf(-3f);
+            int dy = cy - SurveyGrid.cellOf(5f);
+            assertTrue(dx * dx + dy * dy <= SurveyGrid.RADIUS_CELLS * SurveyGrid.RADIUS_CELLS);
+            assertEquals(-55f, estimate, DELTA);
+            changed.add(((long) cx << 32) | (cy & 0xFFFFFFFFL));
+        });
+
+        assertEquals(layer.getCellCount(), changed.size());
+        assertEquals(-6, layer.getMinCx());
+        assertEquals(10, layer.getMaxCy());
+    }
+
+    @Test
+    public void keepsOneLayerPerBssid() {
+        SurveyGrid grid = new SurveyGrid();
+        long other = Bssid.parse("66:77:88:99:aa:bb");
+        grid.layer(BSSID).add(0f, 0f, -50, null);
+        grid.layer(other).add(0f, 0f, -80, null);
+
+        assertSame(grid.layer(BSSID), grid.find(BSSID));
+        assertEquals(-50f, grid.find(BSSID).estimate(0, 0), DELTA);
+        assertEquals(-80f, grid.find(other).estimate(0, 0), DELTA);
+        assertNull(grid.find(Bssid.parse("00:00:00:00:00:01")));
+        assertEquals(2, grid.getLayerCount());
+    }
+
+    @Test
+    public void exportsEveryEstimatedCell() throws Exception {
+        SurveyGrid grid = new SurveyGrid();
+        grid.layer(BSSID).add(0.1f, 0.1f, -50, null);
+        StringWriter out = new StringWriter();
+
+        grid.export(out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals("bssid,x_m,y_m,samples,mean_dbm,estimate_dbm", lines[0]);
+        assertEquals(1 + grid.find(BSSID).getCellCount(), lines.length);
+        boolean sawSurveyed = false;
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",", -1);
+            assertEquals(6, fields.length);
+            assertEquals("00:11:22:33:44:55", fields[0]);
+            if (lines[i].equals("00:11:22:33:44:55,0.25,0.25,1,-50.0,-50.0")) {
+                sawSurveyed = true;
+            } else {
+                assertEquals("0", fields[3]);
+                assertEquals("", fields[4]);
+            }
+        }
+        assertTrue(sawSurveyed);
+    }
+
+    @Test
+    public void snapshotIsUnaffectedByLaterSamples() throws Exception {
+        SurveyGrid grid = new SurveyGrid();
+        grid.layer(BSSID).add(0.1f, 0.1f, -50, null);
+        StringWriter before = new StringWriter();
+        grid.export(before);
+
+        SurveyGrid.Export snapshot = grid.snapshot();
+        grid.layer(BSSID).add(0.1f, 0.1f, -70, null);
+        grid.layer(BSSID).add(5f, 5f, -60, null);
+        StringWriter after = new StringWriter();
+        snapshot.write(after);
+
+        assertEquals(grid.find(BSSID).getCellCount(), grid.snapshot().size());
+        assertTrue(snapshot.size() < grid.snapshot().size());
+        assertEquals(before.toString(), after.toString());
+    }
+
+    @Test
+    public void deadReckoningFollowsTheHeading() {
+        DeadReckoning walker = new DeadReckoning(10f, 10f, 1f);
+
+        walker.setHeading(0f);
+        walker.onStep();
+        assertEquals(10f, walker.getX(), DELTA);
+        assertEquals(9f, walker.getY(), DELTA);
+
+        walker.setHeading((float) (Math.PI / 2));
+        walker.onStep();
+        walker.onStep();
+        assertEquals(12f, walker.getX(), DELTA);
+        assertEquals(9f, walker.getY(), DELTA);
+        assertEquals(3, walker.getStepCount());
+
+        walker.setPosition(4f, 5f);
+        assertEquals(4f, walker.getX(), DELTA);
+        assertEquals(5f, walker.getY(), DELTA);
+    }
+
+    @Test
+    public void samplesTouchOnlyTheirRadius() {
+        int disc = 0;
+        for (int dy = -SurveyGrid.RADIUS_CELLS; dy <= SurveyGrid.RADIUS_CELLS; dy++) {
+            for (int dx = -SurveyGrid.RADIUS_CELLS; dx <= SurveyGrid.RADIUS_CELLS; dx++) {
+                if (dx * dx + dy * dy <= SurveyGrid.RADIUS_CELLS * SurveyGrid.RADIUS_CELLS) {
+                    disc++;
+                }
+            }
+        }
+
+        SurveyGrid grid = new SurveyGrid();
+        Random random = new Random(5);
+        DeadReckoning walker = new DeadReckoning(15f, 15f);
+        int[] touched = new int[1];
+        for (int i = 0; i < 20000; i++) {
+            walker.setHeading(random.nextFloat() * 6.28f);
+            walker.onStep();
+            final int sx = SurveyGrid.cellOf(walker.getX());
+            final int sy = SurveyGrid.cellOf(walker.getY());
+            touched[0] = 0;
+            grid.layer(BSSID).add(walker.getX(), walker.getY(), -40 - random.nextInt(50),
+                    (cx, cy, estimate) -> {
+                        int d2 = (cx - sx) * (cx - sx) + (cy - sy) * (cy - sy);
+                        assertTrue(d2 <= SurveyGrid.RADIUS_CELLS * SurveyGrid.RADIUS_CELLS);
+                        touched[0]++;
+                    });
+            // The same number of cells for the first sample and the last
+            assertEquals(disc, touched[0]);
+        }
+        assertTrue(grid.find(BSSID).getCellCount() > 10 * disc);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SuspicionEngineTest {
+
+    // Universally administered, two vendors, and one randomized (locally administered)
+    private static final String VENDOR_A_1 = "00:11:22:00:00:01";
+    private static final String VENDOR_A_2 = "00:11:22:00:00:02";
+    private static final String VENDOR_B = "00:33:44:00:00:01";
+    private static final String RANDOMIZED = "02:aa:bb:00:00:01";
+
+    @Test
+    public void strongSignalKeepsTheOriginalThreshold() {
+        SuspicionEngine engine = engine(SuspicionRules.strongSignal(-50));
+
+        engine.evaluate(scan(ap(VENDOR_A_1, "home", -49), ap(VENDOR_B, "cafe", -50)));
+
+        assertEquals(1, engine.flagsFor(Bssid.parse(VENDOR_A_1)));
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_B)));
+    }
+
+    @Test
+    public void evilTwinNeedsTwoVendorsOnOneSsid() {
+        SuspicionEngine engine = engine(SuspicionRules.evilTwin());
+
+        // Mesh of one vendor
+        engine.evaluate(scan(ap(VENDOR_A_1, "home", -60), ap(VENDOR_A_2, "home", -70)));
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_A_1)));
+
+        // A phone hotspot copies the name
+        engine.evaluate(scan(ap(VENDOR_A_1, "home", -60), ap(VENDOR_A_2, "home", -70),
+                ap(RANDOMIZED, "home", -55), ap(VENDOR_B, "", -40)));
+        assertEquals(1, engine.flagsFor(Bssid.parse(VENDOR_A_1)));
+        assertEquals(1, engine.flagsFor(Bssid.parse(RANDOMIZED)));
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_B)));
+    }
+
+    @Test
+    public void rssiJumpOnlyBetweenConsecutiveScans() {
+        SuspicionEngine engine = engine(SuspicionRules.rssiJump(20));
+        long key = Bssid.parse(VENDOR_A_1);
+
+        engine.evaluate(scan(ap(VENDOR_A_1, "x", -80)));
+        engine.evaluate(scan(ap(VENDOR_A_1, "x", -65)));
+        assertEquals(0, engine.flagsFor(key));
+
+        engine.evaluate(scan(ap(VENDOR_A_1, "x", -40)));
+        assertEquals(1, engine.flagsFor(key));
+
+        // Missing for a scan: a big change after a gap is not a jump
+        engine.evaluate(scan());
+        engine.evaluate(scan(ap(VENDOR_A_1, "x", -80)));
+        assertEquals(0, engine.flagsFor(key));
+    }
+
+    @Test
+    public void hiddenStrong() {
+        SuspicionEngine engine = engine(SuspicionRules.hiddenStrong(-60));
+
+        engine.evaluate(scan(ap(VENDOR_A_1, "", -55), ap(VENDOR_A_2, "", -75),
+                ap(VENDOR_B, "named", -40)));
+
+        assertEquals(1, engine.flagsFor(Bssid.parse(VENDOR_A_1)));
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_A_2)));
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_B)));
+    }
+
+    @Test
+    public void flappingBeaconIsFlaggedThenForgiven() {
+        SuspicionEngine engine = engine(SuspicionRules.flapping(3));
+        long key = Bssid.parse(RANDOMIZED);
+
+        engine.evaluate(scan(ap(RANDOMIZED, "hotspot", -60)));
+        for (int i = 0; i < 3; i++) {
+            engine.evaluate(scan());
+            engine.evaluate(scan(ap(RANDOMIZED, "hotspot", -60)));
+        }
+        assertEquals(1, engine.flagsFor(key));
+
+        for (int i = 0; i < AccessPointState.STABLE_SCANS; i++) {
+            engine.evaluate(scan(ap(RANDOMIZED, "hotspot", -60)));
+        }
+        assertEquals(0, engine.flagsFor(key));
+    }
+
+    @Test
+    public void countsHitsPerRuleAndDescribesFlags() {
+        SuspicionEngine engine = SuspicionEngine.withDefaultRules();
+
+        engine.evaluate(scan(ap(VENDOR_A_1, "home", -45), ap(RANDOMIZED, "home", -70)));
+
+        assertEquals(5, engine.getRuleCount());
+        assertEquals(1, engine.getHits(0));
+        assertEquals(2, engine.getHits(1));
+        assertEquals(1, engine.getScanCount());
+        assertEquals("VERY CLOSE, EVIL TWIN",
+                engine.describe(engine.flagsFor(Bssid.parse(VENDOR_A_1))));
+    }
+
+    @Test
+    public void absentAccessPointHasNoFlags() {
+        SuspicionEngine engine = engine(SuspicionRules.strongSignal(-50));
+        engine.evaluate(scan(ap(VENDOR_A_1, "x", -30)));
+        engine.evaluate(scan());
+
+        assertEquals(0, engine.flagsFor(Bssid.parse(VENDOR_A_1)));
+        assertNotNull(engine.stateFor(Bssid.parse(VENDOR_A_1)));
+    }
+
+    @Test
+    public void evaluatesFiveHundredAccessPoints() {
+        SuspicionEngine engine = SuspicionEngine.withDefaultRules();
+        Random random = new Random(7);
+        List<List<AccessPoint>> scans = new ArrayList<>();
+        for (int s = 0; s < 20; s++) {
+            scans.add(syntheticScan(500, random));
+        }
+
+        long[] hits = new long[engine.getRuleCount()];
+        for (int i = 0; i < 200; i++) {
+            List<AccessPoint> scan = scans.get(i % scans.size());
+            int flagged = engine.evaluate(scan);
+
+            // The count returned matches the per-AP verdicts, and each rule's hits add up
+            int expected = 0;
+            for (AccessPoint ap : scan) {
+                int flags = engine.flagsFor(ap.getBssidKey());
+                if (flags != 0) {
+                    expected++;
+                }
+                for (int r = 0; r < hits.length; r++) {
+                    if ((flags & (1 << r)) != 0) {
+                        hits[r]++;
+                    }
+                }
+            }
+            assertEquals(expected, flagged);
+        }
+
+        assertEquals(200, engine.getScanCount());
+        for (int r = 0; r < hits.length; r++) {
+            assertEquals(engine.getRuleName(r), hits[r], engine.getHits(r));
+        }
+        // Levels reach -30 dBm, and SSIDs are shared across vendors
+        assertTrue(engine.getHits(0) > 0);
+        assertTrue(engine.getHits(1) > 0);
+    }
+
+    private static SuspicionEngine engine(SuspicionRule rule) {
+        return new SuspicionEngine(Arrays.asList(rule));
+    }
+
+    private static AccessPoint ap(String bssid, String ssid, int level) {
+        return new AccessPoint(bssid, ssid, "", level, 2412, 0);
+    }
+
+    private static List<AccessPoint> scan(AccessPoint... results) {
+        return Arrays.asList(results);
+    }
+
+    // 500 APs from 8 vendors over 150 SSIDs; about a tenth hidden, some missing per scan
+    private static List<AccessPoint> syntheticScan(int count, Random random) {
+        List<AccessPoint> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(20) == 0) {
+                continue;
+            }
+            int vendor = i % 8;
+            String bssid = String.format("%02x:11:22:00:%02x:%02x",
+                    vendor == 7 ? 0x02 : vendor * 4, i >> 8, i & 0xff);
+            String ssid = i % 10 == 0 ? "" : "net-" + (i % 150);
+            results.add(ap(bssid, ssid, -30 - random.nextInt(65)));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SuspicionMonitorTest {
+
+    private static final String BSSID = "00:11:22:00:00:01";
+
+    @Test
+    public void evaluatesEachGenerationOnce() {
+        SuspicionMonitor monitor = new SuspicionMonitor(
+                new SuspicionEngine(Arrays.asList(SuspicionRules.strongSignal(-50))));
+        ScanStore store = new ScanStore();
+        store.addListener(monitor);
+
+        ScanStore.Snapshot scan = store.update(scan(-40), 10);
+        SuspicionMonitor.Verdicts verdicts = monitor.verdictsFor(scan);
+        store.update(scan(-40), 20);
+
+        assertSame(verdicts, monitor.verdictsFor(scan));
+        assertEquals(scan.getGeneration(), verdicts.getGeneration());
+        assertEquals("VERY CLOSE", verdicts.reasonFor(Bssid.parse(BSSID)));
+        assertEquals("", verdicts.reasonFor(Bssid.parse("00:11:22:00:00:02")));
+        assertEquals(1, monitor.getEngine().getScanCount());
+    }
+
+    @Test
+    public void ruleStateOutlivesPipelines() {
+        SuspicionMonitor monitor = new SuspicionMonitor(
+                new SuspicionEngine(Arrays.asList(SuspicionRules.rssiJump(20))));
+        ScanStore store = new ScanStore();
+        store.addListener(monitor);
+
+        // No reader in between, as when no screen is showing
+        store.update(scan(-80), 10);
+        ScanStore.Snapshot jumped = store.update(scan(-40), 20);
+
+        assertEquals(2, monitor.getEngine().getScanCount());
+        assertEquals("RSSI JUMP", monitor.verdictsFor(jumped).reasonFor(Bssid.parse(BSSID)));
+    }
+
+    @Test
+    public void readerCatchesUpBeforeTheListener() {
+        SuspicionMonitor monitor = new SuspicionMonitor(
+                new SuspicionEngine(Arrays.asList(SuspicionRules.strongSignal(-50))));
+        ScanStore store = new ScanStore();
+
+        ScanStore.Snapshot scan = store.update(scan(-40), 10);
+        SuspicionMonitor.Verdicts verdicts = monitor.verdictsFor(scan);
+        monitor.onNewGeneration(scan);
+
+        assertEquals(1, verdicts.getFlaggedCount());
+        assertEquals(1, monitor.getEngine().getScanCount());
+    }
+
+    private static List<AccessPoint> scan(int level) {
+        return Arrays.asList(new AccessPoint(BSSID, "net", "", level, 2412, 0),
+                new AccessPoint("00:11:22:00:00:02", "other", "", -70, 2412, 0));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.wififinder;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class TrackerTickTest {
+
+    private static final long BSSID = Bssid.parse("00:11:22:33:44:55");
+
+    /** Records display calls. */
+    private static final class RecordingDisplay implements TrackerTick.Display {
+        final List<String> calls = new ArrayList<>();
+        String rssiValue;
+        String distance;
+        String quality;
+
+        @Override
+        public void showRssiValue(String text) {
+            rssiValue = text;
+            calls.add("rssi");
+        }
+
+        @Override
+        public void showDistance(String text) {
+            distance = text;
+            calls.add("distance");
+        }
+
+        @Override
+        public void showQuality(String text) {
+            quality = text;
+            calls.add("quality");
+        }
+
+        @Override
+        public void showQualityColor(int color) {
+            calls.add("qualityColor");
+        }
+
+        @Override
+        public void showCircle(int fillColor, int strokeColor) {
+            calls.add("circle");
+        }
+    }
+
+    /** Counts vibrator calls. */
+    private static final class CountingOutput implements HapticEngine.Output {
+        int calls;
+
+        @Override
+        public void play(HapticEngine.Mode mode, int level) {
+            calls++;
+        }
+
+        @Override
+        public void stop() {
+            calls++;
+        }
+    }
+
+    private static TrackerTick tick(TrackerTick.Display display, HapticEngine.Output output) {
+        return new TrackerTick(BSSID, new RssiFilterBank(RssiFilterBank.Type.NONE),
+                new HapticEngine(output, HapticEngine.Mode.AMPLITUDE), display);
+    }
+
+    @Test
+    public void showsTheSampleFromTheStyleTable() {
+        RecordingDisplay display = new RecordingDisplay();
+        TrackerTick tick = tick(display, new CountingOutput());
+
+        tick.onSample(-55, 0);
+
+        SignalStyle style = SignalStyleTable.getDefault().get(-55);
+        assertEquals(-55, tick.getSmoothedRssi());
+        assertEquals("-55", display.distance);
+        assertEquals(style.getDistanceText(), display.rssiValue);
+        assertEquals(style.getQuality(), display.quality);
+        assertEquals(5, display.calls.size());
+    }
+
+    @Test
+    public void steadySignalTouchesNoView() {
+        RecordingDisplay display = new RecordingDisplay();
+        TrackerTick tick = tick(display, new CountingOutput());
+        tick.onSample(-55, 0);
+        display.calls.clear();
+
+        for (int i = 1; i < 50; i++) {
+            tick.onSample(-55, i * 500L);
+        }
+        assertTrue(display.calls.isEmpty());
+
+        // Same quality band, so only the numbers change
+        tick.onSample(-57, 30000);
+        assertEquals(2, display.calls.size());
+        assertTrue(display.calls.contains("rssi"));
+        assertTrue(display.calls.contains("distance"));
+    }
+
+    @Test
+    public void lostTargetIsShownOnce() {
+        RecordingDisplay display = new RecordingDisplay();
+        CountingOutput output = new CountingOutput();
+        TrackerTick tick = tick(display, output);
+        tick.onSample(-45, 0);
+        display.calls.clear();
+
+        tick.onLost(500);
+        int afterFirst = display.calls.size();
+        tick.onLost(1000);
+        tick.onLost(1500);
+
+        assertEquals(TrackerTick.LOST_RSSI_TEXT, display.rssiValue);
+        assertEquals(TrackerTick.LOST_DISTANCE_TEXT, display.distance);
+        assertEquals(TrackerTick.LOST_QUALITY_TEXT, display.quality);
+        assertEquals(afterFirst, display.calls.size());
+        // One buzz, one stop
+        assertEquals(2, output.calls);
+    }
+
+    @Test
+    public void vibrationCanBeTurnedOff() {
+        CountingOutput output = new CountingOutput();
+        TrackerTick tick = tick(new RecordingDisplay(), output);
+        tick.setVibrationEnabled(false);
+
+        tick.onSample(-45, 0);
+
+        assertEquals(0, output.calls);
+    }
+
+    @Test
+    public void warmTickAllocatesNothing() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        TrackerTick.Display display = new TrackerTick.Display() {
+            @Override
+            public void showRssiValue(String text) {
+            }
+
+            @Override
+            public void showDistance(String text) {
+            }
+
+            @Override
+            public void showQuality(String text) {
+            }
+
+            @Override
+            public void showQualityColor(int color) {
+            }
+
+            @Override
+            public void showCircle(int fillColor, int strokeColor) {
+            }
+        };
+        TrackerTick tick = new TrackerTick(BSSID, new RssiFilterBank(RssiFilterBank.Type.KALMAN),
+                new HapticEngine(new CountingOutput(), HapticEngine.Mode.PULSE), display);
+        // A walk in and out, with dropouts; warm up every path first
+        int[] levels = new int[2000];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = -90 + (int) (50 * Math.sin(Math.PI * i / levels.length)) + (i * 7919 % 9) - 4;
+        }
+        for (int round = 0; round < 20; round++) {
+            run(tick, levels);
+        }
+
+        // Best of a few rounds: a late JIT recompile can allocate on this
+        // thread once, while a real per-tick allocation shows in every round
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = allocations.getThreadAllocatedBytes(thread);
+            run(tick, levels);
+            allocated = Math.min(allocated, allocations.getThreadAllocatedBytes(thread) - before);
+        }
+
+        assertEquals("bytes allocated by " + levels.length + " ticks", 0, allocated);
+    }
+
+    private static void run(TrackerTick tick, int[] levels) {
+        for (int i = 0; i < levels.length; i++) {
+            if (i % 100 == 99) {
+                tick.onLost(i * 500L);
+            } else {
+                tick.onSample(levels[i], i * 500L);
+            }
+        }
+    }
+}